@@ -0,0 +1,165 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * LoadTest
+ * --------
+ * Closed-loop HTTP load generator, no dependencies (JDK 17+):
+ *
+ *   java loadtest/LoadTest.java --url http://localhost:8081/api/issues?status=open \
+ *        --concurrency 200 --duration 20
+ *
+ *   java loadtest/LoadTest.java --method POST --url http://localhost:8081/api/issue \
+ *        --form "bookId=LT{n}&studentId=LT-S1" --range 1000 --concurrency 200
+ *
+ * Each of --concurrency clients sends its next request as soon as the
+ * previous one is answered. {n} in the URL / form is replaced by a random
+ * number in [0, range). After --warmup seconds, every latency is recorded
+ * for --duration seconds.
+ *
+ * Prints a summary and appends one CSV line to --csv (if given):
+ *   label,concurrency,requests,rps,p50_ms,p90_ms,p99_ms,max_ms,errors
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opt = parse(args);
+        String url = require(opt, "url");
+        String method = opt.getOrDefault("method", "GET").toUpperCase();
+        String form = opt.get("form");
+        int range = Integer.parseInt(opt.getOrDefault("range", "1000"));
+        int concurrency = Integer.parseInt(opt.getOrDefault("concurrency", "50"));
+        int duration = Integer.parseInt(opt.getOrDefault("duration", "20"));
+        int warmup = Integer.parseInt(opt.getOrDefault("warmup", "5"));
+        String label = opt.getOrDefault("label", method + " " + URI.create(url.replace("{n}", "0")).getPath());
+        String csv = opt.get("csv");
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        long start = System.nanoTime();
+        long measureFrom = start + Duration.ofSeconds(warmup).toNanos();
+        long stopAt = measureFrom + Duration.ofSeconds(duration).toNanos();
+
+        AtomicLong errors = new AtomicLong();
+        List<long[]> perClient = new ArrayList<>();
+        List<Thread> clients = new ArrayList<>();
+
+        for (int c = 0; c < concurrency; c++) {
+            long[][] samples = { new long[4096] };
+            int[] count = { 0 };
+            Thread t = new Thread(() -> {
+                while (true) {
+                    long now = System.nanoTime();
+                    if (now >= stopAt)
+                        break;
+
+                    int n = ThreadLocalRandom.current().nextInt(range);
+                    HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url.replace("{n}", String.valueOf(n))))
+                            .timeout(Duration.ofSeconds(60));
+                    if ("POST".equals(method)) {
+                        String body = form == null ? "" : form.replace("{n}", String.valueOf(n));
+                        request.header("Content-Type", "application/x-www-form-urlencoded")
+                                .POST(HttpRequest.BodyPublishers.ofString(body));
+                    } else {
+                        request.GET();
+                    }
+
+                    boolean ok;
+                    try {
+                        HttpResponse<Void> response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+                        ok = response.statusCode() < 400;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    long end = System.nanoTime();
+
+                    if (now < measureFrom)
+                        continue;
+                    if (!ok)
+                        errors.incrementAndGet();
+                    if (count[0] == samples[0].length)
+                        samples[0] = Arrays.copyOf(samples[0], count[0] * 2);
+                    samples[0][count[0]++] = end - now;
+                }
+                synchronized (perClient) {
+                    perClient.add(Arrays.copyOf(samples[0], count[0]));
+                }
+            }, "client-" + c);
+            t.setDaemon(true);
+            clients.add(t);
+            t.start();
+        }
+        for (Thread t : clients)
+            t.join();
+
+        int total = 0;
+        for (long[] s : perClient)
+            total += s.length;
+        long[] all = new long[total];
+        int pos = 0;
+        for (long[] s : perClient) {
+            System.arraycopy(s, 0, all, pos, s.length);
+            pos += s.length;
+        }
+        Arrays.sort(all);
+
+        double rps = total / (double) duration;
+        String line = String.format("%s,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f,%d",
+                label, concurrency, total, rps,
+                ms(percentile(all, 50)), ms(percentile(all, 90)), ms(percentile(all, 99)),
+                ms(total == 0 ? 0 : all[total - 1]), errors.get());
+
+        System.out.printf("%-32s c=%-5d req=%-8d rps=%-9.1f p50=%-8.2f p90=%-8.2f p99=%-8.2f max=%-8.2f errors=%d%n",
+                label, concurrency, total, rps,
+                ms(percentile(all, 50)), ms(percentile(all, 90)), ms(percentile(all, 99)),
+                ms(total == 0 ? 0 : all[total - 1]), errors.get());
+
+        if (csv != null) {
+            java.nio.file.Path path = java.nio.file.Path.of(csv);
+            if (!java.nio.file.Files.exists(path))
+                java.nio.file.Files.writeString(path, "label,concurrency,requests,rps,p50_ms,p90_ms,p99_ms,max_ms,errors\n");
+            java.nio.file.Files.writeString(path, line + "\n", java.nio.file.StandardOpenOption.APPEND);
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0)
+            return 0;
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opt = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length)
+                throw new IllegalArgumentException("Expected --name value, got: " + args[i]);
+            opt.put(args[i].substring(2), args[++i]);
+        }
+        return opt;
+    }
+
+    private static String require(Map<String, String> opt, String name) {
+        String value = opt.get(name);
+        if (value == null)
+            throw new IllegalArgumentException("--" + name + " is required");
+        return value;
+    }
+}
@@ -0,0 +1,112 @@
+#!/usr/bin/env bash
+#
+# Platform vs virtual threads: GET /api/issues and POST /api/issue
+#
+# Starts the app twice on the in-memory store (with a simulated store
+# round trip so requests block like they do against Firestore, and the
+# per-client rate limiter off: every client comes from localhost), once with
+# the default platform threads and once with the "virtual" profile, and
+# drives both with loadtest/LoadTest.java at increasing concurrency.
+#
+#   JAVA_HOME=/path/to/jdk-21 loadtest/run.sh
+#
+# Env:  LATENCY_MS   simulated store round trip      (default 50)
+#       LEVELS       client concurrency levels        (default "50 200 800")
+#       DURATION     measured seconds per run         (default 20)
+#       WARMUP       warm-up seconds per run          (default 5)
+#       JAR          app jar (built with mvn if unset)
+#
+# Results: target/loadtest-results.csv (last committed run: loadtest/results/)
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+LATENCY_MS=${LATENCY_MS:-50}
+LEVELS=${LEVELS:-"50 200 800"}
+DURATION=${DURATION:-20}
+WARMUP=${WARMUP:-5}
+PORT=${PORT:-8099}
+BASE="http://localhost:$PORT"
+RESULTS=target/loadtest-results.csv
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+if [ -z "${JAR:-}" ]; then
+    ./mvnw -q -B -DskipTests package 2>/dev/null || mvn -q -B -DskipTests package
+    JAR=$(ls target/*.jar | grep -v plain | head -n 1)
+fi
+mkdir -p target
+rm -f "$RESULTS"
+
+APP_PID=
+stop_app() {
+    if [ -n "$APP_PID" ]; then
+        kill "$APP_PID" 2>/dev/null || true
+        wait "$APP_PID" 2>/dev/null || true
+        APP_PID=
+    fi
+}
+trap stop_app EXIT
+
+start_app() {
+    local profiles=$1
+    "$JAVA" -jar "$JAR" \
+        --spring.profiles.active="$profiles" \
+        --server.port="$PORT" \
+        --library.store.simulated-latency-ms="$LATENCY_MS" \
+        --library.reminder.enabled=false \
+        --library.admission.enabled=false \
+        > "target/loadtest-app-${profiles//,/-}.log" 2>&1 &
+    APP_PID=$!
+
+    for _ in $(seq 1 60); do
+        if curl -fs "$BASE/api/books?limit=1" > /dev/null; then
+            return
+        fi
+        sleep 1
+    done
+    echo "❌ App did not start, see target/loadtest-app-${profiles//,/-}.log"
+    exit 1
+}
+
+seed() {
+    {
+        echo "id,title,author,category,quantity"
+        for i in $(seq 0 999); do
+            echo "LT$i,Load Test Book $i,Author $i,Load,1"
+        done
+    } | curl -fs -X POST -H "Content-Type: text/csv" --data-binary @- "$BASE/api/import/books" > /dev/null
+
+    printf 'id,name,email\nLT-S1,Load Test Student,loadtest@example.com\n' \
+        | curl -fs -X POST -H "Content-Type: text/csv" --data-binary @- "$BASE/api/import/students" > /dev/null
+}
+
+run_mode() {
+    local label=$1 profiles=$2
+    echo "================= $label ($profiles) ================="
+    start_app "$profiles"
+    seed
+
+    for c in $LEVELS; do
+        "$JAVA" loadtest/LoadTest.java --label "$label GET /api/issues" \
+            --url "$BASE/api/issues?status=open&limit=20" \
+            --concurrency "$c" --duration "$DURATION" --warmup "$WARMUP" --csv "$RESULTS"
+
+        # Seeded books own one copy: once it is out, further issues of the
+        # book answer "No copies available" after the availability read
+        "$JAVA" loadtest/LoadTest.java --label "$label POST /api/issue" \
+            --method POST --url "$BASE/api/issue" \
+            --form "bookId=LT{n}&studentId=LT-S1" --range 1000 \
+            --concurrency "$c" --duration "$DURATION" --warmup "$WARMUP" --csv "$RESULTS"
+    done
+    stop_app
+}
+
+run_mode platform memory
+run_mode virtual memory,virtual
+
+echo
+if command -v column > /dev/null; then
+    column -s, -t < "$RESULTS"
+else
+    cat "$RESULTS"
+fi
@@ -0,0 +1,153 @@
+package com.example.library_management.benchmark;
+
+import com.example.library_management.model.Book;
+import com.example.library_management.model.Issue;
+import com.example.library_management.model.Log;
+import com.example.library_management.model.Student;
+import com.google.cloud.firestore.BenchmarkMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Firestore object mapping of the models.
+ *
+ * DocumentSnapshot.toObject() / QuerySnapshot.toObjects() and
+ * set(pojo) go through CustomClassMapper (reflection on getters /
+ * setters). Snapshots cannot be built without a server, so the
+ * benchmark calls the mapper directly on the same field maps
+ * (through BenchmarkMapper: the mapper is package-private).
+ *
+ *  - decode*  : Map -> POJO  (what toObject does per document)
+ *  - encode*  : POJO -> Map  (what set() / add() does)
+ *  - toObjects: a whole result set, sized like our pages (50 / 500)
+ *               and a full 5000 document collection read
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FirestoreMappingBenchmark {
+
+    private Book book;
+    private Student student;
+    private Issue issue;
+    private Log log;
+
+    private Map<String, Object> bookData;
+    private Map<String, Object> studentData;
+    private Map<String, Object> issueData;
+    private Map<String, Object> logData;
+
+    @State(Scope.Benchmark)
+    public static class ResultSet {
+
+        @Param({ "50", "500", "5000" })
+        public int documents;
+
+        List<Map<String, Object>> issues;
+
+        @Setup(Level.Trial)
+        @SuppressWarnings("unchecked")
+        public void setup() {
+            issues = new ArrayList<>(documents);
+            for (int i = 0; i < documents; i++)
+                issues.add((Map<String, Object>) BenchmarkMapper.encode(sampleIssue(i)));
+        }
+    }
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        book = new Book();
+        book.setId("CSE001");
+        book.setTitle("Data Structures and Algorithm Analysis in Java");
+        book.setAuthor("Mark Allen Weiss");
+        book.setCategory("CSE");
+        book.setQuantity(5);
+
+        student = new Student();
+        student.setId("22CSE1042");
+        student.setName("Aarav Sharma");
+        student.setEmail("aarav.sharma@example.edu");
+
+        issue = sampleIssue(0);
+
+        log = new Log();
+        log.setActionType("ISSUE");
+        log.setDescription("Issued Data Structures to Aarav Sharma");
+        log.setUser("Admin");
+        log.setTimestamp("2026-01-13T10:15:30.123");
+
+        bookData = (Map<String, Object>) BenchmarkMapper.encode(book);
+        studentData = (Map<String, Object>) BenchmarkMapper.encode(student);
+        issueData = (Map<String, Object>) BenchmarkMapper.encode(issue);
+        logData = (Map<String, Object>) BenchmarkMapper.encode(log);
+    }
+
+    private static Issue sampleIssue(int i) {
+        Issue issue = new Issue();
+        issue.setId("CSE" + (1000 + i));
+        issue.setBookId("CSE" + (1000 + i));
+        issue.setBookTitle("Operating System Concepts, 10th Edition");
+        issue.setStudentId("22CSE" + (1000 + i % 300));
+        issue.setStudentName("Student " + (i % 300));
+        issue.setIssueDate("2026-01-01");
+        issue.setDueDate("2026-01-15");
+        issue.setReturnDate(i % 3 == 0 ? "2026-01-10" : null);
+        issue.setReminderSent(i % 5 == 0);
+        return issue;
+    }
+
+    // ---------------- Map -> POJO ----------------
+    @Benchmark
+    public Book decodeBook() {
+        return BenchmarkMapper.decode(bookData, Book.class);
+    }
+
+    @Benchmark
+    public Student decodeStudent() {
+        return BenchmarkMapper.decode(studentData, Student.class);
+    }
+
+    @Benchmark
+    public Issue decodeIssue() {
+        return BenchmarkMapper.decode(issueData, Issue.class);
+    }
+
+    @Benchmark
+    public Log decodeLog() {
+        return BenchmarkMapper.decode(logData, Log.class);
+    }
+
+    // ---------------- POJO -> Map ----------------
+    @Benchmark
+    public Object encodeBook() {
+        return BenchmarkMapper.encode(book);
+    }
+
+    @Benchmark
+    public Object encodeIssue() {
+        return BenchmarkMapper.encode(issue);
+    }
+
+    @Benchmark
+    public Object encodeLog() {
+        return BenchmarkMapper.encode(log);
+    }
+
+    // ---------------- Result sets ----------------
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Issue> toObjectsIssues(ResultSet resultSet) {
+        List<Issue> result = new ArrayList<>(resultSet.issues.size());
+        for (Map<String, Object> data : resultSet.issues)
+            result.add(BenchmarkMapper.decode(data, Issue.class));
+        return result;
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.library_management.benchmark;
+
+import com.example.library_management.journal.RecordBuffer;
+import com.example.library_management.model.Book;
+import com.example.library_management.model.Student;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Baseline for LibraryServiceBenchmark: borrow / return as LibraryService
+ * did it before the per-book compute(), i.e. both methods synchronized on
+ * the whole store and the shared Book changed in place.
+ *
+ * Same catalog, same per-thread book slices and the same thread counts,
+ * so each ThreadsN here lines up with LibraryServiceBenchmark.ThreadsN:
+ *
+ *   mvn -Pbenchmarks verify -Djmh.args="LibraryService.*(borrowReturn|contended)"
+ *
+ * The journal is off in both. Both still build the PUT_BOOK record for
+ * every change (LibraryService does even with the journal off, and so
+ * did the old code), so the difference is the lock and the Book copy.
+ */
+public class LibraryServiceBaselineBenchmark {
+
+    private static final int STUDENTS = 64;
+
+    // The old LibraryService checkout path, journal off
+    static final class SynchronizedLibrary {
+        private final Map<String, Book> books = new ConcurrentHashMap<>();
+        private final Map<String, Student> students = new ConcurrentHashMap<>();
+        // Same shape as LibraryService.journal: a final field left null
+        private final Object journal;
+
+        SynchronizedLibrary() {
+            this.journal = null;
+        }
+
+        synchronized String borrowBook(String studentId, String bookId) {
+            Student s = students.get(studentId);
+            if (s == null) return "Student not found";
+            Book b = books.get(bookId);
+            if (b == null) return "Book not found";
+            if (b.isIssued()) return "Book already issued";
+            b.setIssued(true);
+            b.setIssuedTo(studentId);
+            books.compute(bookId, (k, v) -> {
+                log(putBook(b));
+                return b;
+            });
+            return "Book issued to " + s.getName();
+        }
+
+        synchronized String returnBook(String studentId, String bookId) {
+            Book b = books.get(bookId);
+            if (b == null) return "Book not found";
+            if (!b.isIssued()) return "Book is not issued";
+            if (b.getIssuedTo() == null || !b.getIssuedTo().equals(studentId)) return "Book was not issued to this student";
+            b.setIssued(false);
+            b.setIssuedTo(null);
+            books.compute(bookId, (k, v) -> {
+                log(putBook(b));
+                return b;
+            });
+            return "Book returned successfully";
+        }
+
+        // LibraryService.log(): the record is built, then dropped while the journal is off
+        private void log(RecordBuffer record) {
+            if (journal == null)
+                return;
+            throw new IllegalStateException("journal is never set here");
+        }
+
+        private static RecordBuffer putBook(Book b) {
+            return new RecordBuffer()
+                    .putByte(1)
+                    .putString(b.getId())
+                    .putString(b.getTitle())
+                    .putString(b.getAuthor())
+                    .putString(b.getCategory())
+                    .putInt(b.getQuantity())
+                    .putBoolean(b.isIssued())
+                    .putString(b.getIssuedTo());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Library {
+
+        @Param({ "10000" })
+        public int books;
+
+        SynchronizedLibrary service;
+        final AtomicInteger nextThread = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void setup() {
+            service = new SynchronizedLibrary();
+            for (int i = 0; i < books; i++) {
+                Book b = new Book();
+                b.setId("B" + i);
+                b.setTitle("Title " + i);
+                b.setAuthor("Author " + (i % 500));
+                b.setCategory("CAT" + (i % 12));
+                b.setQuantity(5);
+                service.books.put(b.getId(), b);
+            }
+            for (int i = 0; i < STUDENTS; i++) {
+                Student s = new Student();
+                s.setId("S" + i);
+                s.setName("Student " + i);
+                s.setEmail("s" + i + "@example.com");
+                service.students.put(s.getId(), s);
+            }
+        }
+    }
+
+    // Same slicing as LibraryServiceBenchmark.Worker
+    @State(Scope.Thread)
+    public static class Worker {
+        String student;
+        String[] bookIds;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setup(Library library, BenchmarkParams params) {
+            int index = library.nextThread.getAndIncrement();
+            int threads = params.getThreads();
+            int span = Math.max(1, library.books / threads);
+
+            student = "S" + (index % STUDENTS);
+            bookIds = new String[span];
+            for (int i = 0; i < span; i++)
+                bookIds[i] = "B" + ((index * span + i) % library.books);
+        }
+
+        String nextBook() {
+            String id = bookIds[next];
+            next = next + 1 == bookIds.length ? 0 : next + 1;
+            return id;
+        }
+    }
+
+    static void borrowReturn(Library library, Worker worker, Blackhole bh) {
+        String book = worker.nextBook();
+        bh.consume(library.service.borrowBook(worker.student, book));
+        bh.consume(library.service.returnBook(worker.student, book));
+    }
+
+    // ---------------- Disjoint books, 1..8 threads ----------------
+    @Threads(1)
+    public static class Threads1 extends LibraryServiceBenchmark.Settings {
+        @Benchmark
+        public void borrowReturn(Library library, Worker worker, Blackhole bh) {
+            LibraryServiceBaselineBenchmark.borrowReturn(library, worker, bh);
+        }
+    }
+
+    @Threads(2)
+    public static class Threads2 extends LibraryServiceBenchmark.Settings {
+        @Benchmark
+        public void borrowReturn(Library library, Worker worker, Blackhole bh) {
+            LibraryServiceBaselineBenchmark.borrowReturn(library, worker, bh);
+        }
+    }
+
+    @Threads(4)
+    public static class Threads4 extends LibraryServiceBenchmark.Settings {
+        @Benchmark
+        public void borrowReturn(Library library, Worker worker, Blackhole bh) {
+            LibraryServiceBaselineBenchmark.borrowReturn(library, worker, bh);
+        }
+    }
+
+    @Threads(8)
+    public static class Threads8 extends LibraryServiceBenchmark.Settings {
+        @Benchmark
+        public void borrowReturn(Library library, Worker worker, Blackhole bh) {
+            LibraryServiceBaselineBenchmark.borrowReturn(library, worker, bh);
+        }
+    }
+
+    // ---------------- Same books, all threads ----------------
+    @Threads(4)
+    public static class Contended extends LibraryServiceBenchmark.Settings {
+        @Benchmark
+        public void contended(Library library, Blackhole bh) {
+            String book = "B" + (Thread.currentThread().getId() & 3);
+            bh.consume(library.service.borrowBook("S0", book));
+            bh.consume(library.service.returnBook("S0", book));
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.library_management.benchmark;
+
+import com.example.library_management.model.Book;
+import com.example.library_management.model.Student;
+import com.example.library_management.service.LibraryService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * LibraryService hot paths (journal off, pure in-memory).
+ *
+ *  - borrowReturn : one borrow + one return; each thread works on its own
+ *                   slice of books, so it measures lock overhead and
+ *                   scaling, not contention on one key
+ *  - contended    : every thread hammers the SAME few books
+ *  - getAllBooks  : full iteration over the catalog
+ *
+ * Thread counts are fixed per nested class (1, 2, 4, 8) so one run
+ * produces the whole scaling curve. JMH takes run settings from
+ * superclasses, not from the enclosing class, so the nested classes
+ * extend Settings.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LibraryServiceBenchmark {
+
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Fork(1)
+    public abstract static class Settings {
+    }
+
+    private static final int STUDENTS = 64;
+
+    @State(Scope.Benchmark)
+    public static class Library {
+
+        @Param({ "10000" })
+        public int books;
+
+        LibraryService service;
+        final AtomicInteger nextThread = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void setup() {
+            service = newService(books);
+        }
+    }
+
+    // Gives each benchmark thread its own student and slice of books
+    @State(Scope.Thread)
+    public static class Worker {
+        String student;
+        String[] bookIds;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setup(Library library, BenchmarkParams params) {
+            int index = library.nextThread.getAndIncrement();
+            int threads = params.getThreads();
+            int span = Math.max(1, library.books / threads);
+
+            student = "S" + (index % STUDENTS);
+            bookIds = new String[span];
+            for (int i = 0; i < span; i++)
+                bookIds[i] = "B" + ((index * span + i) % library.books);
+        }
+
+        String nextBook() {
+            String id = bookIds[next];
+            next = next + 1 == bookIds.length ? 0 : next + 1;
+            return id;
+        }
+    }
+
+    static LibraryService newService(int books) {
+        LibraryService service = new LibraryService(false, "unused", 1, false, 1, Long.MAX_VALUE);
+        for (int i = 0; i < books; i++) {
+            Book b = new Book();
+            b.setId("B" + i);
+            b.setTitle("Title " + i);
+            b.setAuthor("Author " + (i % 500));
+            b.setCategory("CAT" + (i % 12));
+            b.setQuantity(5);
+            service.addBook(b);
+        }
+        for (int i = 0; i < STUDENTS; i++) {
+            Student s = new Student();
+            s.setId("S" + i);
+            s.setName("Student " + i);
+            s.setEmail("s" + i + "@example.com");
+            service.addStudent(s);
+        }
+        return service;
+    }
+
+    static void borrowReturn(Library library, Worker worker, Blackhole bh) {
+        String book = worker.nextBook();
+        bh.consume(library.service.borrowBook(worker.student, book));
+        bh.consume(library.service.returnBook(worker.student, book));
+    }
+
+    // ---------------- Disjoint books, 1..8 threads ----------------
+    @Threads(1)
+    public static class Threads1 extends Settings {
+        @Benchmark
+        public void borrowReturn(Library library, Worker worker, Blackhole bh) {
+            LibraryServiceBenchmark.borrowReturn(library, worker, bh);
+        }
+    }
+
+    @Threads(2)
+    public static class Threads2 extends Settings {
+        @Benchmark
+        public void borrowReturn(Library library, Worker worker, Blackhole bh) {
+            LibraryServiceBenchmark.borrowReturn(library, worker, bh);
+        }
+    }
+
+    @Threads(4)
+    public static class Threads4 extends Settings {
+        @Benchmark
+        public void borrowReturn(Library library, Worker worker, Blackhole bh) {
+            LibraryServiceBenchmark.borrowReturn(library, worker, bh);
+        }
+    }
+
+    @Threads(8)
+    public static class Threads8 extends Settings {
+        @Benchmark
+        public void borrowReturn(Library library, Worker worker, Blackhole bh) {
+            LibraryServiceBenchmark.borrowReturn(library, worker, bh);
+        }
+    }
+
+    // ---------------- Same books, all threads ----------------
+    @Threads(4)
+    @Benchmark
+    public void contended(Library library, Blackhole bh) {
+        String book = "B" + (Thread.currentThread().getId() & 3);
+        bh.consume(library.service.borrowBook("S0", book));
+        bh.consume(library.service.returnBook("S0", book));
+    }
+
+    // ---------------- Catalog iteration ----------------
+    @State(Scope.Benchmark)
+    public static class Catalog {
+
+        @Param({ "10000", "100000", "1000000" })
+        public int size;
+
+        LibraryService service;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            service = newService(size);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public long getAllBooks(Catalog catalog) {
+        long copies = 0;
+        for (Book b : catalog.service.getAllBooks())
+            copies += b.getQuantity();
+        return copies;
+    }
+}
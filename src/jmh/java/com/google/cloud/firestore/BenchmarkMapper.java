@@ -0,0 +1,22 @@
+package com.google.cloud.firestore;
+
+/*
+ * Benchmark-only bridge to CustomClassMapper, which is package-private
+ * in google-cloud-firestore 3.x. Lives in src/jmh/java only and never
+ * ships with the application.
+ */
+public final class BenchmarkMapper {
+
+    private BenchmarkMapper() {
+    }
+
+    // POJO -> field map, what set(pojo) / add(pojo) does
+    public static Object encode(Object pojo) {
+        return CustomClassMapper.convertToPlainJavaTypes(pojo);
+    }
+
+    // Field map -> POJO, what DocumentSnapshot.toObject() does
+    public static <T> T decode(Object data, Class<T> type) {
+        return CustomClassMapper.convertToCustomClass(data, type, null);
+    }
+}
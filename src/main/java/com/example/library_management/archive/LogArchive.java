@@ -0,0 +1,154 @@
+package com.example.library_management.archive;
+
+import com.example.library_management.model.Log;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/*
+ * LogArchive
+ * ----------
+ * Cold storage for audit logs: one LogSegment per day in one directory
+ *
+ *   logs-2026-07-01.seg, logs-2026-07-02.seg, ...
+ *
+ * DSA Concept: two-level index
+ *  - Level 1: the sorted map day -> segment (in memory) picks the files
+ *    that can hold [from, to)
+ *  - Level 2: each segment's footer (also in memory) picks the blocks
+ *  - Only those blocks are read from disk and inflated
+ *
+ * A day is written once, normally; archiving more logs of a day that is
+ * already archived rewrites its segment with the union (ids are unique),
+ * so running the compaction twice is harmless.
+ *
+ * Thread safety: segments are immutable and replaced atomically on disk,
+ * writers are serialized, readers never lock.
+ */
+public class LogArchive {
+
+    private static final String PREFIX = "logs-";
+    private static final String SUFFIX = ".seg";
+
+    private final Path dir;
+    private final ZoneId zone;
+    private final ConcurrentSkipListMap<LocalDate, LogSegment> segments = new ConcurrentSkipListMap<>();
+
+    public LogArchive(Path dir, ZoneId zone) {
+        this.dir = dir;
+        this.zone = zone;
+    }
+
+    // Loads the index of every segment in the directory (footers only)
+    public synchronized void open() throws IOException {
+        Files.createDirectories(dir);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    LocalDate day = LocalDate.parse(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+                    segments.put(day, LogSegment.open(file));
+                } catch (DateTimeParseException | IOException e) {
+                    System.err.println("⚠️  Log archive: skipping " + name + " (" + e.getMessage() + ")");
+                }
+            }
+        }
+    }
+
+    public LocalDate dayOf(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).atZone(zone).toLocalDate();
+    }
+
+    public long startOf(LocalDate day) {
+        return day.atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    // ================= WRITE =================
+    /*
+     * Stores the logs of one day (merged with what that day already has).
+     * Returns once the segment is on disk; only then may the caller delete
+     * the logs from the hot store.
+     */
+    public synchronized LogSegment append(LocalDate day, List<Log> logs) throws IOException {
+        LogSegment existing = segments.get(day);
+        List<Log> all = logs;
+        if (existing != null) {
+            Map<String, Log> byId = new LinkedHashMap<>();
+            for (Log log : existing.readAll())
+                byId.put(log.getId(), log);
+            for (Log log : logs)
+                byId.put(log.getId(), log);
+            all = new ArrayList<>(byId.values());
+        }
+        LogSegment segment = LogSegment.write(dir.resolve(PREFIX + day + SUFFIX), all);
+        segments.put(day, segment);
+        return segment;
+    }
+
+    // ================= READ =================
+    /*
+     * Same contract as LibraryRepository.findLogs: newest first,
+     * fromMillis <= epochMillis < toMillis (null = open end), optionally
+     * one actionType, and only logs sorting before (beforeMillis, beforeId)
+     * (null = from the newest). Adds at most `limit` logs to `out` and
+     * returns true if more matching logs remain.
+     */
+    public boolean find(Long fromMillis, Long toMillis, String actionType, Long beforeMillis, String beforeId,
+            List<Log> out, int limit) throws IOException {
+
+        long from = fromMillis == null ? Long.MIN_VALUE : fromMillis;
+        long to = toMillis == null ? Long.MAX_VALUE : toMillis;
+        long before = beforeMillis == null ? Long.MAX_VALUE : beforeMillis;
+        long upper = Math.min(to - 1, before);
+        if (upper < from)
+            return false;
+
+        NavigableMap<LocalDate, LogSegment> days = segments;
+        if (upper != Long.MAX_VALUE)
+            days = days.headMap(dayOf(upper), true);
+        if (from != Long.MIN_VALUE)
+            days = days.tailMap(dayOf(from), true);
+
+        for (LogSegment segment : days.descendingMap().values()) {
+            if (segment.maxMillis() < from || segment.minMillis() > upper)
+                continue;
+            if (segment.scan(from, to, actionType, before, beforeId, out, limit))
+                return true;
+        }
+        return false;
+    }
+
+    public Map<String, Object> stats() {
+        long rows = 0;
+        long bytes = 0;
+        for (LogSegment segment : segments.values()) {
+            rows += segment.rows();
+            bytes += segment.bytes();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("directory", dir.toAbsolutePath().toString());
+        stats.put("segments", segments.size());
+        stats.put("logs", rows);
+        stats.put("bytes", bytes);
+        stats.put("bytesPerLog", rows == 0 ? 0.0 : (double) bytes / rows);
+        stats.put("oldestDay", segments.isEmpty() ? null : segments.firstKey().toString());
+        stats.put("newestDay", segments.isEmpty() ? null : segments.lastKey().toString());
+        return stats;
+    }
+}
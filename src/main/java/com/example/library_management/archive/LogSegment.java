@@ -0,0 +1,517 @@
+package com.example.library_management.archive;
+
+import com.example.library_management.model.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/*
+ * LogSegment
+ * ----------
+ * One immutable file of archived audit logs (one day per file, see LogArchive).
+ *
+ * Layout:  [block][block]...[footer][long footerOffset][int MAGIC]
+ *
+ * Block = up to BLOCK_ROWS logs sorted by (epochMillis, id), stored column
+ * by column and deflated as one unit:
+ *   epochMillis   varlong deltas from the previous row
+ *   actionType    one byte per row (index into the type dictionary)
+ *   id, timestamp, user, description
+ *                 per column: varint lengths of every row, then the bytes
+ * Columns keep alike values together, which is what makes them compress.
+ *
+ * Footer = the index, read once when the segment is opened:
+ *   type dictionary, then per block: offset, length, crc32c, raw length,
+ *   rows, minMillis, maxMillis, typeMask (bit = type index % 64)
+ *
+ * A scan inflates only the blocks whose [minMillis, maxMillis] overlaps the
+ * range and whose typeMask has the wanted type, walks them newest first,
+ * and decodes the strings of matching rows only.
+ */
+public final class LogSegment {
+
+    static final int BLOCK_ROWS = 1024;
+    private static final int MAGIC = 0x4C4F4753; // "LOGS"
+    private static final int VERSION = 1;
+    private static final int MAX_TYPES = 256;
+
+    // Index entry of one block
+    private static final class Block {
+        long offset;
+        int length;
+        int crc;
+        int rawLength;
+        int rows;
+        long minMillis;
+        long maxMillis;
+        long typeMask;
+    }
+
+    private final Path path;
+    private final String[] types;
+    private final Block[] blocks;
+    private final long rows;
+    private final long bytes;
+
+    private LogSegment(Path path, String[] types, Block[] blocks, long bytes) {
+        this.path = path;
+        this.types = types;
+        this.blocks = blocks;
+        long n = 0;
+        for (Block b : blocks)
+            n += b.rows;
+        this.rows = n;
+        this.bytes = bytes;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public long bytes() {
+        return bytes;
+    }
+
+    public long minMillis() {
+        return blocks.length == 0 ? Long.MAX_VALUE : blocks[0].minMillis;
+    }
+
+    public long maxMillis() {
+        return blocks.length == 0 ? Long.MIN_VALUE : blocks[blocks.length - 1].maxMillis;
+    }
+
+    // ================= WRITE =================
+    /*
+     * Writes the logs to a temp file, forces it to disk and moves it over
+     * `path` atomically: readers see the old segment or the new one, never
+     * half of one.
+     */
+    public static LogSegment write(Path path, List<Log> logs) throws IOException {
+        List<Log> sorted = new ArrayList<>(logs);
+        sorted.sort(Comparator.comparingLong(Log::getEpochMillis)
+                .thenComparing(Log::getId, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (Log log : sorted) {
+            dictionary.computeIfAbsent(typeOf(log), t -> dictionary.size());
+            if (dictionary.size() > MAX_TYPES)
+                throw new IOException("More than " + MAX_TYPES + " action types in one segment");
+        }
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        List<Block> blocks = new ArrayList<>();
+        long offset = 0;
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            for (int from = 0; from < sorted.size(); from += BLOCK_ROWS) {
+                List<Log> chunk = sorted.subList(from, Math.min(from + BLOCK_ROWS, sorted.size()));
+                byte[] raw = encodeBlock(chunk, dictionary);
+                byte[] packed = deflate(deflater, raw);
+
+                Block b = new Block();
+                b.offset = offset;
+                b.length = packed.length;
+                b.crc = crc(packed, packed.length);
+                b.rawLength = raw.length;
+                b.rows = chunk.size();
+                b.minMillis = chunk.get(0).getEpochMillis();
+                b.maxMillis = chunk.get(chunk.size() - 1).getEpochMillis();
+                for (Log log : chunk)
+                    b.typeMask |= 1L << (dictionary.get(typeOf(log)) & 63);
+                blocks.add(b);
+
+                writeFully(out, ByteBuffer.wrap(packed));
+                offset += packed.length;
+            }
+
+            Bytes footer = new Bytes(64 + blocks.size() * 64);
+            footer.varint(VERSION);
+            footer.varint(dictionary.size());
+            for (String type : dictionary.keySet())
+                footer.string(type);
+            footer.varint(blocks.size());
+            for (Block b : blocks) {
+                footer.varlong(b.offset);
+                footer.varint(b.length);
+                footer.fixedInt(b.crc);
+                footer.varint(b.rawLength);
+                footer.varint(b.rows);
+                footer.varlong(b.minMillis);
+                footer.varlong(b.maxMillis - b.minMillis);
+                footer.fixedLong(b.typeMask);
+            }
+            footer.fixedLong(offset);
+            footer.fixedInt(MAGIC);
+            writeFully(out, ByteBuffer.wrap(footer.array(), 0, footer.size()));
+            offset += footer.size();
+            out.force(true);
+        } finally {
+            deflater.end();
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        return new LogSegment(path, dictionary.keySet().toArray(new String[0]), blocks.toArray(new Block[0]), offset);
+    }
+
+    // ================= OPEN =================
+    // Reads only the footer (the index); blocks are read by scans
+    public static LogSegment open(Path path) throws IOException {
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size < 12)
+                throw new IOException("Segment too short: " + path.getFileName());
+
+            ByteBuffer tail = ByteBuffer.allocate(12);
+            readFully(in, tail, size - 12);
+            tail.flip();
+            long footerOffset = tail.getLong();
+            if (tail.getInt() != MAGIC || footerOffset < 0 || footerOffset > size - 12)
+                throw new IOException("Not a log segment: " + path.getFileName());
+
+            ByteBuffer buf = ByteBuffer.allocate((int) (size - 12 - footerOffset));
+            readFully(in, buf, footerOffset);
+            Reader footer = new Reader(buf.array(), buf.limit());
+
+            int version = footer.varint();
+            if (version != VERSION)
+                throw new IOException("Unsupported segment version " + version + ": " + path.getFileName());
+            String[] types = new String[footer.varint()];
+            for (int i = 0; i < types.length; i++)
+                types[i] = footer.string();
+            Block[] blocks = new Block[footer.varint()];
+            for (int i = 0; i < blocks.length; i++) {
+                Block b = new Block();
+                b.offset = footer.varlong();
+                b.length = footer.varint();
+                b.crc = footer.fixedInt();
+                b.rawLength = footer.varint();
+                b.rows = footer.varint();
+                b.minMillis = footer.varlong();
+                b.maxMillis = b.minMillis + footer.varlong();
+                b.typeMask = footer.fixedLong();
+                blocks[i] = b;
+            }
+            return new LogSegment(path, types, blocks, size);
+        }
+    }
+
+    // ================= SCAN =================
+    /*
+     * Adds to `out`, newest first, the logs with
+     *   fromMillis <= epochMillis < toMillis, actionType = type (null = any)
+     * that sort before the cursor (beforeMillis, beforeId), until `out`
+     * holds `limit` logs. Returns true if more matching logs remain.
+     */
+    public boolean scan(long fromMillis, long toMillis, String type, long beforeMillis, String beforeId,
+            List<Log> out, int limit) throws IOException {
+
+        int typeIndex = -1;
+        if (type != null) {
+            for (int i = 0; i < types.length; i++)
+                if (types[i].equals(type))
+                    typeIndex = i;
+            if (typeIndex < 0)
+                return false;
+        }
+        long upper = Math.min(toMillis - 1, beforeMillis);
+
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            Inflater inflater = new Inflater();
+            try {
+                for (int i = blocks.length - 1; i >= 0; i--) {
+                    Block b = blocks[i];
+                    if (b.minMillis > upper)
+                        continue;
+                    if (b.maxMillis < fromMillis)
+                        break;
+                    if (typeIndex >= 0 && (b.typeMask & (1L << (typeIndex & 63))) == 0)
+                        continue;
+                    if (scanBlock(in, inflater, b, fromMillis, toMillis, typeIndex, beforeMillis, beforeId, out, limit))
+                        return true;
+                }
+            } finally {
+                inflater.end();
+            }
+        }
+        return false;
+    }
+
+    // Every log in the segment, oldest first (used to merge a rewrite)
+    public List<Log> readAll() throws IOException {
+        List<Log> all = new ArrayList<>((int) rows);
+        scan(Long.MIN_VALUE, Long.MAX_VALUE, null, Long.MAX_VALUE, null, all, Integer.MAX_VALUE);
+        Collections.reverse(all);
+        return all;
+    }
+
+    private boolean scanBlock(FileChannel in, Inflater inflater, Block b, long fromMillis, long toMillis,
+            int typeIndex, long beforeMillis, String beforeId, List<Log> out, int limit) throws IOException {
+
+        ByteBuffer packed = ByteBuffer.allocate(b.length);
+        readFully(in, packed, b.offset);
+        if (crc(packed.array(), b.length) != b.crc)
+            throw new IOException("Damaged block at " + b.offset + " in " + path.getFileName());
+
+        byte[] raw = new byte[b.rawLength];
+        inflater.reset();
+        inflater.setInput(packed.array(), 0, b.length);
+        try {
+            int n = 0;
+            while (n < raw.length && !inflater.finished())
+                n += inflater.inflate(raw, n, raw.length - n);
+        } catch (DataFormatException e) {
+            throw new IOException("Damaged block at " + b.offset + " in " + path.getFileName(), e);
+        }
+
+        // Fixed-width columns first: enough to decide which rows match
+        Reader r = new Reader(raw, raw.length);
+        int rowCount = r.varint();
+        long[] millis = new long[rowCount];
+        long prev = 0;
+        for (int k = 0; k < rowCount; k++) {
+            prev += r.varlong();
+            millis[k] = prev;
+        }
+        byte[] typeOf = new byte[rowCount];
+        for (int k = 0; k < rowCount; k++)
+            typeOf[k] = raw[r.pos++];
+
+        // String columns: locate each row, decode only what is returned
+        int[][] len = new int[4][rowCount];
+        int[][] start = new int[4][rowCount];
+        for (int c = 0; c < 4; c++) {
+            for (int k = 0; k < rowCount; k++)
+                len[c][k] = r.varint();
+            for (int k = 0; k < rowCount; k++) {
+                start[c][k] = r.pos;
+                r.pos += Math.max(0, len[c][k] - 1);
+            }
+        }
+
+        for (int k = rowCount - 1; k >= 0; k--) {
+            long m = millis[k];
+            if (m >= toMillis || m > beforeMillis)
+                continue;
+            if (m < fromMillis)
+                break;
+            if (typeIndex >= 0 && (typeOf[k] & 0xFF) != typeIndex)
+                continue;
+            String id = text(raw, start[0], len[0], k);
+            if (m == beforeMillis && beforeId != null && (id == null || id.compareTo(beforeId) >= 0))
+                continue;
+
+            if (out.size() >= limit)
+                return true;
+            Log log = new Log();
+            log.setId(id);
+            log.setEpochMillis(m);
+            String t = types[typeOf[k] & 0xFF];
+            log.setActionType(t.isEmpty() ? null : t);
+            log.setTimestamp(text(raw, start[1], len[1], k));
+            log.setUser(text(raw, start[2], len[2], k));
+            log.setDescription(text(raw, start[3], len[3], k));
+            out.add(log);
+        }
+        return false;
+    }
+
+    // ================= ENCODING =================
+    private static byte[] encodeBlock(List<Log> chunk, Map<String, Integer> dictionary) {
+        Bytes raw = new Bytes(chunk.size() * 96);
+        raw.varint(chunk.size());
+        long prev = 0;
+        for (Log log : chunk) {
+            raw.varlong(log.getEpochMillis() - prev);
+            prev = log.getEpochMillis();
+        }
+        for (Log log : chunk)
+            raw.write(dictionary.get(typeOf(log)));
+
+        List<byte[][]> columns = new ArrayList<>(4);
+        byte[][] ids = new byte[chunk.size()][];
+        byte[][] timestamps = new byte[chunk.size()][];
+        byte[][] users = new byte[chunk.size()][];
+        byte[][] descriptions = new byte[chunk.size()][];
+        for (int k = 0; k < chunk.size(); k++) {
+            Log log = chunk.get(k);
+            ids[k] = utf8(log.getId());
+            timestamps[k] = utf8(log.getTimestamp());
+            users[k] = utf8(log.getUser());
+            descriptions[k] = utf8(log.getDescription());
+        }
+        columns.add(ids);
+        columns.add(timestamps);
+        columns.add(users);
+        columns.add(descriptions);
+
+        // Length 0 = null, otherwise byte length + 1
+        for (byte[][] column : columns) {
+            for (byte[] value : column)
+                raw.varint(value == null ? 0 : value.length + 1);
+            for (byte[] value : column)
+                if (value != null)
+                    raw.write(value, 0, value.length);
+        }
+        return raw.toByteArray();
+    }
+
+    // Stored length 0 = null, otherwise byte length + 1
+    private static String text(byte[] raw, int[] start, int[] len, int row) {
+        return len[row] == 0 ? null : new String(raw, start[row], len[row] - 1, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String typeOf(Log log) {
+        return log.getActionType() == null ? "" : log.getActionType();
+    }
+
+    private static byte[] deflate(Deflater deflater, byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream packed = new ByteArrayOutputStream(raw.length / 4 + 64);
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(chunk);
+            packed.write(chunk, 0, n);
+        }
+        return packed.toByteArray();
+    }
+
+    private static int crc(byte[] data, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(data, 0, length);
+        return (int) crc.getValue();
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining())
+            out.write(buf);
+    }
+
+    private static void readFully(FileChannel in, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = in.read(buf, position + buf.position());
+            if (n < 0)
+                throw new IOException("Unexpected end of segment");
+        }
+    }
+
+    // Growable byte array with varint helpers (the column encoder)
+    private static final class Bytes extends ByteArrayOutputStream {
+
+        Bytes(int size) {
+            super(size);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        void varint(int v) {
+            varlong(v & 0xFFFFFFFFL);
+        }
+
+        // Zig-zag, so small negative deltas stay small too
+        void varlong(long v) {
+            long z = (v << 1) ^ (v >> 63);
+            while ((z & ~0x7FL) != 0) {
+                write((int) ((z & 0x7F) | 0x80));
+                z >>>= 7;
+            }
+            write((int) z);
+        }
+
+        void fixedInt(int v) {
+            for (int shift = 24; shift >= 0; shift -= 8)
+                write(v >>> shift);
+        }
+
+        void fixedLong(long v) {
+            fixedInt((int) (v >>> 32));
+            fixedInt((int) v);
+        }
+
+        void string(String s) {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            varint(b.length);
+            write(b, 0, b.length);
+        }
+    }
+
+    private static final class Reader {
+        final byte[] data;
+        final int limit;
+        int pos;
+
+        Reader(byte[] data, int limit) {
+            this.data = data;
+            this.limit = limit;
+        }
+
+        int varint() throws IOException {
+            return (int) varlong();
+        }
+
+        long varlong() throws IOException {
+            long z = 0;
+            for (int shift = 0; ; shift += 7) {
+                if (pos >= limit || shift > 63)
+                    throw new IOException("Corrupt varint");
+                byte b = data[pos++];
+                z |= (long) (b & 0x7F) << shift;
+                if (b >= 0)
+                    break;
+            }
+            return (z >>> 1) ^ -(z & 1);
+        }
+
+        int fixedInt() throws IOException {
+            if (pos + 4 > limit)
+                throw new IOException("Truncated footer");
+            int v = 0;
+            for (int i = 0; i < 4; i++)
+                v = (v << 8) | (data[pos++] & 0xFF);
+            return v;
+        }
+
+        long fixedLong() throws IOException {
+            return ((long) fixedInt() << 32) | (fixedInt() & 0xFFFFFFFFL);
+        }
+
+        String string() throws IOException {
+            int len = varint();
+            if (len < 0 || pos + len > limit)
+                throw new IOException("Truncated footer");
+            String s = new String(data, pos, len, StandardCharsets.UTF_8);
+            pos += len;
+            return s;
+        }
+    }
+}
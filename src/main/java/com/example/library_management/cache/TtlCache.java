@@ -0,0 +1,211 @@
+package com.example.library_management.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/*
+ * TtlCache
+ * --------
+ * Small read-through cache used in front of Firestore.
+ *
+ * DSA Concepts:
+ *  - LinkedHashMap in ACCESS order = LRU list + HashMap in one structure
+ *    (get moves an entry to the tail, eldest entry is evicted first)
+ *  - Every entry carries its own expiry time (TTL)
+ *
+ * Concurrency:
+ *  - All map access is synchronized on the cache (LRU order changes on read)
+ *  - Loaders run OUTSIDE the lock, so a slow Firestore read never blocks
+ *    other keys
+ *  - A generation counter stops a load that raced with an invalidation
+ *    from putting stale data back
+ */
+public class TtlCache<K, V> {
+
+    // Loads a value on a miss (usually a Firestore read)
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws Exception;
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final String name;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    // Bumped on every invalidation
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public TtlCache(String name, long ttlMillis, int maxEntries) {
+        this.name = name;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > TtlCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Returns the cached value, or null on miss / expiry
+    public V getIfPresent(K key) {
+        synchronized (this) {
+            Entry<V> e = map.get(key);
+            if (e != null && e.expiresAt > System.currentTimeMillis()) {
+                hits.increment();
+                return e.value;
+            }
+            if (e != null) {
+                map.remove(key);
+                expirations.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /*
+     * Read-through: return the cached value or load, cache and return it.
+     * null results are not cached (a missing document is re-checked next time).
+     */
+    public V get(K key, Loader<V> loader) throws Exception {
+        V cached = getIfPresent(key);
+        if (cached != null)
+            return cached;
+
+        long startGeneration;
+        synchronized (this) {
+            startGeneration = generation;
+        }
+
+        V value = loader.load();
+        if (value != null) {
+            synchronized (this) {
+                if (generation == startGeneration)
+                    map.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+            }
+        }
+        return value;
+    }
+
+    // Same as get(), for loaders that return a future instead of blocking
+    public CompletableFuture<V> getAsync(K key, Supplier<CompletableFuture<V>> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null)
+            return CompletableFuture.completedFuture(cached);
+
+        long startGeneration;
+        synchronized (this) {
+            startGeneration = generation;
+        }
+
+        return loader.get().thenApply(value -> {
+            if (value != null) {
+                synchronized (this) {
+                    if (generation == startGeneration)
+                        map.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+                }
+            }
+            return value;
+        });
+    }
+
+    public synchronized void put(K key, V value) {
+        map.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+    }
+
+    // Atomic insert: returns the live value already cached, or null after caching `value`
+    public V putIfAbsent(K key, V value) {
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            Entry<V> e = map.get(key);
+            if (e != null && e.expiresAt > now) {
+                hits.increment();
+                return e.value;
+            }
+            if (e != null)
+                expirations.increment();
+            map.put(key, new Entry<>(value, now + ttlMillis));
+        }
+        misses.increment();
+        return null;
+    }
+
+    // Removes the key only while it still maps to `value`
+    public synchronized boolean remove(K key, V value) {
+        Entry<V> e = map.get(key);
+        if (e == null || e.value != value)
+            return false;
+        map.remove(key);
+        invalidations.increment();
+        return true;
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        if (map.remove(key) != null)
+            invalidations.increment();
+    }
+
+    // Drops every key matching the filter (e.g. all pages of one collection)
+    public synchronized void invalidateIf(Predicate<K> filter) {
+        generation++;
+        int before = map.size();
+        map.keySet().removeIf(filter);
+        invalidations.add(before - map.size());
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations.add(map.size());
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    // ---------------- STATS ----------------
+    public Map<String, Object> stats() {
+        long h = hits.sum();
+        long m = misses.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("size", size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", ttlMillis / 1000);
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("hitRate", h + m == 0 ? 0.0 : (double) h / (h + m));
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.library_management.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Callable;
+
+/*
+ * Per-request async timeouts
+ * --------------------------
+ * Every MVC async request (CompletableFuture endpoints, streamed bodies)
+ * keeps the default timeout, so a stalled Firestore call cannot hold a
+ * request forever. A handler that legitimately runs longer, like a
+ * streamed export, asks for its own timeout with extend() and only that
+ * request gets it.
+ *
+ * The timeout is applied in beforeConcurrentHandling: the last point
+ * before the servlet container starts the async cycle.
+ */
+@Configuration
+public class AsyncTimeouts implements WebMvcConfigurer {
+
+    private static final String ATTRIBUTE = AsyncTimeouts.class.getName() + ".timeoutMillis";
+
+    // Call from the handler method; <= 0 means no timeout
+    public static void extend(NativeWebRequest request, long timeoutMillis) {
+        request.setAttribute(ATTRIBUTE, timeoutMillis, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                Object timeout = request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                if (timeout instanceof Long millis && request instanceof AsyncWebRequest async)
+                    async.setTimeout(millis > 0 ? millis : -1L);
+            }
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.library_management.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * WorkerThreads
+ * -------------
+ * Thread factory for the app's own worker pools (import batches, mail).
+ *
+ * Profile "virtual" (spring.threads.virtual.enabled=true) on a Java 21+
+ * runtime: Spring Boot moves Tomcat requests and @Async / MVC async work
+ * to virtual threads, and the pools built here use them too, so code
+ * blocked in Firestore .get() or SMTP costs a parked virtual thread
+ * instead of a platform thread.
+ *
+ * Anywhere else (Java 17, or the property off): named daemon platform
+ * threads, same as before.
+ */
+@Component
+public class WorkerThreads {
+
+    private final boolean virtual;
+
+    public WorkerThreads(@Value("${spring.threads.virtual.enabled:false}") boolean virtualEnabled) {
+        this.virtual = virtualEnabled && Runtime.version().feature() >= 21;
+        if (virtualEnabled && !virtual)
+            System.out.println("⚠️  Virtual threads need Java 21+, running on " + Runtime.version() + " with platform threads");
+        else if (virtual)
+            System.out.println("🧵 Virtual threads enabled");
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    // Threads named prefix-1, prefix-2, ...
+    public ThreadFactory factory(String prefix) {
+        if (virtual)
+            return new VirtualThreadTaskExecutor(prefix + "-").getVirtualThreadFactory();
+
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.library_management.controller;
+
+import com.example.library_management.service.CirculationAnalytics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/*
+ * Circulation rollups (see CirculationAnalytics), answered from memory.
+ *
+ * granularity = day | week | month (default day)
+ * period      = a date, or 2026-W42 / 2026-10 (default today)
+ *
+ *   GET  /api/analytics/summary?granularity=month&period=2026-10
+ *   GET  /api/analytics/categories?granularity=week
+ *   GET  /api/analytics/students/{id}?granularity=month
+ *   GET  /api/analytics/series?granularity=day&from=2026-10-01&to=2026-10-18&category=CSE
+ *   POST /api/analytics/backfill
+ *   GET  /api/analytics/status
+ */
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private final CirculationAnalytics analytics;
+
+    public AnalyticsController(CirculationAnalytics analytics) {
+        this.analytics = analytics;
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<?> summary(@RequestParam(required = false) String granularity,
+                                     @RequestParam(required = false) String period) {
+        return answer(() -> analytics.summary(granularity, period));
+    }
+
+    @GetMapping("/categories")
+    public ResponseEntity<?> categories(@RequestParam(required = false) String granularity,
+                                        @RequestParam(required = false) String period) {
+        return answer(() -> analytics.categories(granularity, period));
+    }
+
+    @GetMapping("/students/{id}")
+    public ResponseEntity<?> student(@PathVariable String id,
+                                     @RequestParam(required = false) String granularity,
+                                     @RequestParam(required = false) String period) {
+        return answer(() -> analytics.student(id, granularity, period));
+    }
+
+    // One dimension over time: all loans, or one category / student
+    @GetMapping("/series")
+    public ResponseEntity<?> series(@RequestParam(required = false) String granularity,
+                                    @RequestParam(required = false) String from,
+                                    @RequestParam(required = false) String to,
+                                    @RequestParam(required = false) String category,
+                                    @RequestParam(required = false) String studentId) {
+        String dimension = category != null ? "category:" + category
+                : studentId != null ? "student:" + studentId
+                : null;
+        return answer(() -> analytics.series(granularity, from, to, dimension));
+    }
+
+    @PostMapping("/backfill")
+    public ResponseEntity<String> backfill() {
+        return analytics.backfill()
+                ? ResponseEntity.accepted().body("Analytics backfill started")
+                : ResponseEntity.ok("Analytics backfill already running");
+    }
+
+    @GetMapping("/status")
+    public Map<String, Object> status() {
+        return analytics.status();
+    }
+
+    private ResponseEntity<?> answer(Supplier<Object> query) {
+        try {
+            return ResponseEntity.ok(query.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.library_management.controller;
+
+import com.example.library_management.config.AsyncTimeouts;
+import com.example.library_management.service.ExportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Streaming dumps for audits:
+ *
+ *   GET /api/export/{books|students|issues|logs}?format=csv|ndjson&gzip=true
+ *
+ * The body is written page by page while the client downloads it
+ * (StreamingResponseBody), so the server never holds the whole collection.
+ * gzip=true compresses on the fly and downloads as a .gz file.
+ * A dump may outlast the default async timeout, so this request alone
+ * gets library.export.timeout-minutes (see AsyncTimeouts).
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private final ExportService exportService;
+    private final long timeoutMillis;
+
+    public ExportController(ExportService exportService,
+            @Value("${library.export.timeout-minutes:60}") long timeoutMinutes) {
+        this.exportService = exportService;
+        this.timeoutMillis = timeoutMinutes * 60_000;
+    }
+
+    @GetMapping("/{collection}")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable String collection,
+                                                        @RequestParam(defaultValue = "ndjson") String format,
+                                                        @RequestParam(defaultValue = "false") boolean gzip,
+                                                        NativeWebRequest request) {
+        String col = collection.toLowerCase();
+        String fmt = format.toLowerCase();
+        try {
+            exportService.validate(col, fmt);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        AsyncTimeouts.extend(request, timeoutMillis);
+        StreamingResponseBody body = out -> {
+            try {
+                if (gzip) {
+                    GZIPOutputStream zipped = new GZIPOutputStream(out, 64 * 1024, true);
+                    exportService.export(col, fmt, zipped);
+                    zipped.finish();
+                } else {
+                    exportService.export(col, fmt, out);
+                }
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                // Headers are already sent; all we can do is cut the stream short
+                System.err.println("❌ Export of " + col + " failed: " + e.getMessage());
+                throw new IOException("Export failed", e);
+            }
+        };
+
+        String fileName = col + "-" + LocalDate.now() + ("csv".equals(fmt) ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+        MediaType type = gzip ? MediaType.parseMediaType("application/gzip")
+                : "csv".equals(fmt) ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.parseMediaType("application/x-ndjson");
+
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+}
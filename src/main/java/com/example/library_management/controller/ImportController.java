@@ -0,0 +1,63 @@
+package com.example.library_management.controller;
+
+import com.example.library_management.service.ImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/*
+ * Bulk import. The request body is the raw file (not multipart), read as a
+ * stream, so uploads of any size never sit in memory:
+ *
+ *   curl -X POST --data-binary @books.csv -H "Content-Type: text/csv" \
+ *        http://localhost:8080/api/import/books
+ *
+ * Format comes from ?format=csv|ndjson or else from the Content-Type.
+ * Response: ImportReport (counts, rows/s, per-row errors).
+ */
+@RestController
+@RequestMapping("/api/import")
+public class ImportController {
+
+    private final ImportService importService;
+
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping("/books")
+    public ResponseEntity<?> importBooks(HttpServletRequest request,
+                                         @RequestParam(required = false) String format) {
+        try {
+            return ResponseEntity.ok(importService.importBooks(request.getInputStream(), format, request.getContentType()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError().body(Map.of("error", "Import failed"));
+        }
+    }
+
+    @PostMapping("/students")
+    public ResponseEntity<?> importStudents(HttpServletRequest request,
+                                            @RequestParam(required = false) String format) {
+        try {
+            return ResponseEntity.ok(importService.importStudents(request.getInputStream(), format, request.getContentType()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError().body(Map.of("error", "Import failed"));
+        }
+    }
+}
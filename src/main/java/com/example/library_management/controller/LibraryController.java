@@ -1,32 +1,48 @@
 package com.example.library_management.controller;
 
 import com.example.library_management.model.*;
+import com.example.library_management.repository.Futures;
 import com.example.library_management.service.FirebaseService;
+import com.example.library_management.service.IdempotencyStore;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Collections;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
+/*
+ * List, issue / return and dashboard endpoints return CompletableFuture:
+ * Spring MVC releases the Tomcat thread while the store works and writes
+ * the response when the future completes, so slow Firestore round trips
+ * no longer hold the request pool.
+ *
+ * Issue and return accept an Idempotency-Key header (see IdempotencyStore):
+ * retries with the same key get the first answer back, with the header
+ * Idempotent-Replayed: true, and never run twice.
+ */
 @RestController
 @RequestMapping("/api")
 public class LibraryController {
 
     private final FirebaseService service;
+    private final IdempotencyStore idempotency;
 
-    public LibraryController(FirebaseService service) {
+    public LibraryController(FirebaseService service, IdempotencyStore idempotency) {
         this.service = service;
+        this.idempotency = idempotency;
     }
 
     // ---------- BOOKS ----------
     @GetMapping("/books")
-    public ResponseEntity<List<Book>> getBooks() {
-        try {
-            return ResponseEntity.ok(service.getAllBooks());
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.ok(Collections.emptyList());
-        }
+    public CompletableFuture<ResponseEntity<Page<Book>>> getBooks(@RequestParam(required = false) Integer limit,
+                                                              @RequestParam(required = false) String pageToken) {
+        return service.getBooksPageAsync(limit, pageToken)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(e -> {
+                    Futures.unwrap(e).printStackTrace();
+                    return ResponseEntity.ok(new Page<>());
+                });
     }
 
     @PostMapping("/books")
@@ -44,17 +60,29 @@ public class LibraryController {
         return ResponseEntity.ok(service.deleteBook(id));
     }
 
-    // ---------- STUDENTS ----------
-    @GetMapping("/students")
-    public ResponseEntity<List<Student>> getStudents() {
+    @GetMapping("/books/{id}/availability")
+    public ResponseEntity<Availability> getAvailability(@PathVariable String id) {
         try {
-            return ResponseEntity.ok(service.getAllStudents());
+            Availability availability = service.getAvailability(id);
+            return availability == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(availability);
         } catch (Exception e) {
             e.printStackTrace();
-            return ResponseEntity.ok(Collections.emptyList());
+            return ResponseEntity.internalServerError().build();
         }
     }
 
+    // ---------- STUDENTS ----------
+    @GetMapping("/students")
+    public CompletableFuture<ResponseEntity<Page<Student>>> getStudents(@RequestParam(required = false) Integer limit,
+                                                                    @RequestParam(required = false) String pageToken) {
+        return service.getStudentsPageAsync(limit, pageToken)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(e -> {
+                    Futures.unwrap(e).printStackTrace();
+                    return ResponseEntity.ok(new Page<>());
+                });
+    }
+
     @PostMapping("/students")
     public ResponseEntity<String> addStudent(@ModelAttribute Student student) {
         try {
@@ -72,30 +100,88 @@ public class LibraryController {
 
     // ---------- ISSUE ----------
     @GetMapping("/issues")
-    public ResponseEntity<List<Issue>> getIssues() {
+    public CompletableFuture<ResponseEntity<Page<Issue>>> getIssues(@RequestParam(required = false) String status,
+                                                                @RequestParam(required = false) String sort,
+                                                                @RequestParam(required = false) Integer limit,
+                                                                @RequestParam(required = false) String pageToken) {
+        return service.getIssuesPageAsync(status, sort, limit, pageToken)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(e -> {
+                    Throwable cause = Futures.unwrap(e);
+                    if (cause instanceof IllegalArgumentException)
+                        return ResponseEntity.badRequest().build();
+                    cause.printStackTrace();
+                    return ResponseEntity.ok(new Page<>());
+                });
+    }
+
+    @GetMapping("/students/{id}/issues")
+    public ResponseEntity<Page<Issue>> getStudentIssues(@PathVariable String id,
+                                                        @RequestParam(required = false) Integer limit,
+                                                        @RequestParam(required = false) String pageToken) {
         try {
-            return ResponseEntity.ok(service.getAllIssues());
+            return ResponseEntity.ok(service.getStudentIssuesPage(id, limit, pageToken));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             e.printStackTrace();
-            return ResponseEntity.ok(Collections.emptyList());
+            return ResponseEntity.ok(new Page<>());
         }
     }
 
     @PostMapping("/issue")
-    public ResponseEntity<String> issue(@ModelAttribute Issue issue) {
+    public CompletableFuture<ResponseEntity<String>> issue(@ModelAttribute Issue issue,
+                                                           @RequestHeader(value = IdempotencyStore.HEADER, required = false) String key) {
+        String fingerprint = "issue:" + issue.getBookId() + "|" + issue.getStudentId();
+        return idempotent(key, fingerprint, () -> service.issueBookAsync(issue), "Issue failed");
+    }
+
+    // id = the issue id returned by /api/issues (one per loan)
+    @PostMapping("/return/{id}")
+    public CompletableFuture<ResponseEntity<String>> ret(@PathVariable String id,
+                                                         @RequestHeader(value = IdempotencyStore.HEADER, required = false) String key) {
+        return idempotent(key, "return:" + id, () -> service.returnBookAsync(id), "Return failed");
+    }
+
+    private CompletableFuture<ResponseEntity<String>> idempotent(String key, String fingerprint,
+                                                                 Supplier<CompletableFuture<String>> action,
+                                                                 String failure) {
+        return idempotency.execute(key, fingerprint, action)
+                .thenApply(outcome -> ResponseEntity.ok()
+                        .header(IdempotencyStore.REPLAYED_HEADER, String.valueOf(outcome.isReplayed()))
+                        .body(outcome.getBody()))
+                .exceptionally(e -> {
+                    Throwable cause = Futures.unwrap(e);
+                    if (cause instanceof IllegalArgumentException)
+                        return ResponseEntity.badRequest().body(cause.getMessage());
+                    if (cause instanceof IllegalStateException)
+                        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(cause.getMessage());
+                    cause.printStackTrace();
+                    return ResponseEntity.internalServerError().body(failure);
+                });
+    }
+
+    // ---------- DASHBOARD ----------
+    @GetMapping("/dashboard/summary")
+    public CompletableFuture<ResponseEntity<DashboardSummary>> getDashboardSummary() {
+        return service.getDashboardSummaryAsync()
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(e -> {
+                    Futures.unwrap(e).printStackTrace();
+                    return ResponseEntity.ok(new DashboardSummary());
+                });
+    }
+
+    @PostMapping("/dashboard/rebuild")
+    public ResponseEntity<String> rebuildDashboard() {
         try {
-            return ResponseEntity.ok(service.issueBook(issue));
+            return ResponseEntity.ok(service.rebuildDashboardCounters());
         } catch (Exception e) {
             e.printStackTrace();
-            return ResponseEntity.internalServerError().body("Issue failed");
+            return ResponseEntity.internalServerError().body("Rebuild failed");
         }
     }
 
-    @PostMapping("/return/{id}")
-    public ResponseEntity<String> ret(@PathVariable String id) {
-        return ResponseEntity.ok(service.returnBook(id));
-    }
-
     // ---------- SEED BOOKS ----------
     @GetMapping("/seed-books")
     public ResponseEntity<String> seedBooks() {
@@ -0,0 +1,88 @@
+package com.example.library_management.controller;
+
+import com.example.library_management.model.Log;
+import com.example.library_management.model.Page;
+import com.example.library_management.model.RecentLogs;
+import com.example.library_management.service.FirebaseService;
+import com.example.library_management.service.LogArchiver;
+import com.example.library_management.service.RecentLogBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/*
+ * Audit log queries, newest first.
+ *
+ *   GET  /api/logs?from=2026-10-18T09:00&to=&actionType=ISSUE&limit=50&cursor=
+ *   GET  /api/logs/recent?n=20&sinceSeq=   (in-memory ring, no store read;
+ *                                           pass back lastSeq to get only newer entries)
+ *   POST /api/logs/migrate   (one-off: epochMillis on logs written before it existed)
+ *   POST /api/logs/archive   (move logs past the retention window to the archive now)
+ *
+ * GET /api/logs covers archived days too.
+ */
+@RestController
+@RequestMapping("/api/logs")
+public class LogController {
+
+    private final FirebaseService service;
+    private final RecentLogBuffer recentLogs;
+    private final LogArchiver archiver;
+
+    public LogController(FirebaseService service, RecentLogBuffer recentLogs, LogArchiver archiver) {
+        this.service = service;
+        this.recentLogs = recentLogs;
+        this.archiver = archiver;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getLogs(@RequestParam(required = false) String from,
+                                     @RequestParam(required = false) String to,
+                                     @RequestParam(required = false) String actionType,
+                                     @RequestParam(required = false) Integer limit,
+                                     @RequestParam(required = false) String cursor) {
+        try {
+            Page<Log> page = service.getLogsPage(from, to, actionType, limit, cursor);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError().body(Map.of("error", "Log query failed"));
+        }
+    }
+
+    @GetMapping("/recent")
+    public ResponseEntity<RecentLogs> getRecent(@RequestParam(defaultValue = "20") int n,
+                                                @RequestParam(defaultValue = "0") long sinceSeq) {
+        return ResponseEntity.ok(recentLogs.read(sinceSeq, n));
+    }
+
+    @PostMapping("/migrate")
+    public ResponseEntity<String> migrate() {
+        try {
+            return ResponseEntity.ok(service.migrateLogTimestamps());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError().body("Log migration failed");
+        }
+    }
+
+    @PostMapping("/archive")
+    public ResponseEntity<String> archive() {
+        try {
+            return ResponseEntity.ok(archiver.archiveOldLogs());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError().body("Log archival failed");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.library_management.controller;
+
+import com.example.library_management.model.MailDelivery;
+import com.example.library_management.service.MailOutbox;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Delivery status of queued mail (see MailOutbox).
+ * The tracking id is returned when a reminder is queued.
+ */
+@RestController
+@RequestMapping("/api/mail")
+public class MailController {
+
+    private final MailOutbox mailOutbox;
+
+    public MailController(MailOutbox mailOutbox) {
+        this.mailOutbox = mailOutbox;
+    }
+
+    // Queue depth, sent / retried / dead counts
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return mailOutbox.stats();
+    }
+
+    @GetMapping("/deliveries/{id}")
+    public ResponseEntity<MailDelivery> delivery(@PathVariable String id) {
+        MailDelivery delivery = mailOutbox.getDelivery(id);
+        return delivery == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(delivery);
+    }
+
+    @GetMapping("/dead-letters")
+    public List<MailDelivery> deadLetters() {
+        return mailOutbox.getDeadLetters();
+    }
+
+    // Puts a dead letter back in the queue with a fresh retry budget
+    @PostMapping("/dead-letters/{id}/retry")
+    public ResponseEntity<String> retry(@PathVariable String id) {
+        return mailOutbox.retryDeadLetter(id)
+                ? ResponseEntity.ok("Mail re-queued")
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.library_management.controller;
+
+import com.example.library_management.repository.FirestoreReplica;
+import com.example.library_management.security.AdmissionControl;
+import com.example.library_management.service.AuditLogWriter;
+import com.example.library_management.service.CatalogSearchIndex;
+import com.example.library_management.service.FirebaseService;
+import com.example.library_management.service.IdempotencyStore;
+import com.example.library_management.service.LibraryService;
+import com.example.library_management.service.LogArchiver;
+import com.example.library_management.service.ReminderScheduler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Read-only runtime numbers used to tune the server
+ * (cache sizes, TTLs, ...). Nothing here touches Firestore.
+ */
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private final FirebaseService service;
+    private final FirestoreReplica replica;
+    private final LibraryService libraryService;
+    private final AuditLogWriter auditLog;
+    private final ReminderScheduler reminders;
+    private final CatalogSearchIndex searchIndex;
+    private final LogArchiver logArchiver;
+    private final IdempotencyStore idempotency;
+    private final AdmissionControl admission;
+
+    public MetricsController(FirebaseService service, FirestoreReplica replica,
+            LibraryService libraryService, AuditLogWriter auditLog, ReminderScheduler reminders,
+            CatalogSearchIndex searchIndex, LogArchiver logArchiver, IdempotencyStore idempotency,
+            AdmissionControl admission) {
+        this.service = service;
+        this.replica = replica;
+        this.libraryService = libraryService;
+        this.auditLog = auditLog;
+        this.reminders = reminders;
+        this.searchIndex = searchIndex;
+        this.logArchiver = logArchiver;
+        this.idempotency = idempotency;
+        this.admission = admission;
+    }
+
+    @GetMapping("/cache")
+    public List<Map<String, Object>> cacheStats() {
+        return service.getCacheStats();
+    }
+
+    // Replica health: connected / synced / staleness per collection
+    @GetMapping("/replica")
+    public Map<String, Object> replicaStatus() {
+        return replica.status();
+    }
+
+    // Write-ahead journal of the in-memory LibraryService
+    @GetMapping("/journal")
+    public Map<String, Object> journalStats() {
+        return libraryService.getJournalStats();
+    }
+
+    // Audit log queue depth, drops and batch latency
+    @GetMapping("/audit-log")
+    public Map<String, Object> auditLogStats() {
+        return auditLog.stats();
+    }
+
+    // Archived audit logs: segments, size on disk, last compaction
+    @GetMapping("/log-archive")
+    public Map<String, Object> logArchiveStats() {
+        return logArchiver.stats();
+    }
+
+    // Idempotency keys of issue / return: stored, replayed, conflicting
+    @GetMapping("/idempotency")
+    public Map<String, Object> idempotencyStats() {
+        return idempotency.stats();
+    }
+
+    // Rate limiting of /api/**: rejections, bucket occupancy
+    @GetMapping("/admission")
+    public Map<String, Object> admissionStats() {
+        return admission.stats();
+    }
+
+    // Automatic overdue reminders: pending / sent / failed
+    @GetMapping("/reminders")
+    public Map<String, Object> reminderStats() {
+        return reminders.stats();
+    }
+
+    // Catalog search index: size, load time, searches / updates
+    @GetMapping("/search")
+    public Map<String, Object> searchStats() {
+        return searchIndex.stats();
+    }
+}
@@ -12,24 +12,24 @@ public class ReminderController {
     private ReminderService reminderService;
 
     // 🔔 MANUAL REMINDER API
-    @GetMapping("/remind/{bookId}")
-    public String sendReminder(@PathVariable String bookId) {
-        return reminderService.sendManualReminder(bookId);
+    @GetMapping("/remind/{issueId}")
+    public String sendReminder(@PathVariable String issueId) {
+        return reminderService.sendManualReminder(issueId);
     }
 
-    @PostMapping("/remind/{bookId}")
-    public String sendReminderPost(@PathVariable String bookId) {
-        return reminderService.sendManualReminder(bookId);
+    @PostMapping("/remind/{issueId}")
+    public String sendReminderPost(@PathVariable String issueId) {
+        return reminderService.sendManualReminder(issueId);
     }
 
     // Alternative endpoint path for reminders
-    @GetMapping("/reminder/{bookId}")
-    public String getReminderStatus(@PathVariable String bookId) {
-        return reminderService.sendManualReminder(bookId);
+    @GetMapping("/reminder/{issueId}")
+    public String getReminderStatus(@PathVariable String issueId) {
+        return reminderService.sendManualReminder(issueId);
     }
 
-    @PostMapping("/reminder/{bookId}")
-    public String postReminder(@PathVariable String bookId) {
-        return reminderService.sendManualReminder(bookId);
+    @PostMapping("/reminder/{issueId}")
+    public String postReminder(@PathVariable String issueId) {
+        return reminderService.sendManualReminder(issueId);
     }
 }
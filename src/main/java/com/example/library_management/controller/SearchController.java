@@ -0,0 +1,55 @@
+package com.example.library_management.controller;
+
+import com.example.library_management.service.CatalogSearchIndex;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Catalog search, answered from CatalogSearchIndex (memory only).
+ *
+ *   GET  /api/books/search?q=harry pot&category=CSE&limit=20
+ *   GET  /api/books/suggest?q=harry pot&limit=10
+ *   POST /api/books/search/rebuild
+ */
+@RestController
+@RequestMapping("/api/books")
+public class SearchController {
+
+    private final CatalogSearchIndex index;
+
+    public SearchController(CatalogSearchIndex index) {
+        this.index = index;
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam String q,
+                                    @RequestParam(required = false) String category,
+                                    @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(index.search(q, category, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggest(@RequestParam String q,
+                                @RequestParam(required = false) Integer limit) {
+        return index.suggest(q, limit);
+    }
+
+    // Full reload from the store, e.g. after writes by another instance
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<String> rebuild() {
+        return index.rebuild()
+                ? ResponseEntity.accepted().body("Search index rebuild started")
+                : ResponseEntity.ok("Search index rebuild already running");
+    }
+}
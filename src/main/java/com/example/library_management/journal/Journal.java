@@ -0,0 +1,548 @@
+package com.example.library_management.journal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32C;
+
+/*
+ * Journal
+ * -------
+ * Write-ahead log for an in-memory store.
+ *
+ * Files (in one directory):
+ *   segment-<firstSeq>.log   memory-mapped, fixed size, records back to back
+ *   snapshot-<seq>.snap      full state as of record <seq>
+ *
+ * Record layout:  [int length][int crc32c][long seq][payload]
+ *  - length 0 = end of data (segments are zero-filled when created)
+ *  - crc covers seq + payload, so a torn tail is detected and dropped
+ *
+ * Group commit:
+ *  - append() only copies bytes into the mapped segment (no syscall)
+ *  - one committer thread force()s the segment; every writer waiting in
+ *    commit() is released by the same flush
+ *
+ * Snapshots:
+ *  - every <snapshotEvery> records the full state is written to a new
+ *    snapshot and older segments / snapshots are deleted
+ *  - the fence (read lock per change, write lock to pick the snapshot
+ *    seq) guarantees every record <= seq is visible in the state the
+ *    snapshot iterates; records are idempotent, so replaying changes that
+ *    also made it into the snapshot is harmless
+ *
+ * Recovery = latest snapshot + every record after it.
+ */
+public class Journal {
+
+    // Applies one record (journal replay and snapshot load)
+    @FunctionalInterface
+    public interface RecordHandler {
+        void apply(ByteBuffer payload) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface RecordSink {
+        void write(byte[] payload) throws IOException;
+    }
+
+    // Writes the whole state as records (usually one "put" per entity)
+    @FunctionalInterface
+    public interface SnapshotSource {
+        void writeTo(RecordSink sink) throws IOException;
+    }
+
+    private static final int HEADER = 16;
+    private static final int SNAPSHOT_MAGIC = 0x4C49424A; // "LIBJ"
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    private final Path dir;
+    private final int segmentSize;
+    private final boolean syncWrites;
+    private final long groupCommitMillis;
+    private final long snapshotEvery;
+
+    private final ReentrantReadWriteLock fence = new ReentrantReadWriteLock();
+
+    // ---- Append state (guarded by this) ----
+    private final CRC32C crc = new CRC32C();
+    private MappedByteBuffer current;
+    private FileChannel currentChannel;
+    private long currentFirstSeq;
+    private long lastSeq;
+    private volatile long appendedSeq;
+
+    // ---- Group commit state (guarded by syncLock) ----
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition work = syncLock.newCondition();
+    private final Condition done = syncLock.newCondition();
+    private long requestedSeq;
+    private long durableSeq;
+    private Thread committer;
+    private volatile boolean closed;
+    private volatile boolean stopped;
+
+    // ---- Snapshots ----
+    private final Object checkpointLock = new Object();
+    private final AtomicBoolean checkpointScheduled = new AtomicBoolean();
+    private final ExecutorService checkpointer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "journal-checkpoint");
+        t.setDaemon(true);
+        return t;
+    });
+    private SnapshotSource snapshotSource;
+    private volatile long snapshotSeq;
+
+    // ---- Stats ----
+    private final LongAdder appends = new LongAdder();
+    private final LongAdder appendedBytes = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushedRecords = new LongAdder();
+    private final LongAdder checkpoints = new LongAdder();
+    private volatile long lastRecoveryMillis;
+    private volatile long lastCheckpointMillis;
+
+    public Journal(Path dir, int segmentSize, boolean syncWrites, long groupCommitMillis, long snapshotEvery) {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.syncWrites = syncWrites;
+        this.groupCommitMillis = groupCommitMillis;
+        this.snapshotEvery = snapshotEvery;
+    }
+
+    // ================= OPEN / RECOVER =================
+    /*
+     * Replays the latest snapshot and every later record into the handler,
+     * then opens the journal for appends. Returns the number of records applied.
+     */
+    public synchronized long open(RecordHandler handler, SnapshotSource source) throws IOException {
+        long start = System.currentTimeMillis();
+        Files.createDirectories(dir);
+        this.snapshotSource = source;
+
+        long applied = 0;
+        Path snapshot = latest(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if (snapshot != null)
+            applied += readSnapshot(snapshot, handler);
+        lastSeq = snapshotSeq;
+
+        List<Path> segments = list(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i < segments.size(); i++) {
+            applied += replaySegment(segments.get(i), handler, i == segments.size() - 1);
+        }
+        if (current == null)
+            openSegment(lastSeq + 1);
+
+        appendedSeq = lastSeq;
+        requestedSeq = lastSeq;
+        durableSeq = lastSeq;
+
+        committer = new Thread(this::commitLoop, "journal-commit");
+        committer.setDaemon(true);
+        committer.start();
+
+        lastRecoveryMillis = System.currentTimeMillis() - start;
+        return applied;
+    }
+
+    private long readSnapshot(Path file, RecordHandler handler) throws IOException {
+        long applied = 0;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 20))) {
+            if (in.readInt() != SNAPSHOT_MAGIC)
+                throw new IOException("Not a journal snapshot: " + file);
+            long seq = in.readLong();
+
+            int len;
+            while ((len = in.readInt()) >= 0) {
+                byte[] payload = new byte[len];
+                in.readFully(payload);
+                apply(handler, ByteBuffer.wrap(payload));
+                applied++;
+            }
+            snapshotSeq = seq;
+        } catch (EOFException e) {
+            // Snapshots are renamed into place only when complete
+            throw new IOException("Truncated snapshot: " + file, e);
+        }
+        return applied;
+    }
+
+    private long replaySegment(Path file, RecordHandler handler, boolean tail) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                tail ? Math.max(channel.size(), segmentSize) : channel.size());
+
+        long applied = 0;
+        int pos = 0;
+        boolean torn = false;
+        while (pos + HEADER <= buf.limit()) {
+            int len = buf.getInt(pos);
+            if (len == 0)
+                break;
+            if (len < 0 || pos + HEADER + len > buf.limit() || !checksumMatches(buf, pos, len)) {
+                torn = true;
+                break;
+            }
+
+            long seq = buf.getLong(pos + 8);
+            if (seq > lastSeq) {
+                apply(handler, buf.slice(pos + HEADER, len));
+                lastSeq = seq;
+                applied++;
+            }
+            pos += HEADER + len;
+        }
+
+        if (!tail) {
+            if (torn)
+                System.err.println("⚠️  Journal: damaged record inside " + file.getFileName());
+            channel.close();
+            return applied;
+        }
+
+        // A crash mid-append leaves a torn record: wipe it before writing after it
+        if (torn) {
+            System.err.println("⚠️  Journal: dropping torn tail of " + file.getFileName());
+            for (int i = pos; i < buf.limit(); i++)
+                buf.put(i, (byte) 0);
+            buf.force();
+        }
+        buf.position(pos);
+        current = buf;
+        currentChannel = channel;
+        currentFirstSeq = firstSeq(file);
+        return applied;
+    }
+
+    private boolean checksumMatches(ByteBuffer buf, int pos, int len) {
+        crc.reset();
+        crc.update(buf.slice(pos + 8, 8 + len));
+        return (int) crc.getValue() == buf.getInt(pos + 4);
+    }
+
+    private void apply(RecordHandler handler, ByteBuffer payload) throws IOException {
+        try {
+            handler.apply(payload);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Journal replay failed", e);
+        }
+    }
+
+    // ================= APPEND =================
+    /*
+     * Hold this (read) lock while applying a change to the in-memory state
+     * AND appending its record, so a snapshot never misses a logged change.
+     */
+    public Lock fence() {
+        return fence.readLock();
+    }
+
+    // Copies the record into the mapped segment; durable only after commit()
+    public long append(byte[] payload) throws IOException {
+        long seq;
+        synchronized (this) {
+            if (closed)
+                throw new IllegalStateException("Journal is closed");
+            int need = HEADER + payload.length;
+            if (need > segmentSize)
+                throw new IllegalArgumentException("Record larger than a journal segment");
+            if (current.remaining() < need)
+                roll();
+
+            seq = lastSeq + 1;
+            int pos = current.position();
+            current.putLong(pos + 8, seq);
+            current.put(pos + HEADER, payload);
+            crc.reset();
+            crc.update(current.slice(pos + 8, 8 + payload.length));
+            current.putInt(pos + 4, (int) crc.getValue());
+            current.putInt(pos, payload.length);
+            current.position(pos + need);
+
+            lastSeq = seq;
+            appendedSeq = seq;
+        }
+        appends.increment();
+        appendedBytes.add(payload.length);
+
+        if (seq - snapshotSeq >= snapshotEvery && checkpointScheduled.compareAndSet(false, true))
+            checkpointer.execute(this::backgroundCheckpoint);
+        return seq;
+    }
+
+    // Waits until every record up to seq is on disk (no-op when sync is off)
+    public void commit(long seq) throws IOException {
+        if (!syncWrites)
+            return;
+        syncLock.lock();
+        try {
+            if (seq > requestedSeq) {
+                requestedSeq = seq;
+                work.signal();
+            }
+            while (durableSeq < seq) {
+                if (stopped)
+                    throw new IllegalStateException("Journal is closed");
+                done.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for journal commit");
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    public long appendedSeq() {
+        return appendedSeq;
+    }
+
+    // Full segment: flush it and continue in a new file (caller holds this)
+    private void roll() throws IOException {
+        current.force();
+        currentChannel.close();
+        openSegment(lastSeq + 1);
+    }
+
+    private void openSegment(long firstSeq) throws IOException {
+        Path file = dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX));
+        currentChannel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        current = currentChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        currentFirstSeq = firstSeq;
+        syncDirectory();
+    }
+
+    /*
+     * Committer: wakes up when a writer asks for a commit (or every
+     * groupCommitMillis), flushes everything appended so far, releases
+     * all writers covered by that flush.
+     */
+    private void commitLoop() {
+        while (true) {
+            long flushedUpTo;
+            syncLock.lock();
+            try {
+                if (!closed && requestedSeq <= durableSeq)
+                    work.await(groupCommitMillis, TimeUnit.MILLISECONDS);
+                flushedUpTo = durableSeq;
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                syncLock.unlock();
+            }
+
+            long target = appendedSeq;
+            if (target > flushedUpTo) {
+                MappedByteBuffer buf;
+                synchronized (this) {
+                    buf = current;
+                }
+                buf.force();
+                flushes.increment();
+                flushedRecords.add(target - flushedUpTo);
+
+                syncLock.lock();
+                try {
+                    durableSeq = Math.max(durableSeq, target);
+                    done.signalAll();
+                } finally {
+                    syncLock.unlock();
+                }
+            }
+
+            if (closed && appendedSeq <= flushedUpTo)
+                break;
+        }
+
+        syncLock.lock();
+        try {
+            stopped = true;
+            done.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // ================= SNAPSHOTS =================
+    private void backgroundCheckpoint() {
+        try {
+            checkpoint();
+        } catch (Exception e) {
+            System.err.println("❌ Journal checkpoint failed: " + e.getMessage());
+        } finally {
+            checkpointScheduled.set(false);
+        }
+    }
+
+    // Writes a snapshot of the current state and drops the journal it replaces
+    public void checkpoint() throws IOException {
+        synchronized (checkpointLock) {
+            long start = System.currentTimeMillis();
+
+            long seq;
+            fence.writeLock().lock();
+            try {
+                synchronized (this) {
+                    seq = lastSeq;
+                }
+            } finally {
+                fence.writeLock().unlock();
+            }
+            if (seq == snapshotSeq)
+                return;
+
+            Path tmp = dir.resolve(SNAPSHOT_PREFIX + "tmp");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 20));
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeLong(seq);
+                snapshotSource.writeTo(payload -> {
+                    out.writeInt(payload.length);
+                    out.write(payload);
+                });
+                out.writeInt(-1);
+                out.flush();
+                channel.force(true);
+            }
+
+            Path snapshot = dir.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, seq, SNAPSHOT_SUFFIX));
+            Files.move(tmp, snapshot, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory();
+            snapshotSeq = seq;
+
+            deleteCoveredBy(seq, snapshot);
+            checkpoints.increment();
+            lastCheckpointMillis = System.currentTimeMillis() - start;
+        }
+    }
+
+    // Removes older snapshots and segments whose records are all <= seq
+    private void deleteCoveredBy(long seq, Path keep) throws IOException {
+        for (Path old : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (!old.equals(keep))
+                Files.deleteIfExists(old);
+        }
+
+        long currentFirst;
+        synchronized (this) {
+            currentFirst = currentFirstSeq;
+        }
+        List<Path> segments = list(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstSeq(segments.get(i)) >= currentFirst)
+                break;
+            if (firstSeq(segments.get(i + 1)) > seq + 1)
+                break;
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    // ================= CLOSE =================
+    public void close() throws IOException {
+        closed = true;
+        syncLock.lock();
+        try {
+            work.signal();
+        } finally {
+            syncLock.unlock();
+        }
+        try {
+            if (committer != null)
+                committer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkpointer.shutdown();
+
+        synchronized (this) {
+            if (current != null) {
+                current.force();
+                currentChannel.close();
+            }
+        }
+    }
+
+    // ================= FILES =================
+    private List<Path> list(String prefix, String suffix) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, prefix + "*" + suffix)) {
+            for (Path p : stream)
+                files.add(p);
+        }
+        // Zero-padded sequence numbers: name order == sequence order
+        files.sort(null);
+        return files;
+    }
+
+    private Path latest(String prefix, String suffix) throws IOException {
+        List<Path> files = list(prefix, suffix);
+        return files.isEmpty() ? null : files.get(files.size() - 1);
+    }
+
+    private static long firstSeq(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // Makes a new / renamed file name durable (best effort, not on every OS)
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+
+    // ================= STATS =================
+    public Map<String, Object> stats() {
+        long f = flushes.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("directory", dir.toAbsolutePath().toString());
+        stats.put("syncWrites", syncWrites);
+        stats.put("appendedSeq", appendedSeq);
+        stats.put("snapshotSeq", snapshotSeq);
+        stats.put("appends", appends.sum());
+        stats.put("appendedBytes", appendedBytes.sum());
+        stats.put("flushes", f);
+        stats.put("recordsPerFlush", f == 0 ? 0.0 : (double) flushedRecords.sum() / f);
+        stats.put("checkpoints", checkpoints.sum());
+        stats.put("lastCheckpointMillis", lastCheckpointMillis);
+        stats.put("lastRecoveryMillis", lastRecoveryMillis);
+        return stats;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.library_management.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*
+ * RecordBuffer
+ * ------------
+ * Tiny growable byte buffer for building journal records,
+ * plus the matching readers for a record ByteBuffer.
+ *
+ * Strings: int length (-1 = null) + UTF-8 bytes
+ */
+public final class RecordBuffer {
+
+    private byte[] bytes = new byte[128];
+    private int size;
+
+    public RecordBuffer putByte(int b) {
+        ensure(1);
+        bytes[size++] = (byte) b;
+        return this;
+    }
+
+    public RecordBuffer putBoolean(boolean b) {
+        return putByte(b ? 1 : 0);
+    }
+
+    public RecordBuffer putInt(int v) {
+        ensure(4);
+        bytes[size++] = (byte) (v >>> 24);
+        bytes[size++] = (byte) (v >>> 16);
+        bytes[size++] = (byte) (v >>> 8);
+        bytes[size++] = (byte) v;
+        return this;
+    }
+
+    public RecordBuffer putString(String s) {
+        if (s == null)
+            return putInt(-1);
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        putInt(utf8.length);
+        ensure(utf8.length);
+        System.arraycopy(utf8, 0, bytes, size, utf8.length);
+        size += utf8.length;
+        return this;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > bytes.length)
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+    }
+
+    // ---------------- READERS ----------------
+    public static boolean getBoolean(ByteBuffer in) {
+        return in.get() != 0;
+    }
+
+    public static String getString(ByteBuffer in) {
+        int len = in.getInt();
+        if (len < 0)
+            return null;
+        byte[] utf8 = new byte[len];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
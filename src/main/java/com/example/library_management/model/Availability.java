@@ -0,0 +1,90 @@
+package com.example.library_management.model;
+
+/*
+ * Availability
+ * ------------
+ * Copies of one title, as counted by the repository:
+ *  - copies     : book.quantity (copies owned); 0 counts as one copy
+ *                 (books added before the form asked for a quantity)
+ *  - onLoan     : copies out right now (atomic per-title counter), plus
+ *                 the title's open loan from before copies existed
+ *  - available  : copies - onLoan, never below 0
+ *
+ * Served by GET /api/books/{id}/availability.
+ */
+public class Availability {
+
+    private String bookId;
+    private int copies;
+    private long onLoan;
+    private long available;
+
+    // Copies held by a loan without a copy number (0 or 1, not serialized)
+    private int unnumbered;
+
+    public Availability() {
+    }
+
+    public Availability(String bookId, int copies, long onLoan) {
+        this.bookId = bookId;
+        this.copies = copies;
+        this.onLoan = onLoan;
+        this.available = Math.max(0, copies - onLoan);
+    }
+
+    /*
+     * From the book record, the copy loans counted by the repository and
+     * the title's single-copy loan (issue id = bookId, null if none).
+     * An open single-copy loan holds one copy without a number; if issuing
+     * it took one off quantity (stockTaken), that copy is added back here.
+     */
+    public static Availability of(Book book, long copyLoans, Issue singleCopyLoan) {
+        boolean held = singleCopyLoan != null
+                && singleCopyLoan.getCopyId() == null
+                && singleCopyLoan.getReturnDate() == null;
+        int owned = book.getQuantity() + (held && singleCopyLoan.isStockTaken() ? 1 : 0);
+
+        Availability availability = new Availability(book.getId(), Math.max(1, owned), copyLoans + (held ? 1 : 0));
+        availability.unnumbered = held ? 1 : 0;
+        return availability;
+    }
+
+    // Copy loans use the copy numbers 1..numberedCopies()
+    public int numberedCopies() {
+        return Math.max(0, copies - unnumbered);
+    }
+
+    // ---------------- GETTERS & SETTERS ----------------
+
+    public String getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(String bookId) {
+        this.bookId = bookId;
+    }
+
+    public int getCopies() {
+        return copies;
+    }
+
+    public void setCopies(int copies) {
+        this.copies = copies;
+    }
+
+    public long getOnLoan() {
+        return onLoan;
+    }
+
+    public void setOnLoan(long onLoan) {
+        this.onLoan = onLoan;
+    }
+
+    public long getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(long available) {
+        this.available = available;
+    }
+}
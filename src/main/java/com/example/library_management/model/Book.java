@@ -26,16 +26,17 @@ public class Book {
 
     /*
      * DSA Concept:
-     * Quantity management helps in counting available copies
-     * Used with conditional logic in LibraryService
+     * Number of copies the library owns (copies #1..#quantity).
+     * Loans do not change it: copies out are counted per title by the
+     * repository (see Availability)
      */
     private int quantity;
 
     /*
      * Issue / Return Flags
      * -------------------
-     * Used in Queue & HashMap based logic
-     * Helps track book availability
+     * Single-copy flags from before copy-level loans; still set by
+     * LibraryService and by returns of those older loans
      */
     private boolean issued;
 
@@ -46,6 +47,22 @@ public class Book {
     public Book() {
     }
 
+    /*
+     * Copy constructor
+     * ----------------
+     * Used for copy-on-write updates: the stored Book is never changed
+     * in place, a modified copy replaces it
+     */
+    public Book(Book other) {
+        this.id = other.id;
+        this.title = other.title;
+        this.author = other.author;
+        this.category = other.category;
+        this.quantity = other.quantity;
+        this.issued = other.issued;
+        this.issuedTo = other.issuedTo;
+    }
+
     /*
      * Getter & Setter Methods
      * -----------------------
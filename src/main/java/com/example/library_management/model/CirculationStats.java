@@ -0,0 +1,134 @@
+package com.example.library_management.model;
+
+/*
+ * CirculationStats
+ * ----------------
+ * One rollup bucket served by /api/analytics (see CirculationAnalytics).
+ *
+ *  - granularity / period : "day" 2026-10-18, "week" 2026-W42, "month" 2026-10
+ *  - dimension            : "all", "category:CSE" or "student:S1"
+ *  - issued / returned    : issues started / returned inside the period
+ *  - lateReturns          : returns after the due date (lateReturnRate = late / returned)
+ *  - averageLoanDays      : issue -> return, over the returns of the period
+ *
+ * Point-in-time numbers (not tied to the period):
+ *  - openLoans            : copies of this dimension out right now
+ *  - books / copies       : category only, titles and copies owned in the catalog
+ *  - utilisation          : category only, openLoans / copies owned
+ */
+public class CirculationStats {
+
+    private String granularity;
+    private String period;
+    private String dimension;
+    private long issued;
+    private long returned;
+    private long lateReturns;
+    private double lateReturnRate;
+    private double averageLoanDays;
+    private long openLoans;
+    private Integer books;
+    private Integer copies;
+    private Double utilisation;
+
+    public CirculationStats() {
+    }
+
+    // ---------------- GETTERS & SETTERS ----------------
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(String period) {
+        this.period = period;
+    }
+
+    public String getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(String dimension) {
+        this.dimension = dimension;
+    }
+
+    public long getIssued() {
+        return issued;
+    }
+
+    public void setIssued(long issued) {
+        this.issued = issued;
+    }
+
+    public long getReturned() {
+        return returned;
+    }
+
+    public void setReturned(long returned) {
+        this.returned = returned;
+    }
+
+    public long getLateReturns() {
+        return lateReturns;
+    }
+
+    public void setLateReturns(long lateReturns) {
+        this.lateReturns = lateReturns;
+    }
+
+    public double getLateReturnRate() {
+        return lateReturnRate;
+    }
+
+    public void setLateReturnRate(double lateReturnRate) {
+        this.lateReturnRate = lateReturnRate;
+    }
+
+    public double getAverageLoanDays() {
+        return averageLoanDays;
+    }
+
+    public void setAverageLoanDays(double averageLoanDays) {
+        this.averageLoanDays = averageLoanDays;
+    }
+
+    public long getOpenLoans() {
+        return openLoans;
+    }
+
+    public void setOpenLoans(long openLoans) {
+        this.openLoans = openLoans;
+    }
+
+    public Integer getBooks() {
+        return books;
+    }
+
+    public void setBooks(Integer books) {
+        this.books = books;
+    }
+
+    public Integer getCopies() {
+        return copies;
+    }
+
+    public void setCopies(Integer copies) {
+        this.copies = copies;
+    }
+
+    public Double getUtilisation() {
+        return utilisation;
+    }
+
+    public void setUtilisation(Double utilisation) {
+        this.utilisation = utilisation;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.library_management.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * DashboardSummary Model Class
+ * ----------------------------
+ * Purpose:
+ *  - Everything the dashboard page needs in ONE response
+ *
+ * System Design:
+ *  - Totals come from the "stats/dashboard" counters (a base document
+ *    plus 16 shards), updated on every add / delete / issue / return
+ *  - So building this object costs a constant number of reads,
+ *    no matter how many books, students or issues exist
+ */
+
+public class DashboardSummary {
+
+    private long totalBooks;
+    private long members;
+    private long borrowed;
+    private long returned;
+    private long overdue;
+
+    // Outstanding fine in rupees (same rule as dashboard.js)
+    private long outstandingFine;
+
+    // Small, bounded lists for the dashboard tables
+    private List<Issue> overdueIssues = new ArrayList<>();
+    private List<Issue> recentIssues = new ArrayList<>();
+
+    public DashboardSummary() {
+    }
+
+    // ---------------- GETTERS & SETTERS ----------------
+
+    public long getTotalBooks() {
+        return totalBooks;
+    }
+
+    public void setTotalBooks(long totalBooks) {
+        this.totalBooks = totalBooks;
+    }
+
+    public long getMembers() {
+        return members;
+    }
+
+    public void setMembers(long members) {
+        this.members = members;
+    }
+
+    public long getBorrowed() {
+        return borrowed;
+    }
+
+    public void setBorrowed(long borrowed) {
+        this.borrowed = borrowed;
+    }
+
+    public long getReturned() {
+        return returned;
+    }
+
+    public void setReturned(long returned) {
+        this.returned = returned;
+    }
+
+    public long getOverdue() {
+        return overdue;
+    }
+
+    public void setOverdue(long overdue) {
+        this.overdue = overdue;
+    }
+
+    public long getOutstandingFine() {
+        return outstandingFine;
+    }
+
+    public void setOutstandingFine(long outstandingFine) {
+        this.outstandingFine = outstandingFine;
+    }
+
+    public List<Issue> getOverdueIssues() {
+        return overdueIssues;
+    }
+
+    public void setOverdueIssues(List<Issue> overdueIssues) {
+        this.overdueIssues = overdueIssues;
+    }
+
+    public List<Issue> getRecentIssues() {
+        return recentIssues;
+    }
+
+    public void setRecentIssues(List<Issue> recentIssues) {
+        this.recentIssues = recentIssues;
+    }
+}
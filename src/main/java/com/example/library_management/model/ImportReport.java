@@ -0,0 +1,152 @@
+package com.example.library_management.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * ImportReport
+ * ------------
+ * Result of one bulk import (/api/import/books | students).
+ *
+ *  - rowsRead  = data rows found in the upload
+ *  - imported  = rows written (created = of those, ids that did not exist yet)
+ *  - failed    = rows rejected by validation or by a failed batch
+ *  - errors    = one entry per failed row (first MAX_ERRORS only)
+ */
+public class ImportReport {
+
+    public static final int MAX_ERRORS = 1000;
+
+    private String collection;
+    private String format;
+    private long rowsRead;
+    private long imported;
+    private long created;
+    private long failed;
+    private long batches;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private boolean errorsTruncated;
+    private List<RowError> errors = new ArrayList<>();
+
+    public ImportReport() {
+    }
+
+    // One rejected row; line is the 1-based line number in the upload
+    public static class RowError {
+        private long line;
+        private String id;
+        private String message;
+
+        public RowError() {
+        }
+
+        public RowError(long line, String id, String message) {
+            this.line = line;
+            this.id = id;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    // ---------------- GETTERS & SETTERS ----------------
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public void setCollection(String collection) {
+        this.collection = collection;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public void setBatches(long batches) {
+        this.batches = batches;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+}
@@ -18,7 +18,8 @@ package com.example.library_management.model;
 public class Issue {
 
     /*
-     * Unique identifier for the issue record
+     * Unique identifier for the issue record (one per loan:
+     * "<bookId>-<issue time>-<random>", so loans of a title sort together)
      * DSA: used as key when storing in Firestore (document id)
      */
     private String id;
@@ -30,6 +31,12 @@ public class Issue {
      */
     private String bookId;
 
+    /*
+     * The physical copy on loan: "<bookId>#<n>", n = 1..book.quantity
+     * Picked by the repository; null on loans made before copies existed
+     */
+    private String copyId;
+
     // Used for display/reporting purpose (no DSA impact)
     private String bookTitle;
 
@@ -65,10 +72,32 @@ public class Issue {
      */
     private boolean reminderSent;
 
+    /*
+     * true when issuing this loan took one off book.quantity (single-copy
+     * loans from before copies existed); only such a loan gives one back
+     * on return. Copy loans never touch book.quantity.
+     */
+    private boolean stockTaken;
+
     // Default constructor (required for JSON / Firebase mapping)
     public Issue() {
     }
 
+    // Copy constructor (returns and reminder flags are written to a copy, the stored loan stays as it was)
+    public Issue(Issue other) {
+        this.id = other.id;
+        this.bookId = other.bookId;
+        this.copyId = other.copyId;
+        this.bookTitle = other.bookTitle;
+        this.studentId = other.studentId;
+        this.studentName = other.studentName;
+        this.issueDate = other.issueDate;
+        this.dueDate = other.dueDate;
+        this.returnDate = other.returnDate;
+        this.reminderSent = other.reminderSent;
+        this.stockTaken = other.stockTaken;
+    }
+
     /*
      * Getter & Setter Methods
      * ----------------------
@@ -91,6 +120,14 @@ public class Issue {
         this.bookId = bookId;
     }
 
+    public String getCopyId() {
+        return copyId;
+    }
+
+    public void setCopyId(String copyId) {
+        this.copyId = copyId;
+    }
+
     public String getBookTitle() {
         return bookTitle;
     }
@@ -169,4 +206,12 @@ public class Issue {
     public void setReminderSent(boolean reminderSent) {
         this.reminderSent = reminderSent;
     }
+
+    public boolean isStockTaken() {
+        return stockTaken;
+    }
+
+    public void setStockTaken(boolean stockTaken) {
+        this.stockTaken = stockTaken;
+    }
 }
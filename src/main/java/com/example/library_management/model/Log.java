@@ -20,6 +20,24 @@ package com.example.library_management.model;
 
 public class Log {
 
+    /*
+     * Id
+     * --
+     * "<epochMillis, 13 digits>-<random hex>": sorts by time, so id order
+     * (export paging) is chronological too. Older logs keep their random
+     * Firestore ids.
+     */
+    private String id;
+
+    /*
+     * Epoch Millis
+     * ------------
+     * The ordered form of timestamp: /api/logs range queries and the
+     * Firestore index (actionType, epochMillis) work on this field.
+     * 0 on logs written before it existed until they are migrated.
+     */
+    private long epochMillis;
+
     /*
      * Timestamp
      * ---------
@@ -79,9 +97,40 @@ public class Log {
         this.user = user;
     }
 
+    /*
+     * Copy constructor
+     * ----------------
+     * The in-memory store keeps its own entry, so a caller cannot rewrite
+     * the audit trail through a Log it was handed
+     */
+    public Log(Log other) {
+        this.id = other.id;
+        this.epochMillis = other.epochMillis;
+        this.timestamp = other.timestamp;
+        this.actionType = other.actionType;
+        this.description = other.description;
+        this.user = other.user;
+    }
+
     // ---------------- GETTERS & SETTERS ----------------
     // OOP: Encapsulation
 
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getEpochMillis() {
+        return epochMillis;
+    }
+
+    public void setEpochMillis(long epochMillis) {
+        this.epochMillis = epochMillis;
+    }
+
     public String getTimestamp() {
         return timestamp;
     }
@@ -0,0 +1,103 @@
+package com.example.library_management.model;
+
+/*
+ * MailDelivery
+ * ------------
+ * Tracking record of one outgoing mail (see MailOutbox).
+ *
+ * status:
+ *  QUEUED   -> waiting for a worker
+ *  SENDING  -> handed to SMTP
+ *  RETRYING -> last attempt failed, waiting for the backoff delay
+ *  SENT     -> accepted by the SMTP server
+ *  DEAD     -> gave up after max attempts (kept in the dead-letter store)
+ */
+public class MailDelivery {
+
+    private String id;
+    private String to;
+    private String subject;
+    private String status;
+    private int attempts;
+    private String createdAt;
+    private String lastAttemptAt;
+    private String sentAt;
+    private String lastError;
+
+    public MailDelivery() {
+    }
+
+    // ---------------- GETTERS & SETTERS ----------------
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getLastAttemptAt() {
+        return lastAttemptAt;
+    }
+
+    public void setLastAttemptAt(String lastAttemptAt) {
+        this.lastAttemptAt = lastAttemptAt;
+    }
+
+    public String getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(String sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
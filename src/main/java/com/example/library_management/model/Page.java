@@ -0,0 +1,49 @@
+package com.example.library_management.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Page Model Class
+ * ----------------
+ * Purpose:
+ *  - One slice of a (possibly huge) collection
+ *
+ * DSA Concept:
+ *  - Cursor based paging: nextPageToken is the id of the last
+ *    document returned. The next request starts AFTER it, so a
+ *    page costs the same no matter how deep the client scrolls
+ *  - nextPageToken == null means there is nothing more to read
+ */
+
+public class Page<T> {
+
+    private List<T> items = new ArrayList<>();
+    private String nextPageToken;
+
+    public Page() {
+    }
+
+    public Page(List<T> items, String nextPageToken) {
+        this.items = items;
+        this.nextPageToken = nextPageToken;
+    }
+
+    // ---------------- GETTERS & SETTERS ----------------
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public void setNextPageToken(String nextPageToken) {
+        this.nextPageToken = nextPageToken;
+    }
+}
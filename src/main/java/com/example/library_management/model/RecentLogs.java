@@ -0,0 +1,56 @@
+package com.example.library_management.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * RecentLogs
+ * ----------
+ * Answer of /api/logs/recent (see RecentLogBuffer).
+ *
+ *  - items     = newest first, at most n
+ *  - lastSeq   = pass back as sinceSeq to get only what came after
+ *  - truncated = there were more entries after sinceSeq than returned
+ *                (more than n, or already overwritten in the ring)
+ */
+public class RecentLogs {
+
+    private List<Log> items = new ArrayList<>();
+    private long lastSeq;
+    private boolean truncated;
+
+    public RecentLogs() {
+    }
+
+    public RecentLogs(List<Log> items, long lastSeq, boolean truncated) {
+        this.items = items;
+        this.lastSeq = lastSeq;
+        this.truncated = truncated;
+    }
+
+    // ---------------- GETTERS & SETTERS ----------------
+
+    public List<Log> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Log> items) {
+        this.items = items;
+    }
+
+    public long getLastSeq() {
+        return lastSeq;
+    }
+
+    public void setLastSeq(long lastSeq) {
+        this.lastSeq = lastSeq;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.library_management.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * SearchResult
+ * ------------
+ * Answer of /api/books/search.
+ *
+ *  - total  = books matching the query (and the category filter, if any)
+ *  - hits   = the best `limit` of them, highest score first
+ *  - facets = matches per category for the query, BEFORE the category
+ *             filter, so the client can show every category to narrow to
+ *  - tookMicros = time spent in the index
+ */
+public class SearchResult {
+
+    private String query;
+    private String category;
+    private int total;
+    private List<Book> hits = new ArrayList<>();
+    private Map<String, Integer> facets = new LinkedHashMap<>();
+    private long tookMicros;
+
+    public SearchResult() {
+    }
+
+    // ---------------- GETTERS & SETTERS ----------------
+
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public List<Book> getHits() {
+        return hits;
+    }
+
+    public void setHits(List<Book> hits) {
+        this.hits = hits;
+    }
+
+    public Map<String, Integer> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, Integer> facets) {
+        this.facets = facets;
+    }
+
+    public long getTookMicros() {
+        return tookMicros;
+    }
+
+    public void setTookMicros(long tookMicros) {
+        this.tookMicros = tookMicros;
+    }
+}
@@ -52,6 +52,18 @@ public class Student {
     public Student() {
     }
 
+    /*
+     * Copy constructor
+     * ----------------
+     * A member edited through the API is a copy, the stored record is
+     * replaced, not changed in place
+     */
+    public Student(Student other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.email = other.email;
+    }
+
     // ---------- GETTERS & SETTERS ----------
     // OOP: Encapsulation
 
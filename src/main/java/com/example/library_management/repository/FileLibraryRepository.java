@@ -0,0 +1,168 @@
+package com.example.library_management.repository;
+
+import com.example.library_management.model.Book;
+import com.example.library_management.model.Issue;
+import com.example.library_management.model.Log;
+import com.example.library_management.model.Student;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/*
+ * FileLibraryRepository
+ * ---------------------
+ * Profile "file": the in-memory repository plus a local append-only file,
+ * so data survives a restart without any cloud account.
+ *
+ * File format: one JSON operation per line (NDJSON)
+ *   {"op":"PUT_BOOK","id":"CSE001","data":{...}}
+ *   {"op":"DELETE_STUDENT","id":"S1"}
+ *   {"op":"DELETE_LOG","id":"1760774400000-1a2b3c4d"}   (archived, see LogArchiver)
+ *
+ * Startup:
+ *  1. Replay every line through the write methods (rebuilds counters;
+ *     issues and logs come back as stored via restoreIssue / restoreLog)
+ *  2. Compact: rewrite the file with only the current state
+ *  3. Keep appending from there
+ *
+ * A torn last line (crash mid-write) is skipped during replay.
+ */
+@Repository
+@Profile("file")
+public class FileLibraryRepository extends InMemoryLibraryRepository {
+
+    private final Path path;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private BufferedWriter writer;
+    private boolean replaying;
+
+    public FileLibraryRepository(@Value("${library.store.file.path:data/library-store.ndjson}") String path) {
+        this.path = Paths.get(path);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        synchronized (writeLock()) {
+            if (path.getParent() != null)
+                Files.createDirectories(path.getParent());
+
+            int ops = replay();
+            compact();
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            System.out.println("📂 File store loaded " + ops + " operations from " + path.toAbsolutePath());
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        synchronized (writeLock()) {
+            if (writer != null)
+                writer.close();
+        }
+    }
+
+    // ================= WRITE =================
+    @Override
+    protected void persist(String op, String id, Object value) throws IOException {
+        if (replaying)
+            return;
+        write(writer, op, id, value);
+        writer.flush();
+    }
+
+    // Replaying the file at startup is not a store round trip
+    @Override
+    protected void roundTrip() {
+        if (!replaying)
+            super.roundTrip();
+    }
+
+    private void write(BufferedWriter out, String op, String id, Object value) throws IOException {
+        ObjectNode line = mapper.createObjectNode();
+        line.put("op", op);
+        if (id != null)
+            line.put("id", id);
+        if (value != null)
+            line.set("data", mapper.valueToTree(value));
+        out.write(mapper.writeValueAsString(line));
+        out.newLine();
+    }
+
+    // ================= STARTUP =================
+    private int replay() throws IOException {
+        if (!Files.exists(path))
+            return 0;
+
+        int ops = 0;
+        replaying = true;
+        try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank())
+                    continue;
+                try {
+                    apply(mapper.readTree(line));
+                    ops++;
+                } catch (Exception e) {
+                    System.err.println("⚠️  Skipping unreadable store line: " + e.getMessage());
+                }
+            }
+        } finally {
+            replaying = false;
+        }
+        return ops;
+    }
+
+    private void apply(JsonNode line) throws Exception {
+        String op = line.path("op").asText();
+        String id = line.path("id").asText(null);
+        JsonNode data = line.get("data");
+
+        switch (op) {
+            case "PUT_BOOK" -> saveBook(mapper.treeToValue(data, Book.class));
+            case "DELETE_BOOK" -> deleteBook(id);
+            case "PUT_STUDENT" -> saveStudent(mapper.treeToValue(data, Student.class));
+            case "DELETE_STUDENT" -> deleteStudent(id);
+            case "PUT_ISSUE" -> restoreIssue(mapper.treeToValue(data, Issue.class));
+            case "LOG" -> restoreLog(mapper.treeToValue(data, Log.class));
+            case "DELETE_LOG" -> deleteLogs(List.of(id));
+            default -> throw new IllegalArgumentException("Unknown op: " + op);
+        }
+    }
+
+    // Writes current state to a temp file and swaps it in atomically
+    private void compact() throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Book book : allBooks())
+                write(out, "PUT_BOOK", book.getId(), book);
+            for (Student student : allStudents())
+                write(out, "PUT_STUDENT", student.getId(), student);
+            for (Issue issue : allIssues())
+                write(out, "PUT_ISSUE", issue.getId(), issue);
+            for (Log log : allLogs())
+                write(out, "LOG", null, log);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
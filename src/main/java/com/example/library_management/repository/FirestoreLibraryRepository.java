@@ -0,0 +1,907 @@
+package com.example.library_management.repository;
+
+import com.example.library_management.model.Availability;
+import com.example.library_management.model.Book;
+import com.example.library_management.model.Issue;
+import com.example.library_management.model.Log;
+import com.example.library_management.model.Page;
+import com.example.library_management.model.Student;
+import com.google.cloud.firestore.*;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.cloud.FirestoreClient;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/*
+ * FirestoreLibraryRepository
+ * --------------------------
+ * Default backend: Cloud Firestore.
+ *
+ * Collections: books, students, issues, logs
+ *              books/{id}/copies, books/{id}/loanShards (copy-level loans)
+ * Counters:    stats/dashboard/shards/{0..15}, written in the SAME transaction
+ *              as the data; read as their sum (+ stats/dashboard, the base)
+ * Indexes:     firestore.indexes.json
+ *
+ * When the FirestoreReplica is live, reads are answered from it.
+ *
+ * Hot paths are implemented async-first (ApiFuture -> CompletableFuture,
+ * see Futures); the blocking methods just await the async ones.
+ */
+@Repository
+@Profile("!memory & !file")
+public class FirestoreLibraryRepository implements LibraryRepository {
+
+    private static final String COL_BOOKS = "books";
+    private static final String COL_STUDENTS = "students";
+    private static final String COL_ISSUES = "issues";
+    private static final String COL_LOGS = "logs";
+    private static final String COL_STATS = "stats";
+    private static final String DOC_DASHBOARD = "dashboard";
+    private static final String SUB_COPIES = "copies";
+    private static final String SUB_LOAN_SHARDS = "loanShards";
+    private static final String SUB_COUNTER_SHARDS = "shards";
+
+    // Copies out of one title are counted over this many documents
+    private static final int LOAN_SHARDS = 4;
+
+    // Dashboard counters are spread over this many documents (see applyCounters)
+    private static final int COUNTER_SHARDS = 16;
+
+    // Firestore rejects batches with more writes than this
+    private static final int MAX_BATCH_WRITES = 500;
+
+    private final FirestoreReplica replica;
+
+    public FirestoreLibraryRepository(FirestoreReplica replica) {
+        this.replica = replica;
+    }
+
+    private Firestore db() {
+        return FirestoreClient.getFirestore();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        try {
+            return !FirebaseApp.getApps().isEmpty();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean servesFromMemory() {
+        return replica.isReady();
+    }
+
+    // ================= BOOKS =================
+    @Override
+    public Book findBook(String id) throws Exception {
+        return Futures.await(findBookAsync(id));
+    }
+
+    @Override
+    public CompletableFuture<Book> findBookAsync(String id) {
+        if (replica.isReady())
+            return CompletableFuture.completedFuture(replica.getBook(id));
+        return getDocument(COL_BOOKS, id, FirestoreLibraryRepository::toBook);
+    }
+
+    @Override
+    public void saveBook(Book book) throws Exception {
+        Firestore db = db();
+        DocumentReference ref = db.collection(COL_BOOKS).document(book.getId());
+
+        // Only a NEW document moves the counter (re-adding an id overwrites it)
+        db.runTransaction(tx -> {
+            boolean created = !tx.get(ref).get().exists();
+            tx.set(ref, book);
+            if (created)
+                applyCounters(tx, db, new LibraryCounters.Delta().add(LibraryCounters.BOOKS, 1));
+            return null;
+        }).get();
+        replica.bookWritten(book);
+    }
+
+    @Override
+    public boolean deleteBook(String id) throws Exception {
+        boolean deleted = deleteCounted(COL_BOOKS, id, LibraryCounters.BOOKS);
+        replica.bookDeleted(id);
+        return deleted;
+    }
+
+    @Override
+    public Page<Book> findBooks(int limit, String pageToken) throws Exception {
+        return Futures.await(findBooksAsync(limit, pageToken));
+    }
+
+    @Override
+    public CompletableFuture<Page<Book>> findBooksAsync(int limit, String pageToken) {
+        if (replica.isReady())
+            return CompletableFuture.completedFuture(replica.booksPage(limit, pageToken));
+        return fetchPageAsync(db().collection(COL_BOOKS), limit, pageToken, FirestoreLibraryRepository::toBook);
+    }
+
+    @Override
+    public int saveBooks(List<Book> batch) throws Exception {
+        int created = saveAllCounted(COL_BOOKS, batch, Book::getId, LibraryCounters.BOOKS);
+        batch.forEach(replica::bookWritten);
+        return created;
+    }
+
+    // ================= STUDENTS =================
+    @Override
+    public Student findStudent(String id) throws Exception {
+        return Futures.await(findStudentAsync(id));
+    }
+
+    @Override
+    public CompletableFuture<Student> findStudentAsync(String id) {
+        if (replica.isReady())
+            return CompletableFuture.completedFuture(replica.getStudent(id));
+        return getDocument(COL_STUDENTS, id, FirestoreLibraryRepository::toStudent);
+    }
+
+    @Override
+    public void saveStudent(Student student) throws Exception {
+        Firestore db = db();
+        DocumentReference ref = db.collection(COL_STUDENTS).document(student.getId());
+
+        db.runTransaction(tx -> {
+            boolean created = !tx.get(ref).get().exists();
+            tx.set(ref, student);
+            if (created)
+                applyCounters(tx, db, new LibraryCounters.Delta().add(LibraryCounters.MEMBERS, 1));
+            return null;
+        }).get();
+        replica.studentWritten(student);
+    }
+
+    @Override
+    public boolean deleteStudent(String id) throws Exception {
+        boolean deleted = deleteCounted(COL_STUDENTS, id, LibraryCounters.MEMBERS);
+        replica.studentDeleted(id);
+        return deleted;
+    }
+
+    @Override
+    public Page<Student> findStudents(int limit, String pageToken) throws Exception {
+        return Futures.await(findStudentsAsync(limit, pageToken));
+    }
+
+    @Override
+    public CompletableFuture<Page<Student>> findStudentsAsync(int limit, String pageToken) {
+        if (replica.isReady())
+            return CompletableFuture.completedFuture(replica.studentsPage(limit, pageToken));
+        return fetchPageAsync(db().collection(COL_STUDENTS), limit, pageToken, FirestoreLibraryRepository::toStudent);
+    }
+
+    @Override
+    public int saveStudents(List<Student> batch) throws Exception {
+        int created = saveAllCounted(COL_STUDENTS, batch, Student::getId, LibraryCounters.MEMBERS);
+        batch.forEach(replica::studentWritten);
+        return created;
+    }
+
+    /*
+     * Bulk upsert in chunks of MAX_BATCH_WRITES - 1 documents, one
+     * transaction each: getAll() tells which ids are new, then the
+     * documents plus ONE counter increment are committed together
+     * (= at most 500 writes per commit).
+     */
+    private <T> int saveAllCounted(String collection, List<T> items, Function<T, String> idOf,
+            String counter) throws Exception {
+        Firestore db = db();
+        int chunkSize = MAX_BATCH_WRITES - 1;
+        int created = 0;
+
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            List<T> chunk = items.subList(from, Math.min(from + chunkSize, items.size()));
+            DocumentReference[] refs = new DocumentReference[chunk.size()];
+            for (int i = 0; i < refs.length; i++)
+                refs[i] = db.collection(collection).document(idOf.apply(chunk.get(i)));
+
+            created += db.runTransaction(tx -> {
+                List<DocumentSnapshot> existing = tx.getAll(refs).get();
+                int fresh = 0;
+                for (int i = 0; i < refs.length; i++) {
+                    if (!existing.get(i).exists())
+                        fresh++;
+                    tx.set(refs[i], chunk.get(i));
+                }
+                if (fresh > 0)
+                    applyCounters(tx, db, new LibraryCounters.Delta().add(counter, fresh));
+                return fresh;
+            }).get();
+        }
+        return created;
+    }
+
+    // ================= ISSUES =================
+    @Override
+    public Issue findIssue(String id) throws Exception {
+        return Futures.await(findIssueAsync(id));
+    }
+
+    @Override
+    public CompletableFuture<Issue> findIssueAsync(String id) {
+        if (replica.isReady())
+            return CompletableFuture.completedFuture(replica.getIssue(id));
+        return getDocument(COL_ISSUES, id, FirestoreLibraryRepository::toIssue);
+    }
+
+    /*
+     * Copy-level loans without a shared hot document per title:
+     *   books/{bookId}                    catalog record, never written by a loan
+     *   books/{bookId}/copies/{n}         {issueId} of the loan holding copy n (null once returned)
+     *   books/{bookId}/loanShards/{0..3}  {out}: copies out; copy n counts in shard n % 4
+     *
+     * One checkout = one transaction:
+     *   getAll(book, student, issue, single-copy loan)
+     *   + query copies where issueId != null   (only the copies out)
+     *     -> first free copy number from a random start, confirmed by reading its doc
+     *     -> issue + copy + shard increment + counters
+     * Copies never loaned have no doc yet, so "free" is "not in the copies-out
+     * query" rather than a query for free docs. The point read of the chosen
+     * copy locks it even if a concurrent checkout took it after the query;
+     * then the next number is tried, still inside the same transaction. The
+     * random start keeps concurrent checkouts of one title on different copies;
+     * the shard counter is a blind increment (no read, no conflict).
+     */
+    @Override
+    public void issueBook(Issue issue) throws Exception {
+        Futures.await(issueBookAsync(issue));
+    }
+
+    @Override
+    public CompletableFuture<Void> issueBookAsync(Issue issue) {
+        Firestore db = db();
+        DocumentReference bookRef = db.collection(COL_BOOKS).document(issue.getBookId());
+        DocumentReference studentRef = db.collection(COL_STUDENTS).document(issue.getStudentId());
+        DocumentReference issueRef = db.collection(COL_ISSUES).document(issue.getId());
+        DocumentReference singleCopyRef = db.collection(COL_ISSUES).document(issue.getBookId());
+        Query copiesOut = bookRef.collection(SUB_COPIES).whereNotEqualTo("issueId", null);
+
+        return Futures.toCompletable(db.runTransaction(tx -> {
+            List<DocumentSnapshot> docs = tx.getAll(bookRef, studentRef, issueRef, singleCopyRef).get();
+            DocumentSnapshot bookDoc = docs.get(0);
+            DocumentSnapshot studentDoc = docs.get(1);
+
+            if (!bookDoc.exists() || !studentDoc.exists())
+                return "Invalid Book ID or Student ID";
+            if (docs.get(2).exists())
+                return "Issue " + issue.getId() + " already exists";
+
+            Book book = toBook(bookDoc);
+            Issue singleCopyLoan = docs.get(3).exists() ? toIssue(docs.get(3)) : null;
+            int copies = Availability.of(book, 0, singleCopyLoan).numberedCopies();
+
+            Set<Integer> taken = new HashSet<>();
+            for (DocumentSnapshot copy : tx.get(copiesOut).get().getDocuments())
+                taken.add(Integer.parseInt(copy.getId()));
+
+            int start = copies > 0 ? ThreadLocalRandom.current().nextInt(copies) : 0;
+            DocumentReference copyRef = null;
+            int n = 0;
+            for (int attempt = 0; attempt < copies && copyRef == null; attempt++) {
+                n = (start + attempt) % copies + 1;
+                if (taken.contains(n))
+                    continue;
+                DocumentReference candidate = bookRef.collection(SUB_COPIES).document(String.valueOf(n));
+                if (tx.get(candidate).get().getString("issueId") == null)
+                    copyRef = candidate;
+            }
+            if (copyRef == null)
+                return "No copies available";
+
+            issue.setCopyId(issue.getBookId() + "#" + n);
+            issue.setBookTitle(book.getTitle());
+            issue.setStudentName(studentDoc.getString("name"));
+
+            tx.set(issueRef, issue);
+            tx.set(copyRef, Map.of("issueId", issue.getId()));
+            tx.set(loanShardRef(bookRef, n), Map.of("out", FieldValue.increment(1)), SetOptions.merge());
+            applyCounters(tx, db, new LibraryCounters.Delta().issue(issue, 1));
+            return null;
+        })).thenApply(refused -> {
+            if (refused != null)
+                throw new IllegalStateException(refused);
+
+            replica.issueWritten(issue.getId(), issue);
+            return null;
+        });
+    }
+
+    @Override
+    public Availability findAvailability(String bookId) throws Exception {
+        return Futures.await(findAvailabilityAsync(bookId));
+    }
+
+    /*
+     * The book, its (at most LOAN_SHARDS) counter documents and its
+     * single-copy loan (issues/{bookId}, from before copies existed),
+     * read in parallel
+     */
+    @Override
+    public CompletableFuture<Availability> findAvailabilityAsync(String bookId) {
+        DocumentReference bookRef = db().collection(COL_BOOKS).document(bookId);
+        CompletableFuture<Book> book = findBookAsync(bookId);
+        CompletableFuture<QuerySnapshot> shards = Futures.toCompletable(bookRef.collection(SUB_LOAN_SHARDS).get());
+        CompletableFuture<Issue> singleCopyLoan = findIssueAsync(bookId);
+
+        return CompletableFuture.allOf(book, shards, singleCopyLoan).thenApply(done -> {
+            Book b = book.join();
+            if (b == null)
+                return null;
+            long out = 0;
+            for (DocumentSnapshot shard : shards.join().getDocuments()) {
+                Long value = shard.getLong("out");
+                if (value != null)
+                    out += value;
+            }
+            return Availability.of(b, out, singleCopyLoan.join());
+        });
+    }
+
+    private static DocumentReference loanShardRef(DocumentReference bookRef, int copyNumber) {
+        return bookRef.collection(SUB_LOAN_SHARDS).document(String.valueOf(copyNumber % LOAN_SHARDS));
+    }
+
+    // "CSE001#3" -> 3
+    private static int copyNumber(String copyId) {
+        return Integer.parseInt(copyId.substring(copyId.lastIndexOf('#') + 1));
+    }
+
+    @Override
+    public Issue returnBook(String issueId, String returnDate) throws Exception {
+        return Futures.await(returnBookAsync(issueId, returnDate));
+    }
+
+    @Override
+    public CompletableFuture<Issue> returnBookAsync(String issueId, String returnDate) {
+        Firestore db = db();
+        DocumentReference issueRef = db.collection(COL_ISSUES).document(issueId);
+
+        Issue[] returned = new Issue[1];
+        Book[] updated = new Book[1];
+        return Futures.toCompletable(db.runTransaction(tx -> {
+            returned[0] = null;
+            updated[0] = null;
+
+            DocumentSnapshot snap = tx.get(issueRef).get();
+            if (!snap.exists())
+                return null;
+
+            Issue current = toIssue(snap);
+            if (current.getReturnDate() != null)
+                return "Book already returned";
+
+            // Copy loans free their copy; older loans give back book.quantity
+            // only if issuing them took one (stockTaken)
+            DocumentReference bookRef = db.collection(COL_BOOKS).document(current.getBookId());
+            String copyId = current.getCopyId();
+            DocumentReference copyRef = copyId == null
+                    ? null
+                    : bookRef.collection(SUB_COPIES).document(String.valueOf(copyNumber(copyId)));
+            DocumentSnapshot copyDoc = copyRef == null ? null : tx.get(copyRef).get();
+            DocumentSnapshot bookDoc = copyRef == null ? tx.get(bookRef).get() : null;
+
+            LibraryCounters.Delta delta = new LibraryCounters.Delta().issue(current, -1);
+            current.setReturnDate(returnDate);
+            delta.issue(current, 1);
+            tx.set(issueRef, current);
+            applyCounters(tx, db, delta);
+
+            if (copyDoc != null) {
+                if (issueId.equals(copyDoc.getString("issueId"))) {
+                    Map<String, Object> free = new HashMap<>();
+                    free.put("issueId", null);
+                    tx.set(copyRef, free);
+                    tx.set(loanShardRef(bookRef, copyNumber(copyId)),
+                            Map.of("out", FieldValue.increment(-1)), SetOptions.merge());
+                }
+            } else if (bookDoc.exists()) {
+                // The book may have been deleted while it was out
+                Book book = toBook(bookDoc);
+                if (current.isStockTaken())
+                    book.setQuantity(book.getQuantity() + 1);
+                book.setIssued(false);
+                book.setIssuedTo(null);
+
+                Map<String, Object> fields = new HashMap<>();
+                fields.put("quantity", book.getQuantity());
+                fields.put("issued", false);
+                fields.put("issuedTo", null);
+                tx.update(bookRef, fields);
+                updated[0] = book;
+            }
+            returned[0] = current;
+            return null;
+        })).thenApply(refused -> {
+            if (refused != null)
+                throw new IllegalStateException(refused);
+            if (returned[0] == null)
+                return null;
+
+            replica.issueWritten(issueId, returned[0]);
+            if (updated[0] != null)
+                replica.bookWritten(updated[0]);
+            return returned[0];
+        });
+    }
+
+    @Override
+    public boolean markReminderSent(String issueId, boolean sent) throws Exception {
+        DocumentReference issueRef = db().collection(COL_ISSUES).document(issueId);
+
+        Issue[] marked = new Issue[1];
+        db().runTransaction(tx -> {
+            marked[0] = null;
+            DocumentSnapshot snap = tx.get(issueRef).get();
+            if (!snap.exists())
+                return null;
+
+            Issue current = toIssue(snap);
+            if (current.getReturnDate() != null || current.isReminderSent() == sent)
+                return null;
+
+            current.setReminderSent(sent);
+            tx.update(issueRef, "reminderSent", sent);
+            marked[0] = current;
+            return null;
+        }).get();
+
+        if (marked[0] == null)
+            return false;
+        replica.issueWritten(issueId, marked[0]);
+        return true;
+    }
+
+    /*
+     * status: open | returned | overdue (optional)
+     * sort:   dueDate | issueDate (optional, see issueQuery)
+     * Filtering happens in Firestore, so cost follows the result size.
+     */
+    @Override
+    public Page<Issue> findIssues(String status, String sort, int limit, String pageToken) throws Exception {
+        return Futures.await(findIssuesAsync(status, sort, limit, pageToken));
+    }
+
+    @Override
+    public CompletableFuture<Page<Issue>> findIssuesAsync(String status, String sort, int limit, String pageToken) {
+        if (replica.isReady())
+            return Futures.now(() -> replica.issuesPage(status, sort, limit, pageToken));
+
+        CollectionReference issues = db().collection(COL_ISSUES);
+        Query query;
+        try {
+            query = issueQuery(issues, status, sort);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (query == null)
+            return fetchPageAsync(issues, limit, pageToken, FirestoreLibraryRepository::toIssue);
+        return fetchQueryPageAsync(query, issues, limit, pageToken, FirestoreLibraryRepository::toIssue);
+    }
+
+    // All loans of one student, newest first (index: studentId + issueDate)
+    @Override
+    public Page<Issue> findIssuesByStudent(String studentId, int limit, String pageToken) throws Exception {
+        if (replica.isReady())
+            return replica.studentIssuesPage(studentId, limit, pageToken);
+
+        CollectionReference issues = db().collection(COL_ISSUES);
+        Query query = issues
+                .whereEqualTo("studentId", studentId)
+                .orderBy("issueDate", Query.Direction.DESCENDING);
+        return fetchQueryPage(query, issues, limit, pageToken, FirestoreLibraryRepository::toIssue);
+    }
+
+    /*
+     * Builds the Firestore query for a status filter.
+     * Each combination is backed by an index in firestore.indexes.json.
+     * Returns null when no filter / sort is asked for (plain id order).
+     */
+    private Query issueQuery(CollectionReference issues, String status, String sort) {
+        String st = status == null ? "" : status.trim().toLowerCase();
+
+        switch (st) {
+            case "":
+                if (sort == null || sort.isEmpty())
+                    return null;
+                return orderIssues(issues, sort);
+
+            case "open":
+                return orderIssues(issues.whereEqualTo("returnDate", null),
+                        sort == null || sort.isEmpty() ? "dueDate" : sort);
+
+            case "overdue":
+                // Range filter on dueDate => results must be ordered by dueDate
+                if (sort != null && !sort.isEmpty() && !sort.equals("dueDate"))
+                    throw new IllegalArgumentException("Overdue issues can only be sorted by dueDate");
+                return issues
+                        .whereEqualTo("returnDate", null)
+                        .whereLessThan("dueDate", LocalDate.now().toString())
+                        .orderBy("dueDate");
+
+            case "returned":
+                // Range filter on returnDate => newest returns first
+                if (sort != null && !sort.isEmpty() && !sort.equals("returnDate"))
+                    throw new IllegalArgumentException("Returned issues can only be sorted by returnDate");
+                return issues
+                        .whereGreaterThan("returnDate", "")
+                        .orderBy("returnDate", Query.Direction.DESCENDING);
+
+            default:
+                throw new IllegalArgumentException("Unknown status: " + status);
+        }
+    }
+
+    private Query orderIssues(Query query, String sort) {
+        switch (sort) {
+            case "dueDate":
+                return query.orderBy("dueDate");
+            case "issueDate":
+                return query.orderBy("issueDate", Query.Direction.DESCENDING);
+            default:
+                throw new IllegalArgumentException("Unknown sort: " + sort);
+        }
+    }
+
+    // ================= COUNTERS =================
+    @Override
+    public LibraryCounters loadCounters() throws Exception {
+        return Futures.await(loadCountersAsync());
+    }
+
+    // The base document and its (at most COUNTER_SHARDS) shards, read in parallel
+    @Override
+    public CompletableFuture<LibraryCounters> loadCountersAsync() {
+        Firestore db = db();
+        CompletableFuture<DocumentSnapshot> base = Futures.toCompletable(statsRef(db).get());
+        CompletableFuture<QuerySnapshot> shards = Futures.toCompletable(
+                statsRef(db).collection(SUB_COUNTER_SHARDS).get());
+
+        return base.thenCombine(shards, (stats, counted) -> {
+            LibraryCounters counters = new LibraryCounters();
+            addCounters(counters, stats);
+            for (DocumentSnapshot shard : counted.getDocuments())
+                addCounters(counters, shard);
+            // A due date's loans may be issued in one shard and returned in another
+            counters.getOpenDue().values().removeIf(count -> count <= 0);
+            return counters;
+        });
+    }
+
+    private void addCounters(LibraryCounters counters, DocumentSnapshot stats) {
+        if (!stats.exists())
+            return;
+
+        counters.setBooks(counters.getBooks() + counter(stats, LibraryCounters.BOOKS));
+        counters.setMembers(counters.getMembers() + counter(stats, LibraryCounters.MEMBERS));
+        counters.setBorrowed(counters.getBorrowed() + counter(stats, LibraryCounters.BORROWED));
+        counters.setReturned(counters.getReturned() + counter(stats, LibraryCounters.RETURNED));
+
+        if (stats.get(LibraryCounters.OPEN_DUE) instanceof Map<?, ?> openDue) {
+            for (Map.Entry<?, ?> e : openDue.entrySet()) {
+                long count = e.getValue() instanceof Number n ? n.longValue() : 0;
+                counters.getOpenDue().merge(e.getKey().toString(), count, Long::sum);
+            }
+        }
+    }
+
+    /*
+     * One-off full recount. Uses count() aggregations and only reads the
+     * dueDate of open issues. The totals go into the base document and the
+     * shards are cleared. Run it while nobody is issuing books.
+     */
+    @Override
+    public LibraryCounters rebuildCounters() throws Exception {
+        Firestore db = db();
+
+        LibraryCounters counters = new LibraryCounters();
+        counters.setBooks(db.collection(COL_BOOKS).count().get().get().getCount());
+        counters.setMembers(db.collection(COL_STUDENTS).count().get().get().getCount());
+        long totalIssues = db.collection(COL_ISSUES).count().get().get().getCount();
+
+        long borrowed = 0;
+        for (QueryDocumentSnapshot doc : db.collection(COL_ISSUES)
+                .whereEqualTo("returnDate", null)
+                .select("dueDate")
+                .get()
+                .get()
+                .getDocuments()) {
+            borrowed++;
+            String due = doc.getString("dueDate");
+            if (due != null && !due.isEmpty())
+                counters.getOpenDue().merge(due, 1L, Long::sum);
+        }
+        counters.setBorrowed(borrowed);
+        counters.setReturned(totalIssues - borrowed);
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put(LibraryCounters.BOOKS, counters.getBooks());
+        stats.put(LibraryCounters.MEMBERS, counters.getMembers());
+        stats.put(LibraryCounters.BORROWED, counters.getBorrowed());
+        stats.put(LibraryCounters.RETURNED, counters.getReturned());
+        stats.put(LibraryCounters.OPEN_DUE, counters.getOpenDue());
+
+        WriteBatch batch = db.batch();
+        batch.set(statsRef(db), stats);
+        for (int shard = 0; shard < COUNTER_SHARDS; shard++)
+            batch.delete(counterShardRef(db, shard));
+        batch.commit().get();
+        return counters;
+    }
+
+    private DocumentReference statsRef(Firestore db) {
+        return db.collection(COL_STATS).document(DOC_DASHBOARD);
+    }
+
+    private DocumentReference counterShardRef(Firestore db, int shard) {
+        return statsRef(db).collection(SUB_COUNTER_SHARDS).document(String.valueOf(shard));
+    }
+
+    // Deletes a document and decrements its counter, only if it really existed
+    private boolean deleteCounted(String collection, String id, String counter) throws Exception {
+        Firestore db = db();
+        DocumentReference ref = db.collection(collection).document(id);
+
+        return db.runTransaction(tx -> {
+            if (!tx.get(ref).get().exists())
+                return false;
+            tx.delete(ref);
+            applyCounters(tx, db, new LibraryCounters.Delta().add(counter, -1));
+            return true;
+        }).get();
+    }
+
+    /*
+     * Writes the counter changes inside the same transaction as the data,
+     * so totals can never drift from the documents they describe.
+     * Each transaction picks a random shard and only increments it (no
+     * read), so concurrent loans of different titles do not queue on one
+     * counter document.
+     */
+    private void applyCounters(Transaction tx, Firestore db, LibraryCounters.Delta delta) {
+        Map<String, Object> update = new HashMap<>();
+        Map<String, Object> openDue = new HashMap<>();
+
+        delta.getTotals().forEach((field, by) -> {
+            if (by != 0)
+                update.put(field, FieldValue.increment(by));
+        });
+        delta.getOpenDue().forEach((due, by) -> {
+            if (by != 0)
+                openDue.put(due, FieldValue.increment(by));
+        });
+        if (!openDue.isEmpty())
+            update.put(LibraryCounters.OPEN_DUE, openDue);
+
+        if (!update.isEmpty())
+            tx.set(counterShardRef(db, ThreadLocalRandom.current().nextInt(COUNTER_SHARDS)),
+                    update, SetOptions.merge());
+    }
+
+    private long counter(DocumentSnapshot stats, String field) {
+        Long value = stats.getLong(field);
+        return value == null ? 0 : value;
+    }
+
+    // ================= LOGS =================
+    /*
+     * One WriteBatch per 500 logs (Firestore's limit per batch):
+     * a burst of N actions costs N/500 commits instead of N.
+     */
+    @Override
+    public void saveLogs(List<Log> logs) throws Exception {
+        Firestore db = db();
+        CollectionReference collection = db.collection(COL_LOGS);
+
+        for (int from = 0; from < logs.size(); from += MAX_BATCH_WRITES) {
+            WriteBatch batch = db.batch();
+            for (Log log : logs.subList(from, Math.min(from + MAX_BATCH_WRITES, logs.size()))) {
+                batch.set(collection.document(LogIds.stamp(log).getId()), log);
+            }
+            batch.commit().get();
+        }
+    }
+
+    // Id order: chronological for time-ordered ids, older random ids mixed in
+    @Override
+    public Page<Log> findLogs(int limit, String pageToken) throws Exception {
+        return fetchPage(db().collection(COL_LOGS), limit, pageToken, FirestoreLibraryRepository::toLog);
+    }
+
+    /*
+     * Range scan on the (actionType, epochMillis) index, newest first
+     * (see firestore.indexes.json). Firestore only reads the index entries
+     * inside [from, to), so the last hour of a multi-year log costs the
+     * documents of that hour. Logs without epochMillis are not in the index
+     * until migrateLogTimestamps() has run.
+     */
+    @Override
+    public Page<Log> findLogs(Long fromMillis, Long toMillis, String actionType, int limit, String cursor) throws Exception {
+        CollectionReference collection = db().collection(COL_LOGS);
+        Query query = collection;
+        if (actionType != null)
+            query = query.whereEqualTo("actionType", actionType);
+        if (fromMillis != null)
+            query = query.whereGreaterThanOrEqualTo("epochMillis", fromMillis);
+        if (toMillis != null)
+            query = query.whereLessThan("epochMillis", toMillis);
+        query = query.orderBy("epochMillis", Query.Direction.DESCENDING);
+        return fetchQueryPage(query, collection, limit, cursor, FirestoreLibraryRepository::toLog);
+    }
+
+    /*
+     * Walks the logs once by document id and sets epochMillis (parsed from
+     * the LocalDateTime timestamp) where it is missing, one WriteBatch per
+     * page. Safe to run again: migrated logs are skipped.
+     */
+    @Override
+    public long migrateLogTimestamps() throws Exception {
+        Firestore db = db();
+        CollectionReference collection = db.collection(COL_LOGS);
+        long updated = 0;
+        String token = null;
+        do {
+            Query query = collection.orderBy(FieldPath.documentId()).limit(MAX_BATCH_WRITES);
+            if (token != null)
+                query = query.startAfter(token);
+            List<QueryDocumentSnapshot> docs = query.get().get().getDocuments();
+
+            WriteBatch batch = db.batch();
+            int writes = 0;
+            for (QueryDocumentSnapshot doc : docs) {
+                if (doc.contains("epochMillis"))
+                    continue;
+                batch.update(doc.getReference(), "epochMillis", LogIds.epochMillisOf(doc.getString("timestamp")));
+                writes++;
+            }
+            if (writes > 0)
+                batch.commit().get();
+            updated += writes;
+
+            token = docs.size() == MAX_BATCH_WRITES ? docs.get(docs.size() - 1).getId() : null;
+        } while (token != null);
+        return updated;
+    }
+
+    /*
+     * One WriteBatch per 500 deletes. Firestore deletes are blind (deleting
+     * a missing document succeeds), so each chunk is read first with one
+     * getAll() and only the documents that exist are deleted and counted.
+     */
+    @Override
+    public int deleteLogs(List<String> ids) throws Exception {
+        Firestore db = db();
+        CollectionReference collection = db.collection(COL_LOGS);
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += MAX_BATCH_WRITES) {
+            List<DocumentReference> refs = new ArrayList<>();
+            for (String id : ids.subList(from, Math.min(from + MAX_BATCH_WRITES, ids.size())))
+                refs.add(collection.document(id));
+
+            WriteBatch batch = db.batch();
+            int existing = 0;
+            for (DocumentSnapshot doc : db.getAll(refs.toArray(new DocumentReference[0])).get()) {
+                if (doc.exists()) {
+                    batch.delete(doc.getReference());
+                    existing++;
+                }
+            }
+            if (existing > 0)
+                batch.commit().get();
+            deleted += existing;
+        }
+        return deleted;
+    }
+
+    // ================= PAGING =================
+    /*
+     * Cursor paging ordered by document id.
+     * We ask for one extra document: if it comes back there is a next page,
+     * and the token is simply the id of the last document we returned.
+     */
+    private <T> Page<T> fetchPage(CollectionReference collection, int size, String pageToken,
+            Function<DocumentSnapshot, T> mapper) throws Exception {
+        return Futures.await(fetchPageAsync(collection, size, pageToken, mapper));
+    }
+
+    private <T> CompletableFuture<Page<T>> fetchPageAsync(CollectionReference collection, int size,
+            String pageToken, Function<DocumentSnapshot, T> mapper) {
+        Query query = collection.orderBy(FieldPath.documentId()).limit(size + 1);
+        if (pageToken != null && !pageToken.isEmpty())
+            query = query.startAfter(pageToken);
+
+        return readPageAsync(query, size, mapper);
+    }
+
+    /*
+     * Cursor paging for a filtered / sorted query.
+     * The token is still the last document id; we load that one document
+     * and startAfter() its snapshot, so Firestore resumes at the exact
+     * position in the index (one extra read per page, not per skipped doc).
+     * A replica token ("<sortKey>/<id>", see IssueIndex) is read by its id:
+     * document ids never contain '/'.
+     */
+    private <T> Page<T> fetchQueryPage(Query ordered, CollectionReference collection, int size,
+            String pageToken, Function<DocumentSnapshot, T> mapper) throws Exception {
+        return Futures.await(fetchQueryPageAsync(ordered, collection, size, pageToken, mapper));
+    }
+
+    private <T> CompletableFuture<Page<T>> fetchQueryPageAsync(Query ordered, CollectionReference collection,
+            int size, String pageToken, Function<DocumentSnapshot, T> mapper) {
+        Query query = ordered.limit(size + 1);
+        if (pageToken == null || pageToken.isEmpty())
+            return readPageAsync(query, size, mapper);
+
+        String cursorId = pageToken.substring(pageToken.lastIndexOf('/') + 1);
+        return Futures.toCompletable(collection.document(cursorId).get()).thenCompose(cursor -> {
+            if (!cursor.exists())
+                throw new IllegalArgumentException("Invalid page token");
+            return readPageAsync(query.startAfter(cursor), size, mapper);
+        });
+    }
+
+    private <T> CompletableFuture<Page<T>> readPageAsync(Query query, int size, Function<DocumentSnapshot, T> mapper) {
+        return Futures.toCompletable(query.get()).thenApply(snapshot -> {
+            List<QueryDocumentSnapshot> docs = snapshot.getDocuments();
+            boolean hasMore = docs.size() > size;
+            if (hasMore)
+                docs = docs.subList(0, size);
+
+            List<T> items = new ArrayList<>(docs.size());
+            for (QueryDocumentSnapshot doc : docs) {
+                items.add(mapper.apply(doc));
+            }
+            String next = hasMore ? docs.get(docs.size() - 1).getId() : null;
+            return new Page<>(items, next);
+        });
+    }
+
+    // Point read; completes with null when the document does not exist
+    private <T> CompletableFuture<T> getDocument(String collection, String id, Function<DocumentSnapshot, T> mapper) {
+        return Futures.toCompletable(db().collection(collection).document(id).get())
+                .thenApply(doc -> doc.exists() ? mapper.apply(doc) : null);
+    }
+
+    // ================= MAPPERS =================
+    // Document id is the source of truth for "id"
+    static Book toBook(DocumentSnapshot doc) {
+        Book book = doc.toObject(Book.class);
+        book.setId(doc.getId());
+        return book;
+    }
+
+    static Student toStudent(DocumentSnapshot doc) {
+        Student student = doc.toObject(Student.class);
+        student.setId(doc.getId());
+        return student;
+    }
+
+    static Issue toIssue(DocumentSnapshot doc) {
+        Issue issue = doc.toObject(Issue.class);
+        issue.setId(doc.getId());
+        return issue;
+    }
+
+    static Log toLog(DocumentSnapshot doc) {
+        Log log = doc.toObject(Log.class);
+        log.setId(doc.getId());
+        return log;
+    }
+}
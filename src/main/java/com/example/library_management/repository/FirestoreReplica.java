@@ -0,0 +1,362 @@
+package com.example.library_management.repository;
+
+import com.example.library_management.model.Book;
+import com.example.library_management.model.Issue;
+import com.example.library_management.model.Page;
+import com.example.library_management.model.Student;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.cloud.FirestoreClient;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * FirestoreReplica
+ * ----------------
+ * Live in-memory copy of the books, students and issues collections.
+ *
+ * How it stays current:
+ *  - At startup one snapshot listener is registered per collection
+ *  - The first snapshot is the full collection (initial load)
+ *  - Every later snapshot only carries DocumentChanges (ADDED / MODIFIED / REMOVED)
+ *
+ * DSA Concepts:
+ *  - ConcurrentSkipListMap keyed by id = sorted map, so cursor paging is
+ *    tailMap(lastId) exactly like Firestore's document-id ordering
+ *  - IssueIndex: sorted issue views per status / sort and per student,
+ *    so a filtered page or a member's loans need no scan or sort
+ *
+ * Failure handling:
+ *  - A listener error marks the collection disconnected; reads fall back to
+ *    Firestore (isReady() == false) until a new listener has resynced
+ *  - Resync uses exponential backoff and REPLACES the collection contents,
+ *    so deletes missed while disconnected are not kept around
+ *
+ * Writes still go to Firestore. FirestoreLibraryRepository also applies its own writes
+ * here right after commit, so a page reloaded straight after an add sees it;
+ * the listener event that follows carries the same data. Both directions
+ * copy: the replica keeps its own objects and hands out copies, so a
+ * caller editing a Book it wrote or read cannot change what others see.
+ */
+@Component
+public class FirestoreReplica {
+
+    private static final String COL_BOOKS = "books";
+    private static final String COL_STUDENTS = "students";
+    private static final String COL_ISSUES = "issues";
+
+    private static final long MAX_RESYNC_DELAY_MILLIS = 60_000;
+
+    private final boolean enabled;
+    private final long resyncDelayMillis;
+
+    private final ConcurrentSkipListMap<String, Book> books = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Student> students = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Issue> issues = new ConcurrentSkipListMap<>();
+    private final IssueIndex issueIndex = new IssueIndex();
+
+    private final Map<String, Feed> feeds = new LinkedHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "replica-resync");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // State of one collection listener
+    private static final class Feed {
+        final String collection;
+        volatile ListenerRegistration registration;
+        volatile boolean connected;
+        volatile boolean synced;
+        volatile boolean firstSnapshot;
+        volatile long lastSnapshotAt;
+        volatile long lastReadTime;
+        volatile int failures;
+        final AtomicLong changes = new AtomicLong();
+        final AtomicLong disconnects = new AtomicLong();
+        final AtomicLong resyncs = new AtomicLong();
+
+        Feed(String collection) {
+            this.collection = collection;
+        }
+    }
+
+    public FirestoreReplica(
+            @Value("${library.replica.enabled:false}") boolean enabled,
+            @Value("${library.replica.resync-delay-seconds:2}") long resyncDelaySeconds) {
+        this.enabled = enabled;
+        this.resyncDelayMillis = resyncDelaySeconds * 1000;
+
+        feeds.put(COL_BOOKS, new Feed(COL_BOOKS));
+        feeds.put(COL_STUDENTS, new Feed(COL_STUDENTS));
+        feeds.put(COL_ISSUES, new Feed(COL_ISSUES));
+    }
+
+    // ================= LIFECYCLE =================
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled)
+            return;
+        if (FirebaseApp.getApps().isEmpty()) {
+            System.out.println("⚠️  Replica enabled but Firebase not available - replica disabled");
+            return;
+        }
+        feeds.values().forEach(this::listen);
+        System.out.println("🔁 Firestore replica listening on " + feeds.keySet());
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        for (Feed feed : feeds.values()) {
+            if (feed.registration != null)
+                feed.registration.remove();
+        }
+    }
+
+    private void listen(Feed feed) {
+        feed.firstSnapshot = true;
+        feed.registration = FirestoreClient.getFirestore()
+                .collection(feed.collection)
+                .addSnapshotListener((snapshot, error) -> {
+                    if (error != null) {
+                        onError(feed, error.getMessage());
+                        return;
+                    }
+                    if (snapshot != null)
+                        onSnapshot(feed, snapshot);
+                });
+    }
+
+    private void onError(Feed feed, String message) {
+        System.err.println("Replica listener for " + feed.collection + " failed: " + message);
+        feed.connected = false;
+        feed.disconnects.incrementAndGet();
+        if (feed.registration != null)
+            feed.registration.remove();
+
+        // Exponential backoff: 2s, 4s, 8s ... capped at 60s
+        int attempt = Math.min(feed.failures++, 10);
+        long delay = Math.min(resyncDelayMillis << attempt, MAX_RESYNC_DELAY_MILLIS);
+        scheduler.schedule(() -> {
+            feed.resyncs.incrementAndGet();
+            try {
+                listen(feed);
+            } catch (Exception e) {
+                onError(feed, e.getMessage());
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // Snapshots of one listener are delivered one at a time by the SDK
+    private void onSnapshot(Feed feed, QuerySnapshot snapshot) {
+        if (feed.firstSnapshot) {
+            // Full (re)load: replace everything, drop ids that no longer exist
+            Set<String> seen = new HashSet<>();
+            for (QueryDocumentSnapshot doc : snapshot.getDocuments()) {
+                put(feed.collection, doc);
+                seen.add(doc.getId());
+            }
+            for (String id : new ArrayList<>(map(feed.collection).keySet())) {
+                if (!seen.contains(id))
+                    remove(feed.collection, id);
+            }
+            feed.firstSnapshot = false;
+            feed.synced = true;
+        } else {
+            for (DocumentChange change : snapshot.getDocumentChanges()) {
+                if (change.getType() == DocumentChange.Type.REMOVED)
+                    remove(feed.collection, change.getDocument().getId());
+                else
+                    put(feed.collection, change.getDocument());
+            }
+        }
+
+        feed.changes.addAndGet(snapshot.getDocumentChanges().size());
+        feed.connected = true;
+        feed.failures = 0;
+        feed.lastSnapshotAt = System.currentTimeMillis();
+        feed.lastReadTime = toMillis(snapshot.getReadTime());
+    }
+
+    private NavigableMap<String, ?> map(String collection) {
+        switch (collection) {
+            case COL_BOOKS:
+                return books;
+            case COL_STUDENTS:
+                return students;
+            default:
+                return issues;
+        }
+    }
+
+    private void put(String collection, DocumentSnapshot doc) {
+        switch (collection) {
+            case COL_BOOKS: {
+                Book book = doc.toObject(Book.class);
+                book.setId(doc.getId());
+                books.put(doc.getId(), book);
+                break;
+            }
+            case COL_STUDENTS: {
+                Student student = doc.toObject(Student.class);
+                student.setId(doc.getId());
+                students.put(doc.getId(), student);
+                break;
+            }
+            default: {
+                Issue issue = doc.toObject(Issue.class);
+                issue.setId(doc.getId());
+                putIssue(issue);
+            }
+        }
+    }
+
+    private void remove(String collection, String id) {
+        if (COL_ISSUES.equals(collection)) {
+            // Request threads write here too (issueWritten): id map and index change together
+            synchronized (issueIndex) {
+                Issue old = issues.remove(id);
+                if (old != null)
+                    issueIndex.replace(old, null);
+            }
+        } else {
+            map(collection).remove(id);
+        }
+    }
+
+    private void putIssue(Issue issue) {
+        synchronized (issueIndex) {
+            issueIndex.replace(issues.put(issue.getId(), issue), issue);
+        }
+    }
+
+    // ================= LOCAL WRITES (read-your-writes) =================
+    public void bookWritten(Book book) {
+        if (enabled)
+            books.put(book.getId(), new Book(book));
+    }
+
+    public void bookDeleted(String id) {
+        if (enabled)
+            books.remove(id);
+    }
+
+    public void studentWritten(Student student) {
+        if (enabled)
+            students.put(student.getId(), new Student(student));
+    }
+
+    public void studentDeleted(String id) {
+        if (enabled)
+            students.remove(id);
+    }
+
+    public void issueWritten(String id, Issue issue) {
+        if (enabled) {
+            Issue copy = new Issue(issue);
+            copy.setId(id);
+            putIssue(copy);
+        }
+    }
+
+    // ================= READS =================
+    // True only when every collection is loaded AND its listener is connected
+    public boolean isReady() {
+        if (!enabled)
+            return false;
+        for (Feed feed : feeds.values()) {
+            if (!feed.connected || !feed.synced)
+                return false;
+        }
+        return true;
+    }
+
+    // Callers get copies: changing a returned object must not change the replica
+    public Book getBook(String id) {
+        Book book = books.get(id);
+        return book == null ? null : new Book(book);
+    }
+
+    public Student getStudent(String id) {
+        Student student = students.get(id);
+        return student == null ? null : new Student(student);
+    }
+
+    public Issue getIssue(String id) {
+        Issue issue = issues.get(id);
+        return issue == null ? null : new Issue(issue);
+    }
+
+    public Page<Book> booksPage(int size, String pageToken) {
+        return InMemoryQueries.copies(InMemoryQueries.idPage(books, size, pageToken), Book::new);
+    }
+
+    public Page<Student> studentsPage(int size, String pageToken) {
+        return InMemoryQueries.copies(InMemoryQueries.idPage(students, size, pageToken), Student::new);
+    }
+
+    // Same filters and orderings as the Firestore queries
+    public Page<Issue> issuesPage(String status, String sort, int size, String pageToken) {
+        return InMemoryQueries.copies(issueIndex.page(issues, status, sort, size, pageToken), Issue::new);
+    }
+
+    // Uses the per-student view: cost follows the page size only
+    public Page<Issue> studentIssuesPage(String studentId, int size, String pageToken) {
+        return InMemoryQueries.copies(issueIndex.studentPage(issues, studentId, size, pageToken), Issue::new);
+    }
+
+    // ================= STATUS =================
+    /*
+     * stalenessMillis: how long since this collection last heard from Firestore
+     *                  while disconnected (0 when the listener is live)
+     * lagMillis:       delay between Firestore's read time and us applying it
+     */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("ready", isReady());
+
+        long now = System.currentTimeMillis();
+        Map<String, Object> collections = new LinkedHashMap<>();
+        for (Feed feed : feeds.values()) {
+            Map<String, Object> f = new LinkedHashMap<>();
+            f.put("documents", map(feed.collection).size());
+            f.put("connected", feed.connected);
+            f.put("synced", feed.synced);
+            f.put("stalenessMillis", feed.connected ? 0 : (feed.lastSnapshotAt == 0 ? -1 : now - feed.lastSnapshotAt));
+            f.put("lagMillis", feed.lastReadTime == 0 ? -1 : Math.max(0, feed.lastSnapshotAt - feed.lastReadTime));
+            f.put("changesApplied", feed.changes.get());
+            f.put("disconnects", feed.disconnects.get());
+            f.put("resyncs", feed.resyncs.get());
+            collections.put(feed.collection, f);
+        }
+        status.put("collections", collections);
+        return status;
+    }
+
+    private static long toMillis(Timestamp ts) {
+        return ts == null ? 0 : ts.getSeconds() * 1000 + ts.getNanos() / 1_000_000;
+    }
+}
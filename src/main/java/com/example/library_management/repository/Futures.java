@@ -0,0 +1,75 @@
+package com.example.library_management.repository;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/*
+ * Futures
+ * -------
+ * Bridges Firestore's ApiFuture to CompletableFuture.
+ *
+ * toCompletable() registers a callback instead of calling get(), so no
+ * thread is parked while the RPC is in flight. The callback runs on the
+ * Firestore client thread that completed the RPC; keep follow-up stages
+ * (thenApply ...) cheap.
+ */
+public final class Futures {
+
+    private Futures() {
+    }
+
+    public static <T> CompletableFuture<T> toCompletable(ApiFuture<T> future) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        ApiFutures.addCallback(future, new ApiFutureCallback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                result.complete(value);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }, MoreExecutors.directExecutor());
+        return result;
+    }
+
+    // Runs a blocking call now and wraps the outcome (for backends that never wait on I/O)
+    public static <T> CompletableFuture<T> now(Callable<T> call) {
+        try {
+            return CompletableFuture.completedFuture(call.call());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /*
+     * Blocking wait for the sync API. Rethrows the original exception
+     * (e.g. IllegalStateException "Book already issued"), not the
+     * ExecutionException wrapper.
+     */
+    public static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof Exception ex)
+                throw ex;
+            throw e;
+        }
+    }
+
+    // Strips CompletionException / ExecutionException layers
+    public static Throwable unwrap(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null)
+            t = t.getCause();
+        return t;
+    }
+}
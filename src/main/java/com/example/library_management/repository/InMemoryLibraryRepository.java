@@ -0,0 +1,530 @@
+package com.example.library_management.repository;
+
+import com.example.library_management.model.Availability;
+import com.example.library_management.model.Book;
+import com.example.library_management.model.Issue;
+import com.example.library_management.model.Log;
+import com.example.library_management.model.Page;
+import com.example.library_management.model.Student;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * InMemoryLibraryRepository
+ * -------------------------
+ * Profile "memory": everything lives on the heap, nothing leaves the JVM.
+ * Meant for local development, demos and load tests without a Firebase
+ * project. Data is lost on restart (see FileLibraryRepository for that).
+ *
+ * DSA Concepts:
+ *  - ConcurrentSkipListMap -> sorted by id, so cursor paging is a tailMap()
+ *  - issueIndex            -> sorted issue views per status / sort and
+ *    per student (see IssueIndex), so filtered pages need no sort
+ *  - copyLoans / copiesOut -> copyId -> open issue, bookId -> copies out;
+ *    derived from the open issues, so replaying issues rebuilds them
+ *  - logs keyed by time-ordered id (see LogIds), plus one such map per
+ *    actionType: a time range is a subMap() of the right map
+ *
+ * Concurrency:
+ *  - Reads are lock-free on the concurrent maps
+ *  - Writes take one lock so data, index and counters change together
+ *
+ * library.store.simulated-latency-ms > 0 adds a sleep to every data call
+ * (outside the lock) to stand in for a Firestore round trip in load tests.
+ *
+ * Not built on LibraryService: that store only has unsorted books and
+ * students, one borrower per book (issued/issuedTo) and journal records
+ * for exactly those. This backend has to answer the whole repository
+ * contract the way Firestore does: id-ordered cursor pages, issue
+ * documents with per-copy loans, logs by time range, dashboard counters.
+ * Wrapping LibraryService would have meant keeping all of that beside it
+ * anyway, plus a second copy of every book.
+ */
+@Repository
+@Profile("memory")
+public class InMemoryLibraryRepository implements LibraryRepository {
+
+    private final ConcurrentSkipListMap<String, Book> books = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Student> students = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Issue> issues = new ConcurrentSkipListMap<>();
+    private final IssueIndex issueIndex = new IssueIndex();
+    private final Map<String, String> copyLoans = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> copiesOut = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Log> logs = new ConcurrentSkipListMap<>();
+    private final Map<String, ConcurrentSkipListMap<String, Log>> logsByType = new ConcurrentHashMap<>();
+
+    private final LibraryCounters counters = new LibraryCounters();
+    private final Object writeLock = new Object();
+
+    private long simulatedLatencyMs;
+
+    @Value("${library.store.simulated-latency-ms:0}")
+    public void setSimulatedLatencyMs(long simulatedLatencyMs) {
+        this.simulatedLatencyMs = Math.max(0, simulatedLatencyMs);
+    }
+
+    // Stand-in for the network: blocks the calling thread, never holds the lock
+    protected void roundTrip() {
+        if (simulatedLatencyMs == 0)
+            return;
+        try {
+            Thread.sleep(simulatedLatencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public boolean servesFromMemory() {
+        return true;
+    }
+
+    /*
+     * Called under the write lock after every change.
+     * Subclasses make the change durable here (op = PUT_BOOK, DELETE_BOOK, ...).
+     */
+    protected void persist(String op, String id, Object value) throws Exception {
+    }
+
+    // ================= BOOKS =================
+    @Override
+    public Book findBook(String id) {
+        roundTrip();
+        Book book = books.get(id);
+        return book == null ? null : new Book(book);
+    }
+
+    @Override
+    public void saveBook(Book book) throws Exception {
+        roundTrip();
+        storeBook(book);
+    }
+
+    private void storeBook(Book book) throws Exception {
+        synchronized (writeLock) {
+            if (books.put(book.getId(), new Book(book)) == null)
+                counters.apply(new LibraryCounters.Delta().add(LibraryCounters.BOOKS, 1));
+            persist("PUT_BOOK", book.getId(), book);
+        }
+    }
+
+    @Override
+    public boolean deleteBook(String id) throws Exception {
+        roundTrip();
+        synchronized (writeLock) {
+            if (books.remove(id) == null)
+                return false;
+            counters.apply(new LibraryCounters.Delta().add(LibraryCounters.BOOKS, -1));
+            persist("DELETE_BOOK", id, null);
+            return true;
+        }
+    }
+
+    @Override
+    public Page<Book> findBooks(int limit, String pageToken) {
+        roundTrip();
+        return InMemoryQueries.copies(InMemoryQueries.idPage(books, limit, pageToken), Book::new);
+    }
+
+    @Override
+    public int saveBooks(List<Book> batch) throws Exception {
+        roundTrip();
+        synchronized (writeLock) {
+            int created = 0;
+            for (Book book : batch) {
+                if (!books.containsKey(book.getId()))
+                    created++;
+                storeBook(book);
+            }
+            return created;
+        }
+    }
+
+    // ================= STUDENTS =================
+    @Override
+    public Student findStudent(String id) {
+        roundTrip();
+        Student student = students.get(id);
+        return student == null ? null : new Student(student);
+    }
+
+    @Override
+    public void saveStudent(Student student) throws Exception {
+        roundTrip();
+        storeStudent(student);
+    }
+
+    private void storeStudent(Student student) throws Exception {
+        synchronized (writeLock) {
+            if (students.put(student.getId(), new Student(student)) == null)
+                counters.apply(new LibraryCounters.Delta().add(LibraryCounters.MEMBERS, 1));
+            persist("PUT_STUDENT", student.getId(), student);
+        }
+    }
+
+    @Override
+    public boolean deleteStudent(String id) throws Exception {
+        roundTrip();
+        synchronized (writeLock) {
+            if (students.remove(id) == null)
+                return false;
+            counters.apply(new LibraryCounters.Delta().add(LibraryCounters.MEMBERS, -1));
+            persist("DELETE_STUDENT", id, null);
+            return true;
+        }
+    }
+
+    @Override
+    public Page<Student> findStudents(int limit, String pageToken) {
+        roundTrip();
+        return InMemoryQueries.copies(InMemoryQueries.idPage(students, limit, pageToken), Student::new);
+    }
+
+    @Override
+    public int saveStudents(List<Student> batch) throws Exception {
+        roundTrip();
+        synchronized (writeLock) {
+            int created = 0;
+            for (Student student : batch) {
+                if (!students.containsKey(student.getId()))
+                    created++;
+                storeStudent(student);
+            }
+            return created;
+        }
+    }
+
+    // ================= ISSUES =================
+    @Override
+    public Issue findIssue(String id) {
+        roundTrip();
+        Issue issue = issues.get(id);
+        return issue == null ? null : new Issue(issue);
+    }
+
+    @Override
+    public void issueBook(Issue issue) throws Exception {
+        roundTrip();
+        synchronized (writeLock) {
+            Book book = books.get(issue.getBookId());
+            Student student = students.get(issue.getStudentId());
+            if (book == null || student == null)
+                throw new IllegalStateException("Invalid Book ID or Student ID");
+            if (issues.containsKey(issue.getId()))
+                throw new IllegalStateException("Issue " + issue.getId() + " already exists");
+
+            String copyId = freeCopy(book);
+            if (copyId == null)
+                throw new IllegalStateException("No copies available");
+
+            issue.setCopyId(copyId);
+            issue.setBookTitle(book.getTitle());
+            issue.setStudentName(student.getName());
+
+            // The caller's issue carries the copy it got; the store keeps its own.
+            // The book record itself is not touched: the copy is counted in putIssue
+            Issue stored = new Issue(issue);
+            putIssue(stored);
+            persist("PUT_ISSUE", stored.getId(), stored);
+        }
+    }
+
+    // A copy on the shelf, searched from a random copy on; null when all are out
+    private String freeCopy(Book book) {
+        Availability availability = availability(book);
+        if (availability.getAvailable() <= 0)
+            return null;
+        int copies = availability.numberedCopies();
+        int start = ThreadLocalRandom.current().nextInt(copies);
+        for (int i = 0; i < copies; i++) {
+            String copyId = book.getId() + "#" + ((start + i) % copies + 1);
+            if (!copyLoans.containsKey(copyId))
+                return copyId;
+        }
+        return null;
+    }
+
+    private int copiesOut(String bookId) {
+        AtomicInteger out = copiesOut.get(bookId);
+        return out == null ? 0 : out.get();
+    }
+
+    @Override
+    public Availability findAvailability(String bookId) {
+        roundTrip();
+        Book book = books.get(bookId);
+        return book == null ? null : availability(book);
+    }
+
+    // The title's single-copy loan (from before copies existed) is keyed by bookId
+    private Availability availability(Book book) {
+        return Availability.of(book, copiesOut(book.getId()), issues.get(book.getId()));
+    }
+
+    /*
+     * Stored issues are never mutated in place (a reader may hold them),
+     * so the returned record is a fresh copy.
+     */
+    @Override
+    public Issue returnBook(String issueId, String returnDate) throws Exception {
+        roundTrip();
+        synchronized (writeLock) {
+            Issue current = issues.get(issueId);
+            if (current == null)
+                return null;
+            if (current.getReturnDate() != null)
+                throw new IllegalStateException("Book already returned");
+
+            Issue returned = new Issue(current);
+            returned.setReturnDate(returnDate);
+            putIssue(returned);
+            persist("PUT_ISSUE", issueId, returned);
+
+            // Loans from before copies existed: give back the copy only if the
+            // issue really took one (the book may have been deleted while it was out)
+            Book book = current.getCopyId() == null ? books.get(current.getBookId()) : null;
+            if (book != null) {
+                Book updated = new Book(book);
+                if (current.isStockTaken())
+                    updated.setQuantity(book.getQuantity() + 1);
+                updated.setIssued(false);
+                updated.setIssuedTo(null);
+                books.put(updated.getId(), updated);
+                persist("PUT_BOOK", updated.getId(), updated);
+            }
+            return new Issue(returned);
+        }
+    }
+
+    @Override
+    public boolean markReminderSent(String issueId, boolean sent) throws Exception {
+        roundTrip();
+        synchronized (writeLock) {
+            Issue current = issues.get(issueId);
+            if (current == null || current.getReturnDate() != null || current.isReminderSent() == sent)
+                return false;
+
+            Issue marked = new Issue(current);
+            marked.setReminderSent(sent);
+            putIssue(marked);
+            persist("PUT_ISSUE", issueId, marked);
+            return true;
+        }
+    }
+
+    @Override
+    public Page<Issue> findIssues(String status, String sort, int limit, String pageToken) {
+        roundTrip();
+        return InMemoryQueries.copies(issueIndex.page(issues, status, sort, limit, pageToken), Issue::new);
+    }
+
+    @Override
+    public Page<Issue> findIssuesByStudent(String studentId, int limit, String pageToken) {
+        roundTrip();
+        return InMemoryQueries.copies(issueIndex.studentPage(issues, studentId, limit, pageToken), Issue::new);
+    }
+
+    // Replaces an issue record and keeps index + counters in step (caller holds the lock)
+    private void putIssue(Issue issue) {
+        LibraryCounters.Delta delta = new LibraryCounters.Delta();
+
+        Issue previous = issues.put(issue.getId(), issue);
+        if (previous != null) {
+            delta.issue(previous, -1);
+            releaseCopy(previous);
+        }
+        delta.issue(issue, 1);
+        holdCopy(issue);
+
+        issueIndex.replace(previous, issue);
+        counters.apply(delta);
+    }
+
+    // An open loan holds its copy; caller holds the lock
+    private void holdCopy(Issue issue) {
+        if (issue.getCopyId() == null || issue.getReturnDate() != null)
+            return;
+        if (copyLoans.putIfAbsent(issue.getCopyId(), issue.getId()) == null)
+            copiesOut.computeIfAbsent(issue.getBookId(), k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private void releaseCopy(Issue issue) {
+        if (issue.getCopyId() == null || issue.getReturnDate() != null)
+            return;
+        if (copyLoans.remove(issue.getCopyId(), issue.getId())) {
+            AtomicInteger out = copiesOut.get(issue.getBookId());
+            if (out != null)
+                out.decrementAndGet();
+        }
+    }
+
+    // ================= COUNTERS =================
+    @Override
+    public LibraryCounters loadCounters() {
+        roundTrip();
+        synchronized (writeLock) {
+            return counters.copy();
+        }
+    }
+
+    @Override
+    public LibraryCounters rebuildCounters() {
+        synchronized (writeLock) {
+            LibraryCounters.Delta delta = new LibraryCounters.Delta()
+                    .add(LibraryCounters.BOOKS, books.size())
+                    .add(LibraryCounters.MEMBERS, students.size());
+            for (Issue issue : issues.values()) {
+                delta.issue(issue, 1);
+            }
+
+            LibraryCounters fresh = new LibraryCounters();
+            fresh.apply(delta);
+            counters.setBooks(fresh.getBooks());
+            counters.setMembers(fresh.getMembers());
+            counters.setBorrowed(fresh.getBorrowed());
+            counters.setReturned(fresh.getReturned());
+            counters.setOpenDue(fresh.getOpenDue());
+            return counters.copy();
+        }
+    }
+
+    // ================= LOGS =================
+    // The caller's log gets its id and epochMillis; the store keeps a copy
+    private void saveLog(Log entry) {
+        synchronized (writeLock) {
+            LogIds.stamp(entry);
+            Log log = new Log(entry);
+            logs.put(log.getId(), log);
+            if (log.getActionType() != null)
+                logsByType.computeIfAbsent(log.getActionType(), t -> new ConcurrentSkipListMap<>()).put(log.getId(), log);
+            try {
+                persist("LOG", null, log);
+            } catch (Exception e) {
+                System.err.println("Log persist failed: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void saveLogs(List<Log> batch) {
+        for (Log log : batch) {
+            saveLog(log);
+        }
+    }
+
+    // Oldest first; the token is the id of the last log returned
+    @Override
+    public Page<Log> findLogs(int limit, String pageToken) {
+        Map<String, Log> tail = pageToken == null || pageToken.isEmpty() ? logs : logs.tailMap(pageToken, false);
+        return firstOf(tail.values(), limit);
+    }
+
+    @Override
+    public Page<Log> findLogs(Long fromMillis, Long toMillis, String actionType, int limit, String cursor) {
+        roundTrip();
+        NavigableMap<String, Log> source = actionType == null ? logs : logsByType.get(actionType);
+        if (source == null)
+            return new Page<>(new ArrayList<>(), null);
+
+        String low = fromMillis == null ? "" : LogIds.key(fromMillis);
+        String high = toMillis == null ? null : LogIds.key(toMillis);
+        NavigableMap<String, Log> range = high == null ? source.tailMap(low, true) : source.subMap(low, true, high, false);
+        if (cursor != null && !cursor.isEmpty())
+            range = range.headMap(cursor, false);
+        return firstOf(range.descendingMap().values(), limit);
+    }
+
+    // Ids are assigned (with epochMillis) when a log is stored, nothing to migrate
+    @Override
+    public long migrateLogTimestamps() {
+        return 0;
+    }
+
+    @Override
+    public int deleteLogs(List<String> ids) {
+        int deleted = 0;
+        synchronized (writeLock) {
+            for (String id : ids) {
+                Log log = logs.remove(id);
+                if (log == null)
+                    continue;
+                if (log.getActionType() != null) {
+                    Map<String, Log> byType = logsByType.get(log.getActionType());
+                    if (byType != null)
+                        byType.remove(id);
+                }
+                deleted++;
+                try {
+                    persist("DELETE_LOG", id, null);
+                } catch (Exception e) {
+                    System.err.println("Log persist failed: " + e.getMessage());
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private static Page<Log> firstOf(Iterable<Log> ordered, int limit) {
+        List<Log> items = new ArrayList<>(Math.min(limit, 1024));
+        String next = null;
+        for (Log log : ordered) {
+            if (items.size() == limit) {
+                next = items.get(items.size() - 1).getId();
+                break;
+            }
+            items.add(new Log(log));
+        }
+        return new Page<>(items, next);
+    }
+
+    // ================= SNAPSHOT (for subclasses) =================
+    protected Iterable<Book> allBooks() {
+        return books.values();
+    }
+
+    protected Iterable<Student> allStudents() {
+        return students.values();
+    }
+
+    protected Iterable<Issue> allIssues() {
+        return issues.values();
+    }
+
+    protected Iterable<Log> allLogs() {
+        return logs.values();
+    }
+
+    // ================= REPLAY (for subclasses) =================
+    // Restores a stored issue as-is (counters and indexes follow)
+    protected void restoreIssue(Issue issue) throws Exception {
+        synchronized (writeLock) {
+            Issue stored = new Issue(issue);
+            putIssue(stored);
+            persist("PUT_ISSUE", stored.getId(), stored);
+        }
+    }
+
+    // Restores a stored log, keeping its id
+    protected void restoreLog(Log log) {
+        saveLog(log);
+    }
+
+    protected Object writeLock() {
+        return writeLock;
+    }
+}
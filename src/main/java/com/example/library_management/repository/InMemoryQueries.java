@@ -0,0 +1,48 @@
+package com.example.library_management.repository;
+
+import com.example.library_management.model.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.function.UnaryOperator;
+
+/*
+ * InMemoryQueries
+ * ---------------
+ * Id-ordered paging of the Firestore collections, evaluated on in-memory
+ * maps. Shared by the Firestore replica and the in-memory repositories so
+ * every backend pages the same way. Filtered / sorted issue pages come
+ * from IssueIndex.
+ *
+ * Page token = id of the last item returned (same as Firestore).
+ */
+final class InMemoryQueries {
+
+    private InMemoryQueries() {
+    }
+
+    // Swaps every item for a copy so callers never hold a stored instance
+    static <T> Page<T> copies(Page<T> page, UnaryOperator<T> copy) {
+        page.getItems().replaceAll(copy);
+        return page;
+    }
+
+    // Cursor paging on a sorted map: everything strictly after the token
+    static <T> Page<T> idPage(NavigableMap<String, T> map, int size, String pageToken) {
+        NavigableMap<String, T> tail = pageToken == null || pageToken.isEmpty()
+                ? map
+                : map.tailMap(pageToken, false);
+
+        List<T> items = new ArrayList<>(size);
+        String lastId = null;
+        for (Map.Entry<String, T> e : tail.entrySet()) {
+            if (items.size() == size)
+                return new Page<>(items, lastId);
+            items.add(e.getValue());
+            lastId = e.getKey();
+        }
+        return new Page<>(items, null);
+    }
+}
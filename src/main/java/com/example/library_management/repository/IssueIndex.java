@@ -0,0 +1,202 @@
+package com.example.library_management.repository;
+
+import com.example.library_management.model.Issue;
+import com.example.library_management.model.Page;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/*
+ * IssueIndex
+ * ----------
+ * Sorted views of the issues, one per status / sort the API offers, so a
+ * page is a tailMap() after the cursor instead of a scan + sort of every
+ * issue. Shared by the Firestore replica and the in-memory repositories.
+ *
+ * DSA Concepts:
+ *  - ConcurrentSkipListMap keyed by (sortKey, id), in the order of the
+ *    Firestore query: sortKey first, then the document id in the same
+ *    direction
+ *  - overdue = the open-by-dueDate view cut off before today (headMap)
+ *  - one issueDate view per student for the member's loan history
+ *
+ * Page token = "<sortKey>/<id>" of the last issue returned. It carries
+ * its own position, so the next page continues after the cursor even if
+ * that issue has since left the view (returned, deleted). A bare id, as
+ * Firestore hands out, is placed by the issue's current values, like
+ * Firestore's startAfter(snapshot).
+ *
+ * Readers are lock-free. replace() calls must not overlap: the owner
+ * makes them under the same lock as its id map update.
+ */
+final class IssueIndex {
+
+    // One position in a view; sort == null sorts last
+    private static final class Key {
+        final String sort;
+        final String id;
+
+        Key(String sort, String id) {
+            this.sort = sort;
+            this.id = id;
+        }
+
+        String token() {
+            return (sort == null ? "" : sort) + "/" + id;
+        }
+    }
+
+    private static final class View {
+        final Function<Issue, String> sortKey;
+        final Predicate<Issue> member;
+        final ConcurrentSkipListMap<Key, Issue> entries;
+
+        View(Function<Issue, String> sortKey, boolean descending, Predicate<Issue> member) {
+            this.sortKey = sortKey;
+            this.member = member;
+            Comparator<String> direction = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+            this.entries = new ConcurrentSkipListMap<>(
+                    Comparator.comparing((Key k) -> k.sort, Comparator.nullsLast(direction))
+                            .thenComparing(k -> k.id, direction));
+        }
+
+        Key key(Issue issue) {
+            return new Key(sortKey.apply(issue), issue.getId());
+        }
+
+        void put(Issue issue) {
+            if (member.test(issue))
+                entries.put(key(issue), issue);
+        }
+
+        void remove(Issue issue) {
+            entries.remove(key(issue));
+        }
+    }
+
+    private static final Predicate<Issue> ANY = i -> true;
+    private static final Predicate<Issue> OPEN = i -> i.getReturnDate() == null;
+    private static final Predicate<Issue> RETURNED = i -> i.getReturnDate() != null && !i.getReturnDate().isEmpty();
+
+    private final View byIssueDate = new View(Issue::getIssueDate, true, ANY);
+    private final View byDueDate = new View(Issue::getDueDate, false, ANY);
+    private final View openByIssueDate = new View(Issue::getIssueDate, true, OPEN);
+    private final View openByDueDate = new View(Issue::getDueDate, false, OPEN);
+    private final View returnedByReturnDate = new View(Issue::getReturnDate, true, RETURNED);
+    private final List<View> views = List.of(byIssueDate, byDueDate, openByIssueDate, openByDueDate,
+            returnedByReturnDate);
+
+    private final Map<String, View> byStudent = new ConcurrentHashMap<>();
+
+    // Swaps previous for current (either may be null)
+    void replace(Issue previous, Issue current) {
+        if (previous != null) {
+            for (View view : views)
+                view.remove(previous);
+            View own = previous.getStudentId() == null ? null : byStudent.get(previous.getStudentId());
+            if (own != null)
+                own.remove(previous);
+        }
+        if (current != null) {
+            for (View view : views)
+                view.put(current);
+            if (current.getStudentId() != null)
+                byStudent.computeIfAbsent(current.getStudentId(), k -> new View(Issue::getIssueDate, true, ANY))
+                        .put(current);
+        }
+    }
+
+    /*
+     * status: open | returned | overdue (optional)
+     * sort:   dueDate | issueDate; overdue only sorts by dueDate and
+     *         returned only by returnDate (newest first), like Firestore
+     * No status and no sort = plain id order over the id map.
+     */
+    Page<Issue> page(NavigableMap<String, Issue> issues, String status, String sort, int size, String pageToken) {
+        String st = status == null ? "" : status.trim().toLowerCase();
+        boolean noSort = sort == null || sort.isEmpty();
+
+        switch (st) {
+            case "":
+                if (noSort)
+                    return InMemoryQueries.idPage(issues, size, pageToken);
+                return page(issues, pick(sort, byDueDate, byIssueDate), size, pageToken, null);
+            case "open":
+                return page(issues, noSort ? openByDueDate : pick(sort, openByDueDate, openByIssueDate),
+                        size, pageToken, null);
+            case "overdue":
+                if (!noSort && !sort.equals("dueDate"))
+                    throw new IllegalArgumentException("Overdue issues can only be sorted by dueDate");
+                return page(issues, openByDueDate, size, pageToken, new Key(LocalDate.now().toString(), ""));
+            case "returned":
+                if (!noSort && !sort.equals("returnDate"))
+                    throw new IllegalArgumentException("Returned issues can only be sorted by returnDate");
+                return page(issues, returnedByReturnDate, size, pageToken, null);
+            default:
+                throw new IllegalArgumentException("Unknown status: " + status);
+        }
+    }
+
+    // A member's loans, newest first
+    Page<Issue> studentPage(NavigableMap<String, Issue> issues, String studentId, int size, String pageToken) {
+        View own = byStudent.get(studentId);
+        if (own == null)
+            return new Page<>(new ArrayList<>(), null);
+        return page(issues, own, size, pageToken, null);
+    }
+
+    private static View pick(String sort, View dueDate, View issueDate) {
+        switch (sort) {
+            case "dueDate":
+                return dueDate;
+            case "issueDate":
+                return issueDate;
+            default:
+                throw new IllegalArgumentException("Unknown sort: " + sort);
+        }
+    }
+
+    // Everything strictly after the cursor (and before `before`, when given)
+    private static Page<Issue> page(NavigableMap<String, Issue> issues, View view, int size, String pageToken,
+            Key before) {
+        NavigableMap<Key, Issue> range = before == null ? view.entries : view.entries.headMap(before, false);
+        Key cursor = cursor(issues, view, pageToken);
+        if (cursor != null)
+            range = range.tailMap(cursor, false);
+
+        List<Issue> items = new ArrayList<>(size);
+        Key last = null;
+        for (Map.Entry<Key, Issue> e : range.entrySet()) {
+            if (items.size() == size)
+                return new Page<>(items, last.token());
+            items.add(e.getValue());
+            last = e.getKey();
+        }
+        return new Page<>(items, null);
+    }
+
+    private static Key cursor(NavigableMap<String, Issue> issues, View view, String pageToken) {
+        if (pageToken == null || pageToken.isEmpty())
+            return null;
+
+        // Sort keys are dates, so the first '/' ends them
+        int slash = pageToken.indexOf('/');
+        if (slash >= 0) {
+            String sort = pageToken.substring(0, slash);
+            return new Key(sort.isEmpty() ? null : sort, pageToken.substring(slash + 1));
+        }
+
+        Issue issue = issues.get(pageToken);
+        if (issue == null)
+            throw new IllegalArgumentException("Invalid page token");
+        return view.key(issue);
+    }
+}
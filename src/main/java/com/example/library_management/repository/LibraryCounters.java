@@ -0,0 +1,142 @@
+package com.example.library_management.repository;
+
+import com.example.library_management.model.Issue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * LibraryCounters
+ * ---------------
+ * Running totals behind the dashboard, kept by every repository
+ * in step with the data itself:
+ *  - books / members          -> number of documents
+ *  - borrowed / returned      -> open vs closed issue records
+ *  - openDue                  -> dueDate -> number of OPEN loans due that day
+ *
+ * openDue lets the service work out overdue count and fine for "today"
+ * without scanning any issues.
+ */
+public class LibraryCounters {
+
+    public static final String BOOKS = "books";
+    public static final String MEMBERS = "members";
+    public static final String BORROWED = "borrowed";
+    public static final String RETURNED = "returned";
+    public static final String OPEN_DUE = "openDue";
+
+    private long books;
+    private long members;
+    private long borrowed;
+    private long returned;
+    private Map<String, Long> openDue = new HashMap<>();
+
+    public LibraryCounters() {
+    }
+
+    // Applies a change set in place (used by the in-memory backends)
+    public void apply(Delta delta) {
+        books += delta.totals.getOrDefault(BOOKS, 0L);
+        members += delta.totals.getOrDefault(MEMBERS, 0L);
+        borrowed += delta.totals.getOrDefault(BORROWED, 0L);
+        returned += delta.totals.getOrDefault(RETURNED, 0L);
+
+        delta.openDue.forEach((due, by) -> {
+            long now = openDue.getOrDefault(due, 0L) + by;
+            if (now <= 0)
+                openDue.remove(due);
+            else
+                openDue.put(due, now);
+        });
+    }
+
+    public LibraryCounters copy() {
+        LibraryCounters c = new LibraryCounters();
+        c.books = books;
+        c.members = members;
+        c.borrowed = borrowed;
+        c.returned = returned;
+        c.openDue = new HashMap<>(openDue);
+        return c;
+    }
+
+    // ---------------- GETTERS & SETTERS ----------------
+
+    public long getBooks() {
+        return books;
+    }
+
+    public void setBooks(long books) {
+        this.books = books;
+    }
+
+    public long getMembers() {
+        return members;
+    }
+
+    public void setMembers(long members) {
+        this.members = members;
+    }
+
+    public long getBorrowed() {
+        return borrowed;
+    }
+
+    public void setBorrowed(long borrowed) {
+        this.borrowed = borrowed;
+    }
+
+    public long getReturned() {
+        return returned;
+    }
+
+    public void setReturned(long returned) {
+        this.returned = returned;
+    }
+
+    public Map<String, Long> getOpenDue() {
+        return openDue;
+    }
+
+    public void setOpenDue(Map<String, Long> openDue) {
+        this.openDue = openDue;
+    }
+
+    /*
+     * Delta
+     * -----
+     * The counter changes caused by ONE write. Built next to the write and
+     * committed together with it (Firestore transaction / repository lock).
+     */
+    public static class Delta {
+
+        private final Map<String, Long> totals = new HashMap<>();
+        private final Map<String, Long> openDue = new HashMap<>();
+
+        public Delta add(String counter, long by) {
+            totals.merge(counter, by, Long::sum);
+            return this;
+        }
+
+        // Adds (sign = 1) or removes (sign = -1) one issue record from the totals
+        public Delta issue(Issue issue, long sign) {
+            if (issue.getReturnDate() == null) {
+                add(BORROWED, sign);
+                String due = issue.getDueDate();
+                if (due != null && !due.isEmpty())
+                    openDue.merge(due, sign, Long::sum);
+            } else {
+                add(RETURNED, sign);
+            }
+            return this;
+        }
+
+        public Map<String, Long> getTotals() {
+            return totals;
+        }
+
+        public Map<String, Long> getOpenDue() {
+            return openDue;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.library_management.repository;
+
+import com.example.library_management.model.Availability;
+import com.example.library_management.model.Book;
+import com.example.library_management.model.Issue;
+import com.example.library_management.model.Log;
+import com.example.library_management.model.Page;
+import com.example.library_management.model.Student;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * LibraryRepository
+ * -----------------
+ * Storage for books, students, issues and logs.
+ *
+ * Implementations (pick one with a Spring profile):
+ *  - FirestoreLibraryRepository  default        -> Cloud Firestore
+ *  - InMemoryLibraryRepository   "memory"       -> heap only, no network
+ *  - FileLibraryRepository       "file"         -> heap + local append-only file
+ *
+ * Contract shared by all backends:
+ *  - Every write keeps LibraryCounters in step with the data, atomically
+ *  - Pages are ordered by id unless a sort is given; the page token is the
+ *    id of the last item returned
+ *  - Issue queries accept the same status / sort values everywhere and
+ *    throw IllegalArgumentException for unsupported combinations
+ *  - Loans are per copy: every issue has its own id and one copyId
+ *    ("<bookId>#<n>", n = 1..book.quantity); a copy is out while an open
+ *    issue holds it, and each title keeps an atomic count of copies out
+ *    (Availability.of: quantity 0 counts as one copy)
+ */
+public interface LibraryRepository {
+
+    // False when the store cannot be reached (e.g. no Firebase credentials)
+    boolean isAvailable();
+
+    // True when reads are answered from local memory (no point caching them)
+    boolean servesFromMemory();
+
+    // ---------- BOOKS ----------
+    Book findBook(String id) throws Exception;
+
+    void saveBook(Book book) throws Exception;
+
+    // Returns false if there was nothing to delete
+    boolean deleteBook(String id) throws Exception;
+
+    Page<Book> findBooks(int limit, String pageToken) throws Exception;
+
+    // Bulk upsert for imports (ids unique within the call); returns how many were new
+    int saveBooks(List<Book> books) throws Exception;
+
+    // ---------- STUDENTS ----------
+    Student findStudent(String id) throws Exception;
+
+    void saveStudent(Student student) throws Exception;
+
+    boolean deleteStudent(String id) throws Exception;
+
+    Page<Student> findStudents(int limit, String pageToken) throws Exception;
+
+    int saveStudents(List<Student> students) throws Exception;
+
+    // ---------- ISSUES ----------
+    Issue findIssue(String id) throws Exception;
+
+    /*
+     * Lends one free copy of issue.bookId in ONE atomic step:
+     *  - book and student must exist, issue.id must be new
+     *  - picks a copy that is on the shelf and sets issue.copyId
+     *  - fills bookTitle / studentName, writes the issue
+     *  - counts the copy out for its title
+     * Throws IllegalStateException with the reason when refused
+     * (e.g. "No copies available").
+     */
+    void issueBook(Issue issue) throws Exception;
+
+    /*
+     * Sets returnDate and puts the copy back, atomically.
+     * Returns the updated issue, null if not found;
+     * throws IllegalStateException if it was already returned.
+     */
+    Issue returnBook(String issueId, String returnDate) throws Exception;
+
+    // Copies owned / out / on the shelf for one title, O(1); null if no such book
+    Availability findAvailability(String bookId) throws Exception;
+
+    /*
+     * Sets issue.reminderSent atomically. Returns false and changes nothing
+     * if the issue is missing, already returned or already has that value,
+     * so only one caller (or instance) can claim a reminder.
+     */
+    boolean markReminderSent(String issueId, boolean sent) throws Exception;
+
+    Page<Issue> findIssues(String status, String sort, int limit, String pageToken) throws Exception;
+
+    Page<Issue> findIssuesByStudent(String studentId, int limit, String pageToken) throws Exception;
+
+    // ---------- COUNTERS ----------
+    LibraryCounters loadCounters() throws Exception;
+
+    // Full recount, for data written before counters existed
+    LibraryCounters rebuildCounters() throws Exception;
+
+    // ---------- LOGS ----------
+    // Writes many logs in as few round trips as the store allows
+    void saveLogs(List<Log> logs) throws Exception;
+
+    // Logs in storage order; the token is opaque to callers
+    Page<Log> findLogs(int limit, String pageToken) throws Exception;
+
+    /*
+     * Newest first, fromMillis <= epochMillis < toMillis (null = open end),
+     * optionally one actionType. Only the logs in range are read.
+     * cursor = nextPageToken of the previous page.
+     */
+    Page<Log> findLogs(Long fromMillis, Long toMillis, String actionType, int limit, String cursor) throws Exception;
+
+    // One-off: sets epochMillis on logs written before it existed; returns how many
+    long migrateLogTimestamps() throws Exception;
+
+    // Removes logs by id (after they were archived); returns how many existed
+    int deleteLogs(List<String> ids) throws Exception;
+
+    // ---------- ASYNC ----------
+    /*
+     * Non-blocking variants of the hot reads and the issue / return
+     * transactions. The defaults run the call on the caller's thread
+     * (right for the in-memory backends, which never wait on I/O);
+     * Firestore completes them from its RPC callbacks instead.
+     * Failures complete the future exceptionally with the same exceptions
+     * as the blocking methods.
+     */
+    default CompletableFuture<Book> findBookAsync(String id) {
+        return Futures.now(() -> findBook(id));
+    }
+
+    default CompletableFuture<Student> findStudentAsync(String id) {
+        return Futures.now(() -> findStudent(id));
+    }
+
+    default CompletableFuture<Issue> findIssueAsync(String id) {
+        return Futures.now(() -> findIssue(id));
+    }
+
+    default CompletableFuture<Page<Book>> findBooksAsync(int limit, String pageToken) {
+        return Futures.now(() -> findBooks(limit, pageToken));
+    }
+
+    default CompletableFuture<Page<Student>> findStudentsAsync(int limit, String pageToken) {
+        return Futures.now(() -> findStudents(limit, pageToken));
+    }
+
+    default CompletableFuture<Page<Issue>> findIssuesAsync(String status, String sort, int limit, String pageToken) {
+        return Futures.now(() -> findIssues(status, sort, limit, pageToken));
+    }
+
+    default CompletableFuture<Void> issueBookAsync(Issue issue) {
+        return Futures.now(() -> {
+            issueBook(issue);
+            return null;
+        });
+    }
+
+    default CompletableFuture<Issue> returnBookAsync(String issueId, String returnDate) {
+        return Futures.now(() -> returnBook(issueId, returnDate));
+    }
+
+    default CompletableFuture<Availability> findAvailabilityAsync(String bookId) {
+        return Futures.now(() -> findAvailability(bookId));
+    }
+
+    default CompletableFuture<LibraryCounters> loadCountersAsync() {
+        return Futures.now(this::loadCounters);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.library_management.repository;
+
+import com.example.library_management.model.Log;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Log ids that sort by time: "<epochMillis, 13 digits>-<8 hex>".
+ *
+ * A range of time is then a range of ids: every log of [from, to) lies
+ * between key(from) and key(to), which the in-memory stores use directly
+ * (subMap on the sorted id map).
+ */
+public final class LogIds {
+
+    private LogIds() {
+    }
+
+    // Fills in epochMillis and id where the caller left them empty
+    public static Log stamp(Log log) {
+        if (log.getEpochMillis() == 0)
+            log.setEpochMillis(epochMillisOf(log.getTimestamp()));
+        if (log.getId() == null || log.getId().isEmpty())
+            log.setId(newId(log.getEpochMillis()));
+        return log;
+    }
+
+    static String newId(long epochMillis) {
+        return key(epochMillis) + "-" + String.format("%08x", ThreadLocalRandom.current().nextInt());
+    }
+
+    // Lower bound of every id written at or after epochMillis
+    static String key(long epochMillis) {
+        return String.format("%013d", Math.max(0, epochMillis));
+    }
+
+    // Older logs only carry the LocalDateTime string (server time zone); 0 if unreadable
+    static long epochMillisOf(String timestamp) {
+        if (timestamp == null || timestamp.isEmpty())
+            return 0;
+        try {
+            return LocalDateTime.parse(timestamp).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.library_management.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * AdmissionControl
+ * ----------------
+ * Rate limits for /api/** (used by AdmissionFilter), so one client
+ * polling in a loop cannot burn the Firestore read quota for everybody.
+ *
+ * Every request must get a token from TWO buckets:
+ *  - the client's bucket:           all of its API calls together
+ *  - the client's endpoint bucket:  one endpoint group, e.g. "GET /api/issues"
+ *    (limits per group, see library.admission.endpoints)
+ * Limits are per client, so a noisy script only slows itself down.
+ *
+ * DSA Concept: token bucket as GCRA (generic cell rate algorithm)
+ *  - The whole bucket is ONE long: the "theoretical arrival time" (tat)
+ *    of the next token. Taking a token = one CAS moving tat by 1/rate;
+ *    the bucket is empty when tat runs more than burst/rate ahead of now
+ *  - Retry-After falls out directly: how far tat is beyond that window
+ *  - No locks: buckets live in a ConcurrentHashMap (lock-free reads,
+ *    striped writes) and are updated by CAS, so the filter never
+ *    serializes requests
+ *
+ * A bucket that has refilled completely is the same as a new one, so a
+ * sweep every `sweep-seconds` drops those: memory follows the clients
+ * active in the last few seconds, not every address ever seen.
+ */
+@Component
+public class AdmissionControl {
+
+    public static final String CLIENT = "client";
+    public static final String ENDPOINT = "endpoint";
+
+    // Answer of tryAcquire: admitted, or rejected with a wait time
+    public static final class Decision {
+        private static final Decision ADMIT = new Decision(null, 0);
+
+        private final String limit;
+        private final long retryAfterNanos;
+
+        private Decision(String limit, long retryAfterNanos) {
+            this.limit = limit;
+            this.retryAfterNanos = retryAfterNanos;
+        }
+
+        public boolean isAdmitted() {
+            return limit == null;
+        }
+
+        // CLIENT or ENDPOINT (null when admitted)
+        public String getLimit() {
+            return limit;
+        }
+
+        // Whole seconds, at least 1 (HTTP Retry-After)
+        public long getRetryAfterSeconds() {
+            return Math.max(1, (retryAfterNanos + 999_999_999L) / 1_000_000_000L);
+        }
+    }
+
+    // Rate (tokens per second) and burst (bucket size) of one limit
+    private static final class Limit {
+        final long intervalNanos;     // one token
+        final long windowNanos;       // a full bucket = burst tokens
+
+        Limit(double ratePerSecond, int burst) {
+            this.intervalNanos = Math.max(1, (long) (1_000_000_000L / Math.max(0.001, ratePerSecond)));
+            this.windowNanos = intervalNanos * Math.max(1, burst);
+        }
+    }
+
+    private static final class Bucket {
+        final Limit limit;
+        final AtomicLong tat;
+
+        // Starts full (nanoTime values are compared by difference only)
+        Bucket(Limit limit, long now) {
+            this.limit = limit;
+            this.tat = new AtomicLong(now);
+        }
+
+        // 0 if a token was taken, else nanos until one is available
+        long tryAcquire(long now) {
+            while (true) {
+                long current = tat.get();
+                long next = (current - now > 0 ? current : now) + limit.intervalNanos;
+                long ahead = next - now;
+                if (ahead > limit.windowNanos)
+                    return ahead - limit.windowNanos;
+                if (tat.compareAndSet(current, next))
+                    return 0;
+            }
+        }
+
+        // Gives back a token taken for a request that was rejected anyway
+        void refund() {
+            tat.addAndGet(-limit.intervalNanos);
+        }
+
+        // Share of the bucket still available (1 = full)
+        double fill(long now) {
+            long ahead = Math.max(0, tat.get() - now);
+            return Math.max(0.0, 1.0 - (double) ahead / limit.windowNanos);
+        }
+
+        boolean isFull(long now) {
+            return tat.get() - now <= 0;
+        }
+    }
+
+    private final boolean enabled;
+    private final Limit clientLimit;
+    private final Limit endpointLimit;
+    // "GET /api/books/suggest" -> its own limit, longest prefix first
+    private final Map<String, Limit> endpointLimits = new LinkedHashMap<>();
+    private final long sweepNanos;
+
+    private final ConcurrentHashMap<String, Bucket> clients = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Bucket> endpoints = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejectedByClient = new LongAdder();
+    private final LongAdder rejectedByEndpoint = new LongAdder();
+    private final Map<String, LongAdder> rejectionsPerEndpoint = new ConcurrentHashMap<>();
+    private final LongAdder sweptBuckets = new LongAdder();
+
+    public AdmissionControl(
+            @Value("${library.admission.enabled:true}") boolean enabled,
+            @Value("${library.admission.client.rate-per-second:20}") double clientRate,
+            @Value("${library.admission.client.burst:40}") int clientBurst,
+            @Value("${library.admission.endpoint.rate-per-second:5}") double endpointRate,
+            @Value("${library.admission.endpoint.burst:20}") int endpointBurst,
+            @Value("${library.admission.endpoints:}") String endpointOverrides,
+            @Value("${library.admission.sweep-seconds:30}") long sweepSeconds) {
+
+        this.enabled = enabled;
+        this.clientLimit = new Limit(clientRate, clientBurst);
+        this.endpointLimit = new Limit(endpointRate, endpointBurst);
+        this.sweepNanos = TimeUnit.SECONDS.toNanos(Math.max(1, sweepSeconds));
+        parseEndpointLimits(endpointOverrides);
+    }
+
+    /*
+     * "GET /api/books/suggest=10:30, GET /api/export=0.2:3"
+     * = endpoint prefix, tokens per second, burst
+     */
+    private void parseEndpointLimits(String spec) {
+        List<String> prefixes = new ArrayList<>();
+        Map<String, Limit> parsed = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            entry = entry.trim();
+            if (entry.isEmpty())
+                continue;
+            int eq = entry.lastIndexOf('=');
+            int colon = entry.lastIndexOf(':');
+            if (eq < 0 || colon < eq)
+                throw new IllegalArgumentException("Bad library.admission.endpoints entry: " + entry);
+            String prefix = entry.substring(0, eq).trim().replaceAll("\\s+", " ");
+            parsed.put(prefix, new Limit(Double.parseDouble(entry.substring(eq + 1, colon).trim()),
+                    Integer.parseInt(entry.substring(colon + 1).trim())));
+            prefixes.add(prefix);
+        }
+        prefixes.sort((a, b) -> b.length() - a.length());
+        for (String prefix : prefixes)
+            endpointLimits.put(prefix, parsed.get(prefix));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /*
+     * Endpoint group of a request: the longest configured prefix it falls
+     * under, else method + first path segment ("GET /api/issues").
+     * Ids never create groups of their own.
+     */
+    public String endpointOf(String method, String path) {
+        String request = method + " " + path;
+        for (String prefix : endpointLimits.keySet()) {
+            if (request.startsWith(prefix)
+                    && (request.length() == prefix.length() || request.charAt(prefix.length()) == '/'))
+                return prefix;
+        }
+        int end = path.indexOf('/', "/api/".length());
+        return method + " " + (end < 0 ? path : path.substring(0, end));
+    }
+
+    public Decision tryAcquire(String client, String endpoint) {
+        long now = System.nanoTime();
+        sweepIfDue(now);
+
+        Bucket perEndpoint = endpoints.computeIfAbsent(client + " " + endpoint,
+                k -> new Bucket(endpointLimits.getOrDefault(endpoint, endpointLimit), now));
+        long wait = perEndpoint.tryAcquire(now);
+        if (wait > 0) {
+            rejected(endpoint, rejectedByEndpoint);
+            return new Decision(ENDPOINT, wait);
+        }
+
+        Bucket perClient = clients.computeIfAbsent(client, k -> new Bucket(clientLimit, now));
+        wait = perClient.tryAcquire(now);
+        if (wait > 0) {
+            perEndpoint.refund();
+            rejected(endpoint, rejectedByClient);
+            return new Decision(CLIENT, wait);
+        }
+
+        admitted.increment();
+        return Decision.ADMIT;
+    }
+
+    private void rejected(String endpoint, LongAdder reason) {
+        reason.increment();
+        rejectionsPerEndpoint.computeIfAbsent(endpoint, k -> new LongAdder()).increment();
+    }
+
+    // One caller per period drops the buckets that are full again
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + sweepNanos))
+            return;
+        sweep(clients, now);
+        sweep(endpoints, now);
+    }
+
+    private void sweep(ConcurrentHashMap<String, Bucket> buckets, long now) {
+        buckets.forEach((key, bucket) -> {
+            if (bucket.isFull(now) && buckets.remove(key, bucket))
+                sweptBuckets.increment();
+        });
+    }
+
+    // ---------------- STATS ----------------
+    public Map<String, Object> stats() {
+        long now = System.nanoTime();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("admitted", admitted.sum());
+        stats.put("rejectedByClientLimit", rejectedByClient.sum());
+        stats.put("rejectedByEndpointLimit", rejectedByEndpoint.sum());
+
+        Map<String, Long> perEndpoint = new LinkedHashMap<>();
+        rejectionsPerEndpoint.forEach((endpoint, count) -> perEndpoint.put(endpoint, count.sum()));
+        stats.put("rejectionsPerEndpoint", perEndpoint);
+
+        stats.put("clientBuckets", occupancy(clients, now));
+        stats.put("endpointBuckets", occupancy(endpoints, now));
+        stats.put("sweptBuckets", sweptBuckets.sum());
+        return stats;
+    }
+
+    // How many buckets exist, how many are empty, and how full they are on average
+    private static Map<String, Object> occupancy(ConcurrentHashMap<String, Bucket> buckets, long now) {
+        int count = 0;
+        int empty = 0;
+        double fill = 0;
+        for (Bucket bucket : buckets.values()) {
+            double f = bucket.fill(now);
+            count++;
+            fill += f;
+            if (f * bucket.limit.windowNanos < bucket.limit.intervalNanos)
+                empty++;
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tracked", count);
+        stats.put("empty", empty);
+        stats.put("averageFill", count == 0 ? 1.0 : fill / count);
+        return stats;
+    }
+}
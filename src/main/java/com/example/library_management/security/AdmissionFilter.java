@@ -0,0 +1,93 @@
+package com.example.library_management.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/*
+ * Admission control in front of every /api/** call (see AdmissionControl).
+ * Over the limit: 429 Too Many Requests + Retry-After, before any
+ * controller (and so any Firestore read) runs.
+ *
+ * Client = the connection's remote address, the one thing a caller
+ * cannot choose per request. Not the session: /set-session accepts any
+ * email, so a script could mint fresh buckets at will.
+ *
+ * Behind a proxy set library.admission.client-ip-header (e.g.
+ * X-Forwarded-For) AND library.admission.trusted-proxies. The header
+ * is read only on connections from a trusted proxy, from the right:
+ * the first address not itself a trusted proxy is the one the nearest
+ * trusted proxy saw. Entries left of it were written by the client.
+ */
+@Component
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private final AdmissionControl admission;
+    private final String clientIpHeader;
+    private final Set<String> trustedProxies;
+
+    public AdmissionFilter(AdmissionControl admission,
+            @Value("${library.admission.client-ip-header:}") String clientIpHeader,
+            @Value("${library.admission.trusted-proxies:}") String trustedProxies) {
+        this.admission = admission;
+        this.clientIpHeader = clientIpHeader.trim();
+        this.trustedProxies = Arrays.stream(trustedProxies.split(","))
+                .map(String::trim)
+                .filter(ip -> !ip.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !admission.isEnabled() || !path(request).startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String endpoint = admission.endpointOf(request.getMethod(), path(request));
+        AdmissionControl.Decision decision = admission.tryAcquire(clientOf(request), endpoint);
+        if (decision.isAdmitted()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfter = decision.getRetryAfterSeconds();
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(retryAfter));
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"error\":\"Too many requests (" + decision.getLimit()
+                + " limit), retry in " + retryAfter + "s\",\"retryAfterSeconds\":" + retryAfter + "}");
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String remote = request.getRemoteAddr();
+        if (clientIpHeader.isEmpty() || !trustedProxies.contains(remote))
+            return "ip:" + remote;
+
+        String forwarded = request.getHeader(clientIpHeader);
+        if (forwarded == null || forwarded.isBlank())
+            return "ip:" + remote;
+
+        String[] hops = forwarded.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (!hop.isEmpty() && !trustedProxies.contains(hop))
+                return "ip:" + hop;
+        }
+        return "ip:" + remote;
+    }
+}
@@ -22,6 +22,7 @@ public class SecurityConfig {
                         .requestMatchers("/", "/signup", "/error").permitAll()
 
                         // 3. Allow API Endpoints (So your JS can fetch data)
+                        //    Rate limited per client by AdmissionFilter
                         .requestMatchers("/api/**").permitAll()
 
                         // 4. Any other request requires authentication (Optional: change to permitAll()
@@ -0,0 +1,219 @@
+package com.example.library_management.service;
+
+import com.example.library_management.model.Log;
+import com.example.library_management.repository.LibraryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * AuditLogWriter
+ * --------------
+ * Writes audit logs in the background, in batches.
+ *
+ * DSA Concept:
+ *  - Bounded FIFO queue (ArrayBlockingQueue) between the request threads
+ *    (producers) and ONE writer thread (consumer)
+ *
+ * Batching:
+ *  - The writer waits for the first log, then keeps collecting for up to
+ *    flush-interval-ms or until batch-size logs are queued, and writes them
+ *    with a single repository call (one Firestore WriteBatch per 500)
+ *
+ * When the queue is full (overflow-policy):
+ *  - block : the caller waits up to block-timeout-ms, then the log is dropped
+ *  - drop  : the log is dropped immediately
+ *
+ * A failed batch is retried with backoff, then counted as failed.
+ * Remaining logs are flushed on shutdown.
+ */
+@Component
+public class AuditLogWriter {
+
+    private static final int MAX_RETRIES = 3;
+
+    private final LibraryRepository repository;
+    private final BlockingQueue<Log> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final boolean blockWhenFull;
+    private final long blockTimeoutMs;
+
+    private Thread writer;
+    private volatile boolean running;
+
+    // ---- Metrics ----
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchMillisTotal = new LongAdder();
+    private final AtomicLong batchMillisMax = new AtomicLong();
+    private volatile String lastError;
+
+    public AuditLogWriter(
+            LibraryRepository repository,
+            @Value("${library.audit.queue-capacity:10000}") int queueCapacity,
+            @Value("${library.audit.batch-size:500}") int batchSize,
+            @Value("${library.audit.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${library.audit.overflow-policy:block}") String overflowPolicy,
+            @Value("${library.audit.block-timeout-ms:1000}") long blockTimeoutMs) {
+
+        this.repository = repository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = Math.max(1, Math.min(batchSize, 500));
+        this.flushIntervalMs = flushIntervalMs;
+        this.blockWhenFull = !"drop".equalsIgnoreCase(overflowPolicy);
+        this.blockTimeoutMs = blockTimeoutMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::run, "audit-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Queues a log; returns false if it had to be dropped
+    public boolean submit(Log log) {
+        submitted.increment();
+        boolean queued;
+        try {
+            queued = blockWhenFull
+                    ? queue.offer(log, blockTimeoutMs, TimeUnit.MILLISECONDS)
+                    : queue.offer(log);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued)
+            dropped.increment();
+        return queued;
+    }
+
+    // ================= WRITER THREAD =================
+    private void run() {
+        List<Log> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Log first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+                collect(batch);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+
+        // Shutdown: drain what is left
+        while (!queue.isEmpty()) {
+            queue.drainTo(batch, batchSize);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    // Adds queued logs until the batch is full or the flush interval has passed
+    private void collect(List<Log> batch) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + flushIntervalMs;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long wait = deadline - System.currentTimeMillis();
+            if (batch.size() >= batchSize || wait <= 0)
+                return;
+
+            Log next = queue.poll(wait, TimeUnit.MILLISECONDS);
+            if (next == null)
+                return;
+            batch.add(next);
+        }
+    }
+
+    private void write(List<Log> batch) {
+        if (batch.isEmpty())
+            return;
+        if (!repository.isAvailable()) {
+            failed.add(batch.size());
+            lastError = "Storage not available";
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                repository.saveLogs(batch);
+                written.add(batch.size());
+                break;
+            } catch (Exception e) {
+                lastError = e.getMessage();
+                if (attempt >= MAX_RETRIES || !running && attempt > 1) {
+                    failed.add(batch.size());
+                    System.err.println("❌ Audit log batch of " + batch.size() + " failed: " + e.getMessage());
+                    break;
+                }
+                try {
+                    Thread.sleep(100L << attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        long took = System.currentTimeMillis() - start;
+        batches.increment();
+        batchMillisTotal.add(took);
+        batchMillisMax.accumulateAndGet(took, Math::max);
+    }
+
+    // ================= SHUTDOWN =================
+    @PreDestroy
+    public void shutdown() {
+        // No interrupt: a batch in flight must be allowed to finish
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty())
+            System.err.println("⚠️  Audit log: " + queue.size() + " logs not written at shutdown");
+    }
+
+    // ================= METRICS =================
+    public Map<String, Object> stats() {
+        long b = batches.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", queue.size() + queue.remainingCapacity());
+        stats.put("overflowPolicy", blockWhenFull ? "block" : "drop");
+        stats.put("submitted", submitted.sum());
+        stats.put("written", written.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batches", b);
+        stats.put("avgBatchSize", b == 0 ? 0.0 : (double) (written.sum() + failed.sum()) / b);
+        stats.put("avgBatchMillis", b == 0 ? 0.0 : (double) batchMillisTotal.sum() / b);
+        stats.put("maxBatchMillis", batchMillisMax.get());
+        stats.put("lastError", lastError);
+        return stats;
+    }
+}
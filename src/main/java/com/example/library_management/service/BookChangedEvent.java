@@ -0,0 +1,52 @@
+package com.example.library_management.service;
+
+import com.example.library_management.model.Book;
+
+/*
+ * Published by FirebaseService after a book was written.
+ *
+ *  - saved(book)   : the new state is known (add, import, seed)
+ *  - deleted(id)   : the book is gone
+ *  - changed(id)   : written by the store (issue / return), listeners
+ *                    re-read it if they need the new state
+ *
+ * Listeners such as CatalogSearchIndex stay in step without rescanning
+ * the books collection.
+ */
+public class BookChangedEvent {
+
+    private final String bookId;
+    private final Book book;
+    private final boolean deleted;
+
+    private BookChangedEvent(String bookId, Book book, boolean deleted) {
+        this.bookId = bookId;
+        this.book = book;
+        this.deleted = deleted;
+    }
+
+    public static BookChangedEvent saved(Book book) {
+        return new BookChangedEvent(book.getId(), book, false);
+    }
+
+    public static BookChangedEvent deleted(String bookId) {
+        return new BookChangedEvent(bookId, null, true);
+    }
+
+    public static BookChangedEvent changed(String bookId) {
+        return new BookChangedEvent(bookId, null, false);
+    }
+
+    public String getBookId() {
+        return bookId;
+    }
+
+    // null for deleted(...) and changed(...)
+    public Book getBook() {
+        return book;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+}
@@ -0,0 +1,525 @@
+package com.example.library_management.service;
+
+import com.example.library_management.model.Book;
+import com.example.library_management.model.Page;
+import com.example.library_management.model.SearchResult;
+import com.example.library_management.repository.LibraryRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/*
+ * CatalogSearchIndex
+ * ------------------
+ * In-memory inverted index over the catalog behind /api/books/search and
+ * /api/books/suggest. A search never touches Firestore.
+ *
+ * DSA Concepts:
+ *  - Inverted index: term -> set of indexed books (postings hold the
+ *    entries themselves, so a match needs no second lookup by id)
+ *  - The term dictionary is a TreeMap, so autocomplete is a range scan:
+ *    every term starting with "pot" lies in subMap("pot", "pot" + Character.MAX_VALUE)
+ *    (what edge n-grams give, without storing every prefix)
+ *  - Per book a small term -> field-bits map, used to check the other
+ *    query terms and to score without going back to the postings
+ *  - Top-k with a min-heap of size `limit`: O(matches * log k)
+ *  - Category facet counts are taken over ALL matches in the same pass
+ *
+ * Query rules (search as you type):
+ *  - Text is lower-cased and split on anything that is not a letter / digit
+ *  - Every term must match (AND); the LAST term also matches as a prefix
+ *    while it is still being typed (not once the query ends in a space)
+ *  - Candidates come from the rarest term, the others are checked on
+ *    each candidate
+ *
+ * Ranking, per query term the best field it hits:
+ *   id 8 > title 4 > author 2 > category 1, doubled for a whole-word match;
+ *   ties by title, then id
+ *
+ * Updates:
+ *  - Startup: one paged pass over the books (background thread)
+ *  - Then BookChangedEvent adds / replaces / removes one book, O(its terms)
+ *  - Books written while a load runs are not overwritten by the load
+ *  - Only writes made through THIS instance arrive as events;
+ *    POST /api/books/search/rebuild reloads after writes elsewhere
+ *
+ * One ReentrantReadWriteLock: searches run in parallel, an update holds
+ * the write lock for a handful of map operations.
+ */
+@Component
+public class CatalogSearchIndex {
+
+    private static final int LOAD_PAGE_SIZE = 500;
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+    private static final int MAX_SUGGEST_SCAN = 5000;
+    private static final String UNCATEGORIZED = "Uncategorized";
+    private static final Pattern SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Field bits double as weights: Integer.highestOneBit picks the best field
+    private static final int CATEGORY = 1;
+    private static final int AUTHOR = 2;
+    private static final int TITLE = 4;
+    private static final int ID = 8;
+
+    // Best score first; ties by title, then id
+    private static final Comparator<Hit> RANK = Comparator.<Hit>comparingInt(h -> h.score).reversed()
+            .thenComparing(h -> h.doc.sortTitle)
+            .thenComparing(h -> h.doc.book.getId());
+
+    private final LibraryRepository repository;
+
+    private final Map<String, Doc> docs = new HashMap<>();
+    private final TreeMap<String, Set<Doc>> postings = new TreeMap<>();
+    private final Map<String, Integer> booksPerCategory = new HashMap<>();
+    private final Map<String, Integer> copiesPerCategory = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Ids written while a load runs (guarded by lock, null when idle)
+    private Set<String> touchedDuringLoad;
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    // ---- Metrics ----
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+    private volatile String loadedAt;
+    private volatile long loadMillis;
+    private volatile String lastError;
+
+    private static class Doc {
+        final Book book;
+        final String category;
+        final int copies;
+        final String sortTitle;
+        final Map<String, Integer> terms;
+
+        Doc(Book book) {
+            this.book = book;
+            this.category = categoryName(book);
+            // Same rule as Availability: a book without a quantity is one copy
+            this.copies = Math.max(1, book.getQuantity());
+            this.sortTitle = book.getTitle() == null ? "" : book.getTitle().toLowerCase(Locale.ROOT);
+            this.terms = new HashMap<>();
+            addTerms(terms, book.getId(), ID);
+            addTerms(terms, book.getTitle(), TITLE);
+            addTerms(terms, book.getAuthor(), AUTHOR);
+            addTerms(terms, book.getCategory(), CATEGORY);
+        }
+    }
+
+    private static class Hit {
+        final Doc doc;
+        final int score;
+
+        Hit(Doc doc, int score) {
+            this.doc = doc;
+            this.score = score;
+        }
+    }
+
+    public CatalogSearchIndex(LibraryRepository repository) {
+        this.repository = repository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!repository.isAvailable()) {
+            System.out.println("⚠️  Storage not available, search index starts empty");
+            return;
+        }
+        rebuild();
+    }
+
+    // Reloads in the background; false if a load is already running
+    public boolean rebuild() {
+        if (!loading.compareAndSet(false, true))
+            return false;
+        Thread loader = new Thread(this::load, "search-index-load");
+        loader.setDaemon(true);
+        loader.start();
+        return true;
+    }
+
+    // ================= UPDATES =================
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        String id = event.getBookId();
+        if (id == null)
+            return;
+        if (event.isDeleted() || event.getBook() != null) {
+            apply(id, event.getBook());
+            return;
+        }
+        // Changed by the store (issue / return): take the stored state
+        repository.findBookAsync(id).whenComplete((book, error) -> {
+            if (error != null) {
+                lastError = error.getMessage();
+                return;
+            }
+            apply(id, book);
+        });
+    }
+
+    private void apply(String id, Book book) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringLoad != null)
+                touchedDuringLoad.add(id);
+            if (book == null)
+                remove(id);
+            else
+                put(book);
+            updates.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void put(Book book) {
+        remove(book.getId());
+        Doc doc = new Doc(new Book(book));
+        docs.put(book.getId(), doc);
+        booksPerCategory.merge(doc.category, 1, Integer::sum);
+        copiesPerCategory.merge(doc.category, doc.copies, Integer::sum);
+        for (String term : doc.terms.keySet())
+            postings.computeIfAbsent(term, t -> new HashSet<>()).add(doc);
+    }
+
+    // Caller holds the write lock
+    private void remove(String id) {
+        Doc old = docs.remove(id);
+        if (old == null)
+            return;
+        booksPerCategory.computeIfPresent(old.category, (c, n) -> n == 1 ? null : n - 1);
+        copiesPerCategory.computeIfPresent(old.category, (c, n) -> n == old.copies ? null : n - old.copies);
+        for (String term : old.terms.keySet()) {
+            Set<Doc> docsWithTerm = postings.get(term);
+            if (docsWithTerm == null)
+                continue;
+            docsWithTerm.remove(old);
+            if (docsWithTerm.isEmpty())
+                postings.remove(term);
+        }
+    }
+
+    // One pass over the books, page by page
+    private void load() {
+        long start = System.currentTimeMillis();
+        Set<String> seen = new HashSet<>();
+        lock.writeLock().lock();
+        try {
+            touchedDuringLoad = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            String token = null;
+            do {
+                Page<Book> page = repository.findBooks(LOAD_PAGE_SIZE, token);
+                lock.writeLock().lock();
+                try {
+                    for (Book book : page.getItems()) {
+                        if (book.getId() == null)
+                            continue;
+                        seen.add(book.getId());
+                        if (!touchedDuringLoad.contains(book.getId()))
+                            put(book);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                token = page.getNextPageToken();
+            } while (token != null);
+
+            // Deleted from the store since the previous load
+            lock.writeLock().lock();
+            try {
+                List<String> gone = new ArrayList<>();
+                for (String id : docs.keySet())
+                    if (!seen.contains(id) && !touchedDuringLoad.contains(id))
+                        gone.add(id);
+                gone.forEach(this::remove);
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            loadMillis = System.currentTimeMillis() - start;
+            loadedAt = Instant.now().toString();
+            System.out.println("🔎 Search index loaded " + seen.size() + " books in " + loadMillis + " ms");
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            System.err.println("❌ Search index could not load books: " + e.getMessage());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                touchedDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            loading.set(false);
+        }
+    }
+
+    // ================= SEARCH =================
+    public SearchResult search(String query, String category, Integer limit) {
+        long start = System.nanoTime();
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty())
+            throw new IllegalArgumentException("q must contain a letter or digit");
+
+        int k = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        boolean lastIsPrefix = !Character.isWhitespace(query.charAt(query.length() - 1));
+        String filter = isBlank(category) ? null : category.trim();
+
+        SearchResult result = new SearchResult();
+        result.setQuery(query);
+        result.setCategory(filter);
+        searches.incrementAndGet();
+
+        Map<String, int[]> facets = new HashMap<>();
+        PriorityQueue<Hit> top = new PriorityQueue<>(RANK.reversed());
+        int total = 0;
+
+        lock.readLock().lock();
+        try {
+            for (Doc doc : candidates(terms, lastIsPrefix)) {
+                int score = score(doc, terms, lastIsPrefix);
+                if (score == 0)
+                    continue;
+
+                facets.computeIfAbsent(doc.category, c -> new int[1])[0]++;
+                if (filter != null && !doc.category.equalsIgnoreCase(filter))
+                    continue;
+
+                total++;
+                // Full heap: only a better hit replaces the worst one kept
+                if (top.size() == k) {
+                    Hit worst = top.peek();
+                    if (score < worst.score || (score == worst.score && RANK.compare(new Hit(doc, score), worst) >= 0))
+                        continue;
+                    top.poll();
+                }
+                top.add(new Hit(doc, score));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(RANK);
+        for (Hit hit : hits)
+            result.getHits().add(hit.doc.book);
+
+        facets.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<String, int[]>>comparingInt(e -> -e.getValue()[0])
+                        .thenComparing(Map.Entry::getKey))
+                .forEach(e -> result.getFacets().put(e.getKey(), e.getValue()[0]));
+
+        result.setTotal(total);
+        result.setTookMicros((System.nanoTime() - start) / 1000);
+        return result;
+    }
+
+    /*
+     * Books of the rarest query term (caller holds the read lock).
+     * Whole-word terms first: their sizes are known and bound the
+     * prefix expansion, which stops as soon as it is not the rarest.
+     */
+    private Set<Doc> candidates(List<String> terms, boolean lastIsPrefix) {
+        int last = terms.size() - 1;
+        Set<Doc> best = null;
+        for (int i = 0; i < terms.size(); i++) {
+            if (i == last && lastIsPrefix)
+                continue;
+            Set<Doc> docsWithTerm = postings.get(terms.get(i));
+            if (docsWithTerm == null)
+                return Set.of();
+            if (best == null || docsWithTerm.size() < best.size())
+                best = docsWithTerm;
+        }
+        if (lastIsPrefix) {
+            Set<Doc> prefixed = prefixDocs(terms.get(last), best == null ? Integer.MAX_VALUE : best.size());
+            if (prefixed != null)
+                best = prefixed;
+        }
+        return best;
+    }
+
+    // Union over every term starting with prefix; null once larger than bound
+    private Set<Doc> prefixDocs(String prefix, int bound) {
+        Set<Doc> union = new HashSet<>();
+        for (Set<Doc> p : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            union.addAll(p);
+            if (union.size() > bound)
+                return null;
+        }
+        return union;
+    }
+
+    // 0 when some query term is missing from the book
+    private static int score(Doc doc, List<String> terms, boolean lastIsPrefix) {
+        int score = 0;
+        int last = terms.size() - 1;
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            int best = 0;
+
+            Integer exact = doc.terms.get(term);
+            if (exact != null)
+                best = 2 * Integer.highestOneBit(exact);
+
+            if (i == last && lastIsPrefix) {
+                for (Map.Entry<String, Integer> e : doc.terms.entrySet())
+                    if (e.getKey().startsWith(term))
+                        best = Math.max(best, Integer.highestOneBit(e.getValue()));
+            }
+
+            if (best == 0)
+                return 0;
+            score += best;
+        }
+        return score;
+    }
+
+    // ================= AUTOCOMPLETE =================
+    /*
+     * Completions of the last word, most frequent terms first:
+     * "harry pot" -> ["harry potter", "harry pottery", ...]
+     */
+    public List<String> suggest(String query, Integer limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || Character.isWhitespace(query.charAt(query.length() - 1)))
+            return List.of();
+
+        int k = limit == null ? 10 : Math.max(1, Math.min(limit, MAX_LIMIT));
+        String prefix = terms.get(terms.size() - 1);
+        String head = String.join(" ", terms.subList(0, terms.size() - 1));
+
+        PriorityQueue<Map.Entry<String, Integer>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        lock.readLock().lock();
+        try {
+            int scanned = 0;
+            for (Map.Entry<String, Set<Doc>> e : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet()) {
+                top.add(Map.entry(e.getKey(), e.getValue().size()));
+                if (top.size() > k)
+                    top.poll();
+                if (++scanned == MAX_SUGGEST_SCAN)
+                    break;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<String, Integer>> best = new ArrayList<>(top);
+        best.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        List<String> suggestions = new ArrayList<>(best.size());
+        for (Map.Entry<String, Integer> e : best)
+            suggestions.add(head.isEmpty() ? e.getKey() : head + " " + e.getKey());
+        return suggestions;
+    }
+
+    // ================= CATALOG LOOKUPS =================
+    // Category of an indexed book, null if the book is not (yet) indexed
+    public String categoryOf(String bookId) {
+        lock.readLock().lock();
+        try {
+            Doc doc = docs.get(bookId);
+            return doc == null ? null : doc.category;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Books per category, kept up to date on every put / remove
+    public Map<String, Integer> booksPerCategory() {
+        lock.readLock().lock();
+        try {
+            return new HashMap<>(booksPerCategory);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Copies owned per category (sum of quantity), kept next to booksPerCategory
+    public Map<String, Integer> copiesPerCategory() {
+        lock.readLock().lock();
+        try {
+            return new HashMap<>(copiesPerCategory);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Trimmed category, "Uncategorized" when missing (or no book)
+    public static String categoryName(Book book) {
+        return book == null || isBlank(book.getCategory()) ? UNCATEGORIZED : book.getCategory().trim();
+    }
+
+    public boolean isLoading() {
+        return loading.get();
+    }
+
+    // ================= TEXT =================
+    private static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null)
+            return terms;
+        for (String t : SPLIT.split(text.toLowerCase(Locale.ROOT)))
+            if (!t.isEmpty())
+                terms.add(t);
+        return terms;
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int field) {
+        for (String t : tokenize(text))
+            terms.merge(t, field, (a, b) -> a | b);
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.trim().isEmpty();
+    }
+
+    // ================= METRICS =================
+    public Map<String, Object> stats() {
+        int books;
+        int terms;
+        lock.readLock().lock();
+        try {
+            books = docs.size();
+            terms = postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("books", books);
+        stats.put("terms", terms);
+        stats.put("loading", loading.get());
+        stats.put("loadedAt", loadedAt);
+        stats.put("loadMillis", loadMillis);
+        stats.put("searches", searches.get());
+        stats.put("updates", updates.get());
+        stats.put("lastError", lastError);
+        return stats;
+    }
+}
@@ -0,0 +1,403 @@
+package com.example.library_management.service;
+
+import com.example.library_management.model.CirculationStats;
+import com.example.library_management.model.Issue;
+import com.example.library_management.model.Page;
+import com.example.library_management.repository.LibraryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * CirculationAnalytics
+ * --------------------
+ * Circulation numbers for /api/analytics, kept up to date as issues and
+ * returns happen instead of being crunched from an export.
+ *
+ * Every loan event is added to 3 granularities x 3 dimensions:
+ *   day 2026-10-18 | week 2026-W42 | month 2026-10
+ *   x  all | category:CSE | student:S1
+ * Issues count in the period of their issueDate, returns (with loan
+ * days and "late" = after dueDate) in the period of their returnDate.
+ *
+ * DSA Concepts:
+ *  - HashMap periodKey -> (dimension -> counters): a query is two
+ *    lookups, O(1) whatever the history size
+ *  - LongAdder counters: concurrent events never block each other
+ *  - A set of loan keys already counted makes every event idempotent,
+ *    so the backfill and live events may overlap in any order
+ *
+ * Sources:
+ *  - Live: IssueChangedEvent (published by FirebaseService)
+ *  - Backfill: one paged pass over the issues collection, at startup or
+ *    POST /api/analytics/backfill. Every loan keeps its own issue record;
+ *    only loans from before copies existed were keyed by bookId, and those
+ *    replaced before this service counted them cannot be recovered
+ *
+ * Everything is in memory and rebuilt by the backfill after a restart.
+ */
+@Component
+public class CirculationAnalytics {
+
+    public static final String DAY = "day";
+    public static final String WEEK = "week";
+    public static final String MONTH = "month";
+
+    private static final List<String> GRANULARITIES = List.of(DAY, WEEK, MONTH);
+    private static final int BACKFILL_PAGE_SIZE = 500;
+    private static final int MAX_SERIES_BUCKETS = 400;
+    private static final String ALL = "all";
+    private static final String CATEGORY = "category:";
+    private static final String STUDENT = "student:";
+
+    private final LibraryRepository repository;
+    private final CatalogSearchIndex catalog;
+    private final boolean backfillOnStartup;
+
+    // "day:2026-10-18" -> dimension -> counters
+    private final Map<String, Map<String, Rollup>> buckets = new ConcurrentHashMap<>();
+    // dimension -> loans out right now
+    private final Map<String, LongAdder> openLoans = new ConcurrentHashMap<>();
+    // Loans already counted: "issueId|issueDate|studentId", plus "|returned"
+    private final Set<String> counted = ConcurrentHashMap.newKeySet();
+
+    // ---- Backfill progress ----
+    private final AtomicBoolean backfilling = new AtomicBoolean();
+    private final AtomicLong backfillIssuesRead = new AtomicLong();
+    private final AtomicLong events = new AtomicLong();
+    private volatile String backfillStartedAt;
+    private volatile String backfillFinishedAt;
+    private volatile String lastError;
+
+    private static class Rollup {
+        final LongAdder issued = new LongAdder();
+        final LongAdder returned = new LongAdder();
+        final LongAdder late = new LongAdder();
+        final LongAdder loanDays = new LongAdder();
+    }
+
+    public CirculationAnalytics(
+            LibraryRepository repository,
+            CatalogSearchIndex catalog,
+            @Value("${library.analytics.backfill-on-startup:true}") boolean backfillOnStartup) {
+
+        this.repository = repository;
+        this.catalog = catalog;
+        this.backfillOnStartup = backfillOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!backfillOnStartup)
+            return;
+        if (!repository.isAvailable()) {
+            System.out.println("⚠️  Storage not available, analytics start empty");
+            return;
+        }
+        backfill();
+    }
+
+    // ================= LIVE EVENTS =================
+    @EventListener
+    public void onIssueChanged(IssueChangedEvent event) {
+        Issue issue = event.getIssue();
+        String category = catalog.categoryOf(issue.getBookId());
+        if (category != null) {
+            record(issue, category);
+            return;
+        }
+        // Book not in the search index (yet): one lookup
+        repository.findBookAsync(issue.getBookId())
+                .whenComplete((book, error) -> record(issue, CatalogSearchIndex.categoryName(book)));
+    }
+
+    /*
+     * Adds whatever part of this loan was not counted before:
+     * the issue, the return, or both (backfill of a returned loan).
+     */
+    private void record(Issue issue, String category) {
+        LocalDate issuedOn = parseDate(issue.getIssueDate());
+        if (issuedOn == null || issue.getBookId() == null)
+            return;
+        LocalDate returnedOn = parseDate(issue.getReturnDate());
+
+        String key = issue.getId() + "|" + issue.getIssueDate() + "|" + issue.getStudentId();
+        boolean newIssue = counted.add(key);
+        boolean newReturn = returnedOn != null && counted.add(key + "|returned");
+        if (!newIssue && !newReturn)
+            return;
+        events.incrementAndGet();
+
+        List<String> dimensions = new ArrayList<>(3);
+        dimensions.add(ALL);
+        dimensions.add(CATEGORY + category);
+        if (issue.getStudentId() != null && !issue.getStudentId().isBlank())
+            dimensions.add(STUDENT + issue.getStudentId());
+
+        LocalDate dueOn = parseDate(issue.getDueDate());
+        boolean late = returnedOn != null && dueOn != null && returnedOn.isAfter(dueOn);
+        long loanDays = returnedOn == null ? 0 : Math.max(0, ChronoUnit.DAYS.between(issuedOn, returnedOn));
+
+        for (String dimension : dimensions) {
+            for (String granularity : GRANULARITIES) {
+                if (newIssue)
+                    rollup(granularity, issuedOn, dimension).issued.increment();
+                if (newReturn) {
+                    Rollup r = rollup(granularity, returnedOn, dimension);
+                    r.returned.increment();
+                    r.loanDays.add(loanDays);
+                    if (late)
+                        r.late.increment();
+                }
+            }
+            // Out: counted issue without a counted return
+            LongAdder open = openLoans.computeIfAbsent(dimension, d -> new LongAdder());
+            if (newIssue)
+                open.increment();
+            if (newReturn)
+                open.decrement();
+        }
+    }
+
+    private Rollup rollup(String granularity, LocalDate date, String dimension) {
+        return buckets.computeIfAbsent(periodKey(granularity, date), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(dimension, d -> new Rollup());
+    }
+
+    // ================= BACKFILL =================
+    // Streams the issues collection in the background; false if already running
+    public boolean backfill() {
+        if (!backfilling.compareAndSet(false, true))
+            return false;
+        Thread worker = new Thread(this::runBackfill, "analytics-backfill");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    private void runBackfill() {
+        backfillStartedAt = Instant.now().toString();
+        backfillFinishedAt = null;
+        backfillIssuesRead.set(0);
+        try {
+            // Categories come from the search index: let it finish loading first
+            for (int i = 0; i < 600 && catalog.isLoading(); i++)
+                TimeUnit.MILLISECONDS.sleep(500);
+
+            Map<String, String> categories = new HashMap<>();
+            String token = null;
+            do {
+                Page<Issue> page = repository.findIssues(null, null, BACKFILL_PAGE_SIZE, token);
+                for (Issue issue : page.getItems()) {
+                    record(issue, category(issue.getBookId(), categories));
+                    backfillIssuesRead.incrementAndGet();
+                }
+                token = page.getNextPageToken();
+            } while (token != null);
+
+            backfillFinishedAt = Instant.now().toString();
+            System.out.println("📊 Analytics backfill read " + backfillIssuesRead.get() + " issues");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            System.err.println("❌ Analytics backfill failed: " + e.getMessage());
+        } finally {
+            backfilling.set(false);
+        }
+    }
+
+    // Search index first, then one store read per book not in it
+    private String category(String bookId, Map<String, String> looked) throws Exception {
+        String category = catalog.categoryOf(bookId);
+        if (category != null)
+            return category;
+        String known = looked.get(bookId);
+        if (known != null)
+            return known;
+        category = CatalogSearchIndex.categoryName(repository.findBook(bookId));
+        looked.put(bookId, category);
+        return category;
+    }
+
+    // ================= QUERIES =================
+    // One bucket: all loans, or one category / student when dimension is given
+    public CirculationStats stats(String granularity, String period, String dimension) {
+        String g = granularity(granularity);
+        LocalDate date = parsePeriod(g, period);
+        return snapshot(g, date, dimension == null ? ALL : dimension);
+    }
+
+    public CirculationStats summary(String granularity, String period) {
+        return stats(granularity, period, ALL);
+    }
+
+    public CirculationStats student(String studentId, String granularity, String period) {
+        return stats(granularity, period, STUDENT + studentId);
+    }
+
+    // Every category of the catalog (or with loans), with utilisation
+    public List<CirculationStats> categories(String granularity, String period) {
+        String g = granularity(granularity);
+        LocalDate date = parsePeriod(g, period);
+        Map<String, Integer> books = catalog.booksPerCategory();
+        Map<String, Integer> copies = catalog.copiesPerCategory();
+
+        Set<String> names = new TreeSet<>(books.keySet());
+        Map<String, Rollup> bucket = buckets.getOrDefault(periodKey(g, date), Map.of());
+        for (String dimension : bucket.keySet())
+            if (dimension.startsWith(CATEGORY))
+                names.add(dimension.substring(CATEGORY.length()));
+        for (String dimension : openLoans.keySet())
+            if (dimension.startsWith(CATEGORY))
+                names.add(dimension.substring(CATEGORY.length()));
+
+        List<CirculationStats> result = new ArrayList<>(names.size());
+        for (String name : names) {
+            CirculationStats stats = snapshot(g, date, CATEGORY + name);
+            int owned = copies.getOrDefault(name, 0);
+            stats.setBooks(books.getOrDefault(name, 0));
+            stats.setCopies(owned);
+            // Loans are per copy, so utilisation is against copies, not titles
+            stats.setUtilisation(owned == 0 ? null : (double) stats.getOpenLoans() / owned);
+            result.add(stats);
+        }
+        return result;
+    }
+
+    // Consecutive buckets from..to (inclusive), at most MAX_SERIES_BUCKETS
+    public List<CirculationStats> series(String granularity, String from, String to, String dimension) {
+        String g = granularity(granularity);
+        LocalDate end = parsePeriod(g, to);
+        LocalDate start = from == null ? minus(g, end, 29) : parsePeriod(g, from);
+        if (start.isAfter(end))
+            throw new IllegalArgumentException("from must not be after to");
+
+        List<CirculationStats> series = new ArrayList<>();
+        for (LocalDate d = start; !d.isAfter(end); d = plusOne(g, d)) {
+            if (series.size() == MAX_SERIES_BUCKETS)
+                throw new IllegalArgumentException("At most " + MAX_SERIES_BUCKETS + " buckets per request");
+            series.add(snapshot(g, d, dimension == null ? ALL : dimension));
+        }
+        return series;
+    }
+
+    private CirculationStats snapshot(String granularity, LocalDate date, String dimension) {
+        String key = periodKey(granularity, date);
+        Rollup r = buckets.getOrDefault(key, Map.of()).get(dimension);
+
+        CirculationStats stats = new CirculationStats();
+        stats.setGranularity(granularity);
+        stats.setPeriod(key.substring(granularity.length() + 1));
+        stats.setDimension(dimension);
+        if (r != null) {
+            long returned = r.returned.sum();
+            stats.setIssued(r.issued.sum());
+            stats.setReturned(returned);
+            stats.setLateReturns(r.late.sum());
+            stats.setLateReturnRate(returned == 0 ? 0 : (double) r.late.sum() / returned);
+            stats.setAverageLoanDays(returned == 0 ? 0 : (double) r.loanDays.sum() / returned);
+        }
+        LongAdder open = openLoans.get(dimension);
+        stats.setOpenLoans(open == null ? 0 : open.sum());
+        return stats;
+    }
+
+    // ================= PERIODS =================
+    private static String granularity(String granularity) {
+        String g = granularity == null ? DAY : granularity.trim().toLowerCase();
+        if (!GRANULARITIES.contains(g))
+            throw new IllegalArgumentException("granularity must be day, week or month");
+        return g;
+    }
+
+    // "day:2026-10-18" | "week:2026-W42" | "month:2026-10"
+    private static String periodKey(String granularity, LocalDate date) {
+        return switch (granularity) {
+            case WEEK -> WEEK + ":" + date.get(IsoFields.WEEK_BASED_YEAR)
+                    + "-W" + String.format("%02d", date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case MONTH -> MONTH + ":" + YearMonth.from(date);
+            default -> DAY + ":" + date;
+        };
+    }
+
+    // Accepts a date, or 2026-W42 for weeks / 2026-10 for months; null = today
+    private static LocalDate parsePeriod(String granularity, String period) {
+        if (period == null || period.isBlank())
+            return LocalDate.now();
+        String p = period.trim();
+        try {
+            if (WEEK.equals(granularity) && p.contains("-W")) {
+                String[] parts = p.split("-W");
+                return LocalDate.of(Integer.parseInt(parts[0]), 1, 4)
+                        .with(IsoFields.WEEK_OF_WEEK_BASED_YEAR, Integer.parseInt(parts[1]))
+                        .with(DayOfWeek.MONDAY);
+            }
+            if (MONTH.equals(granularity) && p.length() == 7)
+                return YearMonth.parse(p).atDay(1);
+            return LocalDate.parse(p);
+        } catch (DateTimeException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Bad period for " + granularity + ": " + period);
+        }
+    }
+
+    private static LocalDate plusOne(String granularity, LocalDate date) {
+        return switch (granularity) {
+            case WEEK -> date.plusWeeks(1);
+            case MONTH -> date.plusMonths(1);
+            default -> date.plusDays(1);
+        };
+    }
+
+    private static LocalDate minus(String granularity, LocalDate date, int buckets) {
+        return switch (granularity) {
+            case WEEK -> date.minusWeeks(buckets);
+            case MONTH -> date.minusMonths(buckets);
+            default -> date.minusDays(buckets);
+        };
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null || value.isBlank())
+            return null;
+        try {
+            return LocalDate.parse(value.length() > 10 ? value.substring(0, 10) : value);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    // ================= STATUS =================
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("backfillRunning", backfilling.get());
+        status.put("backfillStartedAt", backfillStartedAt);
+        status.put("backfillFinishedAt", backfillFinishedAt);
+        status.put("backfillIssuesRead", backfillIssuesRead.get());
+        status.put("eventsCounted", events.get());
+        status.put("buckets", buckets.size());
+        status.put("lastError", lastError);
+        return status;
+    }
+}
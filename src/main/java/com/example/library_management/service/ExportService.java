@@ -0,0 +1,132 @@
+package com.example.library_management.service;
+
+import com.example.library_management.model.Page;
+import com.example.library_management.repository.LibraryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.function.Function;
+
+/*
+ * ExportService
+ * -------------
+ * Full dumps of books / students / issues / logs as CSV or NDJSON.
+ *
+ * Constant memory:
+ *  - Reads the collection page by page with the repository cursors
+ *    (page-size documents at a time), straight from storage - no cache
+ *  - Each page is written and flushed to the response before the next
+ *    one is fetched, so heap use is one page whatever the collection size
+ *
+ * CSV: header row + RFC 4180 quoting. NDJSON: one JSON object per line.
+ */
+@Service
+public class ExportService {
+
+    public static final Set<String> COLLECTIONS = Set.of("books", "students", "issues", "logs");
+    public static final Set<String> FORMATS = Set.of("csv", "ndjson");
+
+    private final LibraryRepository repository;
+    private final int pageSize;
+    private final ObjectWriter json = new ObjectMapper().writer();
+
+    @FunctionalInterface
+    private interface PageSource<T> {
+        Page<T> page(int limit, String pageToken) throws Exception;
+    }
+
+    public ExportService(LibraryRepository repository,
+            @Value("${library.export.page-size:500}") int pageSize) {
+        this.repository = repository;
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    // Throws IllegalArgumentException before anything is streamed
+    public void validate(String collection, String format) {
+        if (!COLLECTIONS.contains(collection))
+            throw new IllegalArgumentException("Unknown collection: " + collection);
+        if (!FORMATS.contains(format))
+            throw new IllegalArgumentException("Unsupported format: " + format + " (use csv or ndjson)");
+        if (!repository.isAvailable())
+            throw new IllegalStateException("Storage not available");
+    }
+
+    // Writes the whole collection to out; returns the number of rows
+    public long export(String collection, String format, OutputStream out) throws Exception {
+        validate(collection, format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        boolean csv = "csv".equals(format);
+
+        long rows = switch (collection) {
+            case "books" -> write(writer, csv, repository::findBooks,
+                    new String[] { "id", "title", "author", "category", "quantity", "issued", "issuedTo" },
+                    b -> new Object[] { b.getId(), b.getTitle(), b.getAuthor(), b.getCategory(),
+                            b.getQuantity(), b.isIssued(), b.getIssuedTo() });
+            case "students" -> write(writer, csv, repository::findStudents,
+                    new String[] { "id", "name", "email" },
+                    s -> new Object[] { s.getId(), s.getName(), s.getEmail() });
+            case "issues" -> write(writer, csv, (limit, token) -> repository.findIssues(null, null, limit, token),
+                    new String[] { "id", "bookId", "copyId", "bookTitle", "studentId", "studentName",
+                            "issueDate", "dueDate", "returnDate", "reminderSent" },
+                    i -> new Object[] { i.getId(), i.getBookId(), i.getCopyId(), i.getBookTitle(), i.getStudentId(),
+                            i.getStudentName(), i.getIssueDate(), i.getDueDate(), i.getReturnDate(),
+                            i.isReminderSent() });
+            default -> write(writer, csv, repository::findLogs,
+                    new String[] { "id", "epochMillis", "timestamp", "actionType", "description", "user" },
+                    l -> new Object[] { l.getId(), l.getEpochMillis(), l.getTimestamp(), l.getActionType(),
+                            l.getDescription(), l.getUser() });
+        };
+        writer.flush();
+        return rows;
+    }
+
+    private <T> long write(Writer writer, boolean csv, PageSource<T> source,
+            String[] header, Function<T, Object[]> columns) throws Exception {
+        if (csv)
+            writeCsvRow(writer, header);
+
+        long rows = 0;
+        String token = null;
+        do {
+            Page<T> page = source.page(pageSize, token);
+            for (T item : page.getItems()) {
+                if (csv) {
+                    writeCsvRow(writer, columns.apply(item));
+                } else {
+                    writer.write(json.writeValueAsString(item));
+                    writer.write('\n');
+                }
+                rows++;
+            }
+            // Push the page to the client before reading the next one
+            writer.flush();
+            token = page.getNextPageToken();
+        } while (token != null);
+        return rows;
+    }
+
+    private static void writeCsvRow(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0)
+                writer.write(',');
+            if (values[i] != null)
+                writer.write(csvField(values[i].toString()));
+        }
+        writer.write("\r\n");
+    }
+
+    private static String csvField(String value) {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+}
@@ -1,166 +1,308 @@
 package com.example.library_management.service;
 
+import com.example.library_management.cache.TtlCache;
+import com.example.library_management.config.WorkerThreads;
 import com.example.library_management.model.*;
-import com.google.cloud.firestore.*;
-import com.google.firebase.FirebaseApp;
-import com.google.firebase.cloud.FirestoreClient;
+import com.example.library_management.repository.Futures;
+import com.example.library_management.repository.LibraryCounters;
+import com.example.library_management.repository.LibraryRepository;
+import com.example.library_management.repository.LogIds;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/*
+ * Library operations on top of a LibraryRepository.
+ * The storage backend is picked by Spring profile (see LibraryRepository);
+ * this class only holds the business rules, the cache and the audit log.
+ */
 @Service
 public class FirebaseService {
 
-    private static final String COL_BOOKS = "books";
-    private static final String COL_STUDENTS = "students";
-    private static final String COL_ISSUES = "issues";
-    private static final String COL_LOGS = "logs";
+    // Fine rule shared with dashboard.js: 2 grace days, then ₹2 per day
+    private static final int FINE_GRACE_DAYS = 2;
+    private static final int FINE_PER_DAY = 2;
+    private static final int DASHBOARD_LIST_SIZE = 5;
+
+    // ---- Paging: every list endpoint is bounded ----
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    /*
+     * ---- Read-through caches ----
+     * Catalog reads outnumber writes ~50:1 and every Firestore read is billed,
+     * so point lookups and list pages are cached. Every write below
+     * invalidates exactly the entries it can affect.
+     * Skipped when the repository already answers from memory.
+     */
+    private final TtlCache<String, Book> bookCache;
+    private final TtlCache<String, Student> studentCache;
+    private final TtlCache<String, Issue> issueCache;
+    private final TtlCache<String, Page<Book>> bookPages;
+    private final TtlCache<String, Page<Student>> studentPages;
+    private final TtlCache<String, Page<Issue>> issuePages;
+    private final TtlCache<String, DashboardSummary> summaryCache;
+
+    private final LibraryRepository repository;
+    private final AuditLogWriter auditLog;
+    private final ApplicationEventPublisher events;
+    private final RecentLogBuffer recentLogs;
+    private final LogArchiver logArchiver;
+
+    /*
+     * Async issue/return finish here, not on the thread that completed the
+     * store future: Firestore completes it on its gRPC callback thread
+     * (Futures.toCompletable bridges with directExecutor), and the audit
+     * submit may block on a full queue while the event listeners run
+     * synchronously. Those must not stall the transport.
+     */
+    private final ExecutorService completions;
+
+    public FirebaseService(
+            LibraryRepository repository,
+            AuditLogWriter auditLog,
+            ApplicationEventPublisher events,
+            RecentLogBuffer recentLogs,
+            LogArchiver logArchiver,
+            WorkerThreads threads,
+            @Value("${library.loans.completion-threads:4}") int completionThreads,
+            @Value("${library.cache.document-ttl-seconds:300}") long documentTtlSeconds,
+            @Value("${library.cache.page-ttl-seconds:30}") long pageTtlSeconds,
+            @Value("${library.cache.summary-ttl-seconds:10}") long summaryTtlSeconds,
+            @Value("${library.cache.max-documents:10000}") int maxDocuments,
+            @Value("${library.cache.max-pages:1000}") int maxPages) {
+
+        this.repository = repository;
+        this.auditLog = auditLog;
+        this.events = events;
+        this.recentLogs = recentLogs;
+        this.logArchiver = logArchiver;
+        this.completions = Executors.newFixedThreadPool(Math.max(1, completionThreads), threads.factory("loan-completion"));
+
+        long docTtl = documentTtlSeconds * 1000;
+        long pageTtl = pageTtlSeconds * 1000;
+
+        this.bookCache = new TtlCache<>("books", docTtl, maxDocuments);
+        this.studentCache = new TtlCache<>("students", docTtl, maxDocuments);
+        this.issueCache = new TtlCache<>("issues", docTtl, maxDocuments);
+        this.bookPages = new TtlCache<>("bookPages", pageTtl, maxPages);
+        this.studentPages = new TtlCache<>("studentPages", pageTtl, maxPages);
+        this.issuePages = new TtlCache<>("issuePages", pageTtl, maxPages);
+        this.summaryCache = new TtlCache<>("dashboardSummary", summaryTtlSeconds * 1000, 4);
+    }
 
-    private boolean isFirebaseAvailable() {
-        try {
-            return !FirebaseApp.getApps().isEmpty();
-        } catch (Exception e) {
-            return false;
-        }
+    @PreDestroy
+    public void shutdown() {
+        completions.shutdown();
     }
 
     // ================= BOOKS =================
     public String addBook(Book book) throws Exception {
-        FirestoreClient.getFirestore()
-                .collection(COL_BOOKS)
-                .document(book.getId())
-                .set(book)
-                .get();
+        // Copies owned: a book without a quantity is one copy, never zero
+        if (book.getQuantity() <= 0)
+            book.setQuantity(1);
+        try {
+            repository.saveBook(book);
+        } finally {
+            bookChanged(book.getId());
+        }
 
+        events.publishEvent(BookChangedEvent.saved(book));
         saveLog("ADD_BOOK", "Added book: " + book.getTitle());
         return "Book added successfully";
     }
 
-    public List<Book> getAllBooks() throws Exception {
-        if (!isFirebaseAvailable()) {
-            System.out.println("⚠️  Firebase not available, returning empty list");
-            return new ArrayList<>();
+    public Page<Book> getBooksPage(Integer limit, String pageToken) throws Exception {
+        if (!repository.isAvailable()) {
+            System.out.println("⚠️  Storage not available, returning empty page");
+            return new Page<>();
         }
-        return FirestoreClient.getFirestore()
-                .collection(COL_BOOKS)
-                .get()
-                .get()
-                .toObjects(Book.class);
+        return cached(bookPages, pageKey(limit, pageToken),
+                () -> repository.findBooks(pageSize(limit), pageToken));
+    }
+
+    // Point lookup, served from cache when possible
+    public Book getBook(String id) throws Exception {
+        if (!repository.isAvailable())
+            return null;
+        return cached(bookCache, id, () -> repository.findBook(id));
     }
 
     public String deleteBook(String id) {
-        FirestoreClient.getFirestore()
-                .collection(COL_BOOKS)
-                .document(id)
-                .delete();
+        try {
+            repository.deleteBook(id);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return "Delete failed";
+        } finally {
+            bookChanged(id);
+        }
 
+        events.publishEvent(BookChangedEvent.deleted(id));
         saveLog("DELETE_BOOK", "Deleted book: " + id);
         return "Book deleted successfully";
     }
 
     // ================= STUDENTS =================
     public String addStudent(Student student) throws Exception {
-        FirestoreClient.getFirestore()
-                .collection(COL_STUDENTS)
-                .document(student.getId())
-                .set(student)
-                .get();
+        try {
+            repository.saveStudent(student);
+        } finally {
+            studentChanged(student.getId());
+        }
 
         saveLog("REGISTER", "Registered student: " + student.getName());
         return "Student added successfully";
     }
 
-    public List<Student> getAllStudents() throws Exception {
-        if (!isFirebaseAvailable()) {
-            System.out.println("⚠️  Firebase not available, returning empty list");
-            return new ArrayList<>();
+    public Page<Student> getStudentsPage(Integer limit, String pageToken) throws Exception {
+        if (!repository.isAvailable()) {
+            System.out.println("⚠️  Storage not available, returning empty page");
+            return new Page<>();
         }
-        return FirestoreClient.getFirestore()
-                .collection(COL_STUDENTS)
-                .get()
-                .get()
-                .toObjects(Student.class);
+        return cached(studentPages, pageKey(limit, pageToken),
+                () -> repository.findStudents(pageSize(limit), pageToken));
+    }
+
+    public Student getStudent(String id) throws Exception {
+        if (!repository.isAvailable())
+            return null;
+        return cached(studentCache, id, () -> repository.findStudent(id));
     }
 
     // ✅ DELETE STUDENT (FIXED PLACE)
     public String deleteStudent(String id) {
-
-        FirestoreClient.getFirestore()
-                .collection(COL_STUDENTS)
-                .document(id)
-                .delete();
+        try {
+            repository.deleteStudent(id);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return "Delete failed";
+        } finally {
+            studentChanged(id);
+        }
 
         saveLog("DELETE_STUDENT", "Deleted student: " + id);
         return "Student deleted successfully";
     }
 
     // ================= ISSUE BOOK =================
+    /*
+     * Book + student check, copy pick, issue write and the title's
+     * copies-out count happen in ONE repository transaction, so two
+     * librarians can never lend the same copy. The book record itself
+     * is not written, so its caches stay valid.
+     */
     public String issueBook(Issue issue) throws Exception {
 
-        Firestore db = FirestoreClient.getFirestore();
-
-        Book book = db.collection(COL_BOOKS)
-                .document(issue.getBookId())
-                .get()
-                .get()
-                .toObject(Book.class);
+        if (isBlank(issue.getBookId()) || isBlank(issue.getStudentId()))
+            return "Invalid Book ID or Student ID";
 
-        Student student = db.collection(COL_STUDENTS)
-                .document(issue.getStudentId())
-                .get()
-                .get()
-                .toObject(Student.class);
+        prepareIssue(issue);
+        try {
+            repository.issueBook(issue);
+        } catch (IllegalStateException e) {
+            return e.getMessage();
+        } finally {
+            issueChanged(issue.getId());
+        }
 
-        if (book == null || student == null)
-            return "Invalid Book ID or Student ID";
+        events.publishEvent(new IssueChangedEvent(issue));
+        events.publishEvent(BookChangedEvent.changed(issue.getBookId()));
+        saveLog("ISSUE", "Issued " + issue.getBookTitle() + " to " + issue.getStudentName());
+        return "Book issued successfully";
+    }
 
+    private void prepareIssue(Issue issue) {
         LocalDate today = LocalDate.now();
 
-        issue.setBookTitle(book.getTitle());
-        issue.setStudentName(student.getName());
+        // One record per loan, so a title's loan history is never overwritten
+        issue.setId(newIssueId(issue.getBookId()));
+        issue.setCopyId(null);
         issue.setIssueDate(today.toString());
         issue.setDueDate(today.plusDays(14).toString());
         issue.setReturnDate(null);
         issue.setReminderSent(false);
+    }
 
-        db.collection(COL_ISSUES)
-                .document(issue.getBookId())
-                .set(issue)
-                .get();
+    // "<bookId>-<epochMillis base 36>-<4 hex>": unique, and a title's loans sort together
+    private static String newIssueId(String bookId) {
+        return bookId + "-" + Long.toString(System.currentTimeMillis(), 36)
+                + "-" + String.format("%04x", ThreadLocalRandom.current().nextInt(0x10000));
+    }
 
-        saveLog("ISSUE", "Issued " + book.getTitle() + " to " + student.getName());
-        return "Book issued successfully";
+    // Copies owned / out / on the shelf (O(1) in every backend, never cached)
+    public Availability getAvailability(String bookId) throws Exception {
+        if (!repository.isAvailable() || isBlank(bookId))
+            return null;
+        return repository.findAvailability(bookId.trim());
+    }
+
+    /*
+     * status: open | returned | overdue (optional)
+     * sort:   dueDate | issueDate (optional)
+     * Filtering happens in the store, so cost follows the result size.
+     */
+    public Page<Issue> getIssuesPage(String status, String sort, Integer limit, String pageToken) throws Exception {
+        if (!repository.isAvailable()) {
+            System.out.println("⚠️  Storage not available, returning empty page");
+            return new Page<>();
+        }
+        String key = "issues|" + status + "|" + sort + "|" + pageKey(limit, pageToken);
+        return cached(issuePages, key,
+                () -> repository.findIssues(status, sort, pageSize(limit), pageToken));
+    }
+
+    public Issue getIssue(String issueId) throws Exception {
+        if (!repository.isAvailable())
+            return null;
+        return cached(issueCache, issueId, () -> repository.findIssue(issueId));
     }
 
-    public List<Issue> getAllIssues() throws Exception {
-        if (!isFirebaseAvailable()) {
-            System.out.println("⚠️  Firebase not available, returning empty list");
-            return new ArrayList<>();
+    // All loans of one student, newest first
+    public Page<Issue> getStudentIssuesPage(String studentId, Integer limit, String pageToken) throws Exception {
+        if (!repository.isAvailable()) {
+            System.out.println("⚠️  Storage not available, returning empty page");
+            return new Page<>();
         }
-        return FirestoreClient.getFirestore()
-                .collection(COL_ISSUES)
-                .get()
-                .get()
-                .toObjects(Issue.class);
+        return cached(issuePages, "student|" + studentId + "|" + pageKey(limit, pageToken),
+                () -> repository.findIssuesByStudent(studentId, pageSize(limit), pageToken));
     }
 
     // ================= RETURN BOOK =================
-    public String returnBook(String bookId) {
+    public String returnBook(String issueId) {
         try {
-            Firestore db = FirestoreClient.getFirestore();
-            DocumentReference ref = db.collection(COL_ISSUES).document(bookId);
-            DocumentSnapshot snap = ref.get().get();
-
-            if (!snap.exists())
+            Issue issue;
+            try {
+                issue = repository.returnBook(issueId, LocalDate.now().toString());
+            } catch (IllegalStateException e) {
+                return e.getMessage();
+            } finally {
+                issueChanged(issueId);
+            }
+
+            if (issue == null)
                 return "Issue not found";
+            returnedCopy(issue);
 
-            Issue issue = snap.toObject(Issue.class);
-            issue.setReturnDate(LocalDate.now().toString());
-
-            ref.set(issue);
+            events.publishEvent(new IssueChangedEvent(issue));
+            events.publishEvent(BookChangedEvent.changed(issue.getBookId()));
             saveLog("RETURN", "Returned " + issue.getBookTitle());
             return "Book returned successfully";
 
@@ -170,41 +312,328 @@ public class FirebaseService {
         }
     }
 
+    // ================= REMINDERS =================
+    // Claims (sent=true) or releases (sent=false) the one reminder of an open issue
+    public boolean markReminderSent(String issueId, boolean sent) throws Exception {
+        try {
+            return repository.markReminderSent(issueId, sent);
+        } finally {
+            issueChanged(issueId);
+        }
+    }
+
+    // ================= BULK IMPORT =================
+    // One import chunk; returns how many documents were new
+    public int saveBooksBatch(List<Book> books) throws Exception {
+        int created;
+        try {
+            created = repository.saveBooks(books);
+        } finally {
+            books.forEach(b -> bookCache.invalidate(b.getId()));
+            bookPages.invalidateAll();
+            summaryCache.invalidateAll();
+        }
+        books.forEach(b -> events.publishEvent(BookChangedEvent.saved(b)));
+        return created;
+    }
+
+    public int saveStudentsBatch(List<Student> students) throws Exception {
+        try {
+            return repository.saveStudents(students);
+        } finally {
+            students.forEach(s -> studentCache.invalidate(s.getId()));
+            studentPages.invalidateAll();
+            summaryCache.invalidateAll();
+        }
+    }
+
+    public void importFinished(String collection, long imported, long failed) {
+        saveLog("IMPORT", "Imported " + imported + " " + collection + " (" + failed + " rows rejected)");
+    }
+
+    public boolean isStorageAvailable() {
+        return repository.isAvailable();
+    }
+
+    // ================= DASHBOARD =================
+    /*
+     * Reads the counters plus two small bounded queries.
+     * Cost is constant: it does NOT grow with the size of the library.
+     */
+    public DashboardSummary getDashboardSummary() throws Exception {
+        if (!repository.isAvailable()) {
+            System.out.println("⚠️  Storage not available, returning empty summary");
+            return new DashboardSummary();
+        }
+        // Keyed by date: overdue totals change at midnight even without writes
+        return summaryCache.get(LocalDate.now().toString(),
+                () -> Futures.await(loadDashboardSummaryAsync()));
+    }
+
+    // The three reads are independent: issue them together, wait once
+    private CompletableFuture<DashboardSummary> loadDashboardSummaryAsync() {
+        CompletableFuture<LibraryCounters> counters = repository.loadCountersAsync();
+        CompletableFuture<Page<Issue>> overdue =
+                repository.findIssuesAsync("overdue", null, DASHBOARD_LIST_SIZE, null);
+        CompletableFuture<Page<Issue>> recent =
+                repository.findIssuesAsync(null, "issueDate", DASHBOARD_LIST_SIZE, null);
+
+        return CompletableFuture.allOf(counters, overdue, recent)
+                .thenApply(v -> buildDashboardSummary(
+                        counters.join(), overdue.join().getItems(), recent.join().getItems()));
+    }
+
+    private DashboardSummary buildDashboardSummary(LibraryCounters counters,
+            List<Issue> overdueIssues, List<Issue> recentIssues) {
+        DashboardSummary summary = new DashboardSummary();
+        LocalDate today = LocalDate.now();
+
+        summary.setTotalBooks(counters.getBooks());
+        summary.setMembers(counters.getMembers());
+        summary.setBorrowed(counters.getBorrowed());
+        summary.setReturned(counters.getReturned());
+
+        long overdue = 0;
+        long fine = 0;
+        for (Map.Entry<String, Long> e : counters.getOpenDue().entrySet()) {
+            long count = e.getValue() == null ? 0 : e.getValue();
+            if (count <= 0)
+                continue;
+            LocalDate due = LocalDate.parse(e.getKey());
+            if (due.isBefore(today)) {
+                overdue += count;
+                fine += count * calculateFine(due, today);
+            }
+        }
+        summary.setOverdue(overdue);
+        summary.setOutstandingFine(fine);
+
+        summary.setOverdueIssues(overdueIssues);
+        summary.setRecentIssues(recentIssues);
+        return summary;
+    }
+
+    /*
+     * One-off full recount of the dashboard counters.
+     * Only needed for data written before the counters existed
+     * (or to repair drift). Run it while nobody is issuing books.
+     */
+    public String rebuildDashboardCounters() throws Exception {
+        repository.rebuildCounters();
+        summaryCache.invalidateAll();
+
+        saveLog("REBUILD_STATS", "Rebuilt dashboard counters");
+        return "Dashboard counters rebuilt";
+    }
+
+    private long calculateFine(LocalDate due, LocalDate today) {
+        long days = ChronoUnit.DAYS.between(due, today);
+        if (days <= FINE_GRACE_DAYS)
+            return 0;
+        return (days - FINE_GRACE_DAYS) * FINE_PER_DAY;
+    }
+
+    // ================= ASYNC =================
+    /*
+     * Non-blocking variants for LibraryController: the servlet thread is
+     * released while the store works and the response is written when the
+     * future completes. Same rules, cache and invalidation as above.
+     */
+    public CompletableFuture<Page<Book>> getBooksPageAsync(Integer limit, String pageToken) {
+        if (!repository.isAvailable())
+            return CompletableFuture.completedFuture(new Page<>());
+        return cachedAsync(bookPages, pageKey(limit, pageToken),
+                () -> repository.findBooksAsync(pageSize(limit), pageToken));
+    }
+
+    public CompletableFuture<Page<Student>> getStudentsPageAsync(Integer limit, String pageToken) {
+        if (!repository.isAvailable())
+            return CompletableFuture.completedFuture(new Page<>());
+        return cachedAsync(studentPages, pageKey(limit, pageToken),
+                () -> repository.findStudentsAsync(pageSize(limit), pageToken));
+    }
+
+    public CompletableFuture<Page<Issue>> getIssuesPageAsync(String status, String sort, Integer limit, String pageToken) {
+        if (!repository.isAvailable())
+            return CompletableFuture.completedFuture(new Page<>());
+        String key = "issues|" + status + "|" + sort + "|" + pageKey(limit, pageToken);
+        return cachedAsync(issuePages, key,
+                () -> repository.findIssuesAsync(status, sort, pageSize(limit), pageToken));
+    }
+
+    public CompletableFuture<DashboardSummary> getDashboardSummaryAsync() {
+        if (!repository.isAvailable())
+            return CompletableFuture.completedFuture(new DashboardSummary());
+        return summaryCache.getAsync(LocalDate.now().toString(), this::loadDashboardSummaryAsync);
+    }
+
+    public CompletableFuture<String> issueBookAsync(Issue issue) {
+        if (isBlank(issue.getBookId()) || isBlank(issue.getStudentId()))
+            return CompletableFuture.completedFuture("Invalid Book ID or Student ID");
+
+        prepareIssue(issue);
+        return repository.issueBookAsync(issue).handleAsync((ok, error) -> {
+            issueChanged(issue.getId());
+
+            if (error != null) {
+                Throwable cause = Futures.unwrap(error);
+                if (cause instanceof IllegalStateException)
+                    return cause.getMessage();
+                throw new CompletionException(cause);
+            }
+            events.publishEvent(new IssueChangedEvent(issue));
+            events.publishEvent(BookChangedEvent.changed(issue.getBookId()));
+            saveLog("ISSUE", "Issued " + issue.getBookTitle() + " to " + issue.getStudentName());
+            return "Book issued successfully";
+        }, completions);
+    }
+
+    public CompletableFuture<String> returnBookAsync(String issueId) {
+        return repository.returnBookAsync(issueId, LocalDate.now().toString()).handleAsync((issue, error) -> {
+            issueChanged(issueId);
+
+            if (error != null) {
+                Throwable cause = Futures.unwrap(error);
+                if (cause instanceof IllegalStateException)
+                    return cause.getMessage();
+                // Fail the future like issueBookAsync: a retry must run again, not replay this
+                throw new CompletionException(cause);
+            }
+            if (issue == null)
+                return "Issue not found";
+            returnedCopy(issue);
+
+            events.publishEvent(new IssueChangedEvent(issue));
+            events.publishEvent(BookChangedEvent.changed(issue.getBookId()));
+            saveLog("RETURN", "Returned " + issue.getBookTitle());
+            return "Book returned successfully";
+        }, completions);
+    }
+
+    // ================= CACHE =================
+    // The in-memory backends are already as fast as the cache: go straight there
+    private <T> T cached(TtlCache<String, T> cache, String key, TtlCache.Loader<T> loader) throws Exception {
+        if (repository.servesFromMemory())
+            return loader.load();
+        return cache.get(key, loader);
+    }
+
+    private <T> CompletableFuture<T> cachedAsync(TtlCache<String, T> cache, String key,
+            Supplier<CompletableFuture<T>> loader) {
+        if (repository.servesFromMemory())
+            return loader.get();
+        return cache.getAsync(key, loader);
+    }
+
+    private void bookChanged(String id) {
+        bookCache.invalidate(id);
+        bookPages.invalidateAll();
+        summaryCache.invalidateAll();
+    }
+
+    private void studentChanged(String id) {
+        studentCache.invalidate(id);
+        studentPages.invalidateAll();
+        summaryCache.invalidateAll();
+    }
+
+    // Only loans from before copies existed write the book record on return
+    private void returnedCopy(Issue issue) {
+        if (issue.getCopyId() == null)
+            bookChanged(issue.getBookId());
+    }
+
+    private void issueChanged(String issueId) {
+        issueCache.invalidate(issueId);
+        issuePages.invalidateAll();
+        summaryCache.invalidateAll();
+    }
+
+    private String pageKey(Integer limit, String pageToken) {
+        return pageSize(limit) + "|" + (pageToken == null ? "" : pageToken);
+    }
+
+    // Hit / miss / eviction numbers for tuning TTLs and sizes
+    public List<Map<String, Object>> getCacheStats() {
+        return List.of(
+                bookCache.stats(), studentCache.stats(), issueCache.stats(),
+                bookPages.stats(), studentPages.stats(), issuePages.stats(),
+                summaryCache.stats());
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+
+    // Clamp client supplied page size to [1, MAX_PAGE_SIZE]
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0)
+            return DEFAULT_PAGE_SIZE;
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
     // ================= LOGS =================
-    public List<Log> getAllLogs() throws Exception {
-        if (!isFirebaseAvailable()) {
-            System.out.println("⚠️  Firebase not available, returning empty list");
-            return new ArrayList<>();
+    /*
+     * from / to: ISO instant (2026-10-18T09:00:00Z), local date-time
+     * (2026-10-18T09:00), date (2026-10-18 = start of day) or epoch millis.
+     * Newest first; only the logs in range are read.
+     */
+    public Page<Log> getLogsPage(String from, String to, String actionType, Integer limit, String cursor) throws Exception {
+        if (!repository.isAvailable()) {
+            System.out.println("⚠️  Storage not available, returning empty page");
+            return new Page<>();
         }
-        return FirestoreClient.getFirestore()
-                .collection(COL_LOGS)
-                .get()
-                .get()
-                .toObjects(Log.class);
+        Long fromMillis = parseTime("from", from);
+        Long toMillis = parseTime("to", to);
+        if (fromMillis != null && toMillis != null && fromMillis >= toMillis)
+            throw new IllegalArgumentException("from must be before to");
+        String type = isBlank(actionType) ? null : actionType.trim().toUpperCase();
+        // Store first, then the archived days (see LogArchiver)
+        return logArchiver.findLogs(fromMillis, toMillis, type, pageSize(limit), cursor);
     }
 
-    // ================= LOG HELPER =================
-    private void saveLog(String actionType, String description) {
+    public String migrateLogTimestamps() throws Exception {
+        long updated = repository.migrateLogTimestamps();
+        return "Migrated " + updated + " logs";
+    }
+
+    private static Long parseTime(String name, String value) {
+        if (isBlank(value))
+            return null;
+        String v = value.trim();
         try {
-            Log log = new Log();
-            log.setActionType(actionType);
-            log.setDescription(description);
-            log.setUser("Admin");
-            log.setTimestamp(LocalDateTime.now().toString());
-
-            FirestoreClient.getFirestore()
-                    .collection(COL_LOGS)
-                    .add(log);
-        } catch (Exception e) {
-            System.err.println("Log save failed: " + e.getMessage());
+            if (v.chars().allMatch(Character::isDigit))
+                return Long.parseLong(v);
+            if (v.endsWith("Z") || v.matches(".*[+-]\\d\\d:\\d\\d$"))
+                return OffsetDateTime.parse(v).toInstant().toEpochMilli();
+            if (v.length() == 10)
+                return LocalDate.parse(v).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            return LocalDateTime.parse(v).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeException | NumberFormatException e) {
+            throw new IllegalArgumentException("Bad " + name + " time: " + value);
         }
     }
 
+    // ================= LOG HELPER =================
+    // Queued and written in batches by AuditLogWriter; visible at once in RecentLogBuffer
+    private void saveLog(String actionType, String description) {
+        Log log = new Log();
+        log.setActionType(actionType);
+        log.setDescription(description);
+        log.setUser("Admin");
+        Instant now = Instant.now();
+        log.setEpochMillis(now.toEpochMilli());
+        log.setTimestamp(LocalDateTime.ofInstant(now, ZoneId.systemDefault()).toString());
+        LogIds.stamp(log);
+
+        recentLogs.add(log);
+        if (!auditLog.submit(log))
+            System.err.println("Log dropped (audit queue full): " + actionType);
+    }
+
     // ================= SEED 30 BOOKS =================
     public String addBranchWiseBooks() throws Exception {
 
-        Firestore db = FirestoreClient.getFirestore();
-
         String[][] books = {
                 { "CSE001", "Data Structures", "Mark Allen Weiss", "CSE" },
                 { "CSE002", "Operating Systems", "Silberschatz", "CSE" },
@@ -223,10 +652,13 @@ public class FirebaseService {
             book.setCategory(b[3]);
             book.setQuantity(5);
 
-            db.collection(COL_BOOKS)
-                    .document(book.getId())
-                    .set(book)
-                    .get();
+            // Counted write, so the dashboard total stays right
+            try {
+                repository.saveBook(book);
+            } finally {
+                bookChanged(book.getId());
+            }
+            events.publishEvent(BookChangedEvent.saved(book));
         }
 
         saveLog("SEED_BOOKS", "Added branch-wise books");
@@ -0,0 +1,139 @@
+package com.example.library_management.service;
+
+import com.example.library_management.cache.TtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/*
+ * IdempotencyStore
+ * ----------------
+ * Makes POST /api/issue and /api/return/{id} safe to retry:
+ * a client sends the same `Idempotency-Key` header with every attempt
+ * and the action runs once; later attempts get the first response back
+ * without touching the store or writing another log.
+ *
+ * DSA Concept: bounded LRU + TTL map (TtlCache)
+ *   key -> (request fingerprint, future of the response)
+ *  - The entry is claimed with ONE atomic putIfAbsent BEFORE the action
+ *    starts, so a retry that arrives while the first attempt is still
+ *    running waits for the same future instead of running it again
+ *  - Failed attempts (exceptions) are removed, so they can be retried;
+ *    business answers ("No copies available") are responses and replay
+ *  - At most `max-keys` entries, each kept `ttl-minutes`; the least
+ *    recently used key goes first when full
+ *
+ * A key reused for a different request (other endpoint or parameters)
+ * is rejected instead of replaying an unrelated answer.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    // Response of an idempotent action, and whether it came from the store
+    public static final class Outcome {
+        private final String body;
+        private final boolean replayed;
+
+        Outcome(String body, boolean replayed) {
+            this.body = body;
+            this.replayed = replayed;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+
+    private static final class Entry {
+        final String fingerprint;
+        final CompletableFuture<String> response = new CompletableFuture<>();
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private final TtlCache<String, Entry> entries;
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public IdempotencyStore(
+            @Value("${library.idempotency.ttl-minutes:1440}") long ttlMinutes,
+            @Value("${library.idempotency.max-keys:10000}") int maxKeys) {
+        this.entries = new TtlCache<>("idempotency", ttlMinutes * 60_000, maxKeys);
+    }
+
+    /*
+     * Runs `action` once per key. Without a key the action simply runs.
+     * fingerprint = what the request asked for (endpoint + parameters).
+     * Fails with IllegalArgumentException for a malformed key and
+     * IllegalStateException for a key already used by another request.
+     */
+    public CompletableFuture<Outcome> execute(String key, String fingerprint,
+            Supplier<CompletableFuture<String>> action) {
+
+        if (key == null)
+            return action.get().thenApply(body -> new Outcome(body, false));
+
+        key = key.trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH)
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException(HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters"));
+
+        Entry mine = new Entry(fingerprint);
+        Entry existing = entries.putIfAbsent(key, mine);
+        if (existing != null) {
+            if (!existing.fingerprint.equals(fingerprint)) {
+                conflicts.increment();
+                return CompletableFuture.failedFuture(
+                        new IllegalStateException(HEADER + " was already used for a different request"));
+            }
+            replayed.increment();
+            return existing.response.thenApply(body -> new Outcome(body, true));
+        }
+
+        executed.increment();
+        String claimed = key;
+        CompletableFuture<String> run;
+        try {
+            run = action.get();
+        } catch (RuntimeException e) {
+            run = CompletableFuture.failedFuture(e);
+        }
+        run.whenComplete((body, error) -> {
+            if (error != null) {
+                // Nothing to replay: let the next attempt run again
+                failures.increment();
+                entries.remove(claimed, mine);
+                mine.response.completeExceptionally(error);
+            } else {
+                mine.response.complete(body);
+            }
+        });
+        return mine.response.thenApply(body -> new Outcome(body, false));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = entries.stats();
+        stats.put("executed", executed.sum());
+        stats.put("replayed", replayed.sum());
+        stats.put("conflicts", conflicts.sum());
+        stats.put("failures", failures.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,445 @@
+package com.example.library_management.service;
+
+import com.example.library_management.config.WorkerThreads;
+import com.example.library_management.model.Book;
+import com.example.library_management.model.ImportReport;
+import com.example.library_management.model.Student;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/*
+ * ImportService
+ * -------------
+ * Streaming bulk import of books / students from CSV or NDJSON.
+ *
+ * Pipeline:
+ *   request body -> row reader (one row at a time, never the whole file)
+ *                -> validate -> chunk of batch-size rows
+ *                -> worker pool commits chunks in parallel
+ *
+ * Backpressure: a Semaphore allows at most max-parallel-batches chunks in
+ * flight; the reader blocks until one finishes, so memory stays at
+ * (max-parallel-batches + 1) chunks whatever the upload size.
+ *
+ * CSV needs a header row (column order is free, names are case-insensitive):
+ *   books:    id,title,author,category,quantity
+ *   students: id,name,email
+ * NDJSON: one JSON object per line with the same field names.
+ */
+@Service
+public class ImportService {
+
+    private final FirebaseService service;
+    private final ExecutorService pool;
+    private final int batchSize;
+    private final int maxParallelBatches;
+    private final ObjectMapper json = new ObjectMapper();
+
+    @FunctionalInterface
+    private interface RowMapper<T> {
+        // Throws IllegalArgumentException with a readable reason for a bad row
+        T map(Map<String, String> row);
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter<T> {
+        int write(List<T> batch) throws Exception;
+    }
+
+    public ImportService(
+            FirebaseService service,
+            WorkerThreads threads,
+            @Value("${library.import.batch-size:499}") int batchSize,
+            @Value("${library.import.max-parallel-batches:4}") int maxParallelBatches) {
+
+        this.service = service;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxParallelBatches = Math.max(1, maxParallelBatches);
+        this.pool = Executors.newFixedThreadPool(this.maxParallelBatches, threads.factory("import-batch"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    // ================= ENTRY POINTS =================
+    public ImportReport importBooks(InputStream in, String format, String contentType) throws Exception {
+        return importRows("books", in, resolveFormat(format, contentType),
+                this::toBook, Book::getId, service::saveBooksBatch);
+    }
+
+    public ImportReport importStudents(InputStream in, String format, String contentType) throws Exception {
+        return importRows("students", in, resolveFormat(format, contentType),
+                this::toStudent, Student::getId, service::saveStudentsBatch);
+    }
+
+    private String resolveFormat(String format, String contentType) {
+        String f = format != null && !format.isBlank()
+                ? format.trim().toLowerCase()
+                : contentType == null ? "" : contentType.toLowerCase();
+
+        if (f.contains("ndjson") || f.contains("json"))
+            return "ndjson";
+        if (f.contains("csv") || f.isEmpty() || f.startsWith("text/plain"))
+            return "csv";
+        throw new IllegalArgumentException("Unsupported format: " + f + " (use csv or ndjson)");
+    }
+
+    // ================= PIPELINE =================
+    private <T> ImportReport importRows(String collection, InputStream in, String format,
+            RowMapper<T> mapper, Function<T, String> idOf, BatchWriter<T> writer) throws Exception {
+
+        if (!service.isStorageAvailable())
+            throw new IllegalStateException("Storage not available");
+
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        Semaphore slots = new Semaphore(maxParallelBatches);
+        Set<String> seenIds = new HashSet<>();
+
+        List<T> chunk = new ArrayList<>(batchSize);
+        List<Long> chunkLines = new ArrayList<>(batchSize);
+
+        try (RowReader reader = "ndjson".equals(format) ? new NdjsonReader(in) : new CsvReader(in)) {
+            Row row;
+            while ((row = reader.next()) != null) {
+                progress.rowsRead.incrementAndGet();
+
+                if (row.error != null) {
+                    progress.error(row.line, null, row.error);
+                    continue;
+                }
+
+                T item;
+                try {
+                    item = mapper.map(row.fields);
+                } catch (IllegalArgumentException e) {
+                    progress.error(row.line, row.fields.get("id"), e.getMessage());
+                    continue;
+                }
+                String id = idOf.apply(item);
+                if (!seenIds.add(id)) {
+                    progress.error(row.line, id, "Duplicate id in upload");
+                    continue;
+                }
+
+                chunk.add(item);
+                chunkLines.add(row.line);
+                if (chunk.size() == batchSize) {
+                    submit(chunk, chunkLines, idOf, writer, slots, progress);
+                    chunk = new ArrayList<>(batchSize);
+                    chunkLines = new ArrayList<>(batchSize);
+                }
+            }
+        } finally {
+            if (!chunk.isEmpty())
+                submit(chunk, chunkLines, idOf, writer, slots, progress);
+            // Wait for every chunk still in flight
+            slots.acquireUninterruptibly(maxParallelBatches);
+            slots.release(maxParallelBatches);
+        }
+
+        ImportReport report = progress.toReport(collection, format, System.nanoTime() - start);
+        service.importFinished(collection, report.getImported(), report.getFailed());
+        return report;
+    }
+
+    private <T> void submit(List<T> chunk, List<Long> lines, Function<T, String> idOf,
+            BatchWriter<T> writer, Semaphore slots, Progress progress) {
+        slots.acquireUninterruptibly();
+        try {
+            pool.execute(() -> {
+                try {
+                    int created = writer.write(chunk);
+                    progress.imported.addAndGet(chunk.size());
+                    progress.created.addAndGet(created);
+                } catch (Exception e) {
+                    String reason = "Batch failed: " + e.getMessage();
+                    for (int i = 0; i < chunk.size(); i++)
+                        progress.error(lines.get(i), idOf.apply(chunk.get(i)), reason);
+                } finally {
+                    progress.batches.incrementAndGet();
+                    slots.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    // Thread-safe counters shared by the reader and the batch workers
+    private static class Progress {
+        final AtomicLong rowsRead = new AtomicLong();
+        final AtomicLong imported = new AtomicLong();
+        final AtomicLong created = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong batches = new AtomicLong();
+        final AtomicInteger reportedErrors = new AtomicInteger();
+        final Queue<ImportReport.RowError> errors = new ConcurrentLinkedQueue<>();
+
+        void error(long line, String id, String message) {
+            failed.incrementAndGet();
+            if (reportedErrors.incrementAndGet() <= ImportReport.MAX_ERRORS)
+                errors.add(new ImportReport.RowError(line, id, message));
+        }
+
+        ImportReport toReport(String collection, String format, long elapsedNanos) {
+            ImportReport report = new ImportReport();
+            report.setCollection(collection);
+            report.setFormat(format);
+            report.setRowsRead(rowsRead.get());
+            report.setImported(imported.get());
+            report.setCreated(created.get());
+            report.setFailed(failed.get());
+            report.setBatches(batches.get());
+            report.setElapsedMillis(elapsedNanos / 1_000_000);
+            report.setRowsPerSecond(elapsedNanos == 0 ? 0 : imported.get() * 1e9 / elapsedNanos);
+
+            List<ImportReport.RowError> sorted = new ArrayList<>(errors);
+            sorted.sort(Comparator.comparingLong(ImportReport.RowError::getLine));
+            report.setErrors(sorted);
+            report.setErrorsTruncated(reportedErrors.get() > ImportReport.MAX_ERRORS);
+            return report;
+        }
+    }
+
+    // ================= VALIDATION =================
+    private Book toBook(Map<String, String> row) {
+        Book book = new Book();
+        book.setId(requireId(row));
+        book.setTitle(require(row, "title"));
+        book.setAuthor(optional(row, "author"));
+        book.setCategory(optional(row, "category"));
+
+        // Copies owned: missing or 0 means one copy, as in the add-book form
+        String quantity = optional(row, "quantity");
+        book.setQuantity(1);
+        if (quantity != null) {
+            int copies;
+            try {
+                copies = Integer.parseInt(quantity);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("quantity is not a number: " + quantity);
+            }
+            if (copies < 0)
+                throw new IllegalArgumentException("quantity must not be negative");
+            if (copies > 0)
+                book.setQuantity(copies);
+        }
+        return book;
+    }
+
+    private Student toStudent(Map<String, String> row) {
+        Student student = new Student();
+        student.setId(requireId(row));
+        student.setName(require(row, "name"));
+
+        String email = optional(row, "email");
+        if (email != null && (!email.contains("@") || email.startsWith("@") || email.endsWith("@")))
+            throw new IllegalArgumentException("email is not valid: " + email);
+        student.setEmail(email);
+        return student;
+    }
+
+    // Firestore document id rules: no '/', not "." or "..", at most 1500 bytes
+    private String requireId(Map<String, String> row) {
+        String id = require(row, "id");
+        if (id.contains("/") || id.equals(".") || id.equals("..") || id.startsWith("__")
+                || id.getBytes(StandardCharsets.UTF_8).length > 1500)
+            throw new IllegalArgumentException("id is not a valid document id: " + id);
+        return id;
+    }
+
+    private String require(Map<String, String> row, String field) {
+        String value = optional(row, field);
+        if (value == null)
+            throw new IllegalArgumentException(field + " is required");
+        return value;
+    }
+
+    private String optional(Map<String, String> row, String field) {
+        String value = row.get(field);
+        if (value == null)
+            return null;
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // ================= READERS =================
+    // One parsed row: fields by lower-case column name, or a parse error
+    private static class Row {
+        final long line;
+        final Map<String, String> fields;
+        final String error;
+
+        Row(long line, Map<String, String> fields, String error) {
+            this.line = line;
+            this.fields = fields;
+            this.error = error;
+        }
+    }
+
+    private abstract static class RowReader implements AutoCloseable {
+        final BufferedReader reader;
+        long lineNo;
+
+        RowReader(InputStream in) {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        }
+
+        // Next row, or null at end of input
+        abstract Row next() throws IOException;
+
+        String readLine() throws IOException {
+            String line = reader.readLine();
+            if (line != null && lineNo++ == 0 && line.startsWith("﻿"))
+                line = line.substring(1); // UTF-8 BOM
+            return line;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private class NdjsonReader extends RowReader {
+
+        NdjsonReader(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        Row next() throws IOException {
+            String line;
+            while ((line = readLine()) != null) {
+                if (line.isBlank())
+                    continue;
+                try {
+                    Map<?, ?> object = json.readValue(line, Map.class);
+                    Map<String, String> fields = new HashMap<>();
+                    object.forEach((k, v) -> {
+                        if (v != null)
+                            fields.put(k.toString().toLowerCase(), v.toString());
+                    });
+                    return new Row(lineNo, fields, null);
+                } catch (IOException e) {
+                    return new Row(lineNo, Map.of(), "Invalid JSON");
+                }
+            }
+            return null;
+        }
+    }
+
+    /*
+     * RFC 4180 style CSV: comma separated, "quoted" fields may contain
+     * commas, "" and line breaks.
+     */
+    private static class CsvReader extends RowReader {
+
+        private List<String> header;
+
+        CsvReader(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        Row next() throws IOException {
+            if (header == null) {
+                List<String> names = readRecord();
+                if (names == null)
+                    return null;
+                header = new ArrayList<>(names.size());
+                for (String name : names)
+                    header.add(name.trim().toLowerCase());
+                if (!header.contains("id"))
+                    throw new IllegalArgumentException("CSV header must contain an id column");
+            }
+
+            List<String> values;
+            long line;
+            do {
+                line = lineNo + 1;
+                values = readRecord();
+                if (values == null)
+                    return null;
+            } while (values.size() == 1 && values.get(0).isBlank());
+
+            if (values.size() > header.size())
+                return new Row(line, Map.of(), "Expected " + header.size() + " columns, found " + values.size());
+
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < values.size(); i++)
+                fields.put(header.get(i), values.get(i));
+            return new Row(line, fields, null);
+        }
+
+        private List<String> readRecord() throws IOException {
+            String line = readLine();
+            if (line == null)
+                return null;
+
+            List<String> values = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+
+            while (true) {
+                for (int i = 0; i < line.length(); i++) {
+                    char c = line.charAt(i);
+                    if (quoted) {
+                        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i++;
+                        } else if (c == '"') {
+                            quoted = false;
+                        } else {
+                            field.append(c);
+                        }
+                    } else if (c == '"') {
+                        quoted = true;
+                    } else if (c == ',') {
+                        values.add(field.toString());
+                        field.setLength(0);
+                    } else {
+                        field.append(c);
+                    }
+                }
+                if (!quoted)
+                    break;
+
+                // Line break inside a quoted field
+                line = readLine();
+                if (line == null)
+                    break;
+                field.append('\n');
+            }
+            values.add(field.toString());
+            return values;
+        }
+    }
+}
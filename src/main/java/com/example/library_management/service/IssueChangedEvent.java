@@ -0,0 +1,26 @@
+package com.example.library_management.service;
+
+import com.example.library_management.model.Issue;
+
+/*
+ * Published by FirebaseService after an issue was written (issued,
+ * returned, reminder flag changed). Listeners such as ReminderScheduler
+ * keep their own view in step without polling the issues collection.
+ */
+public class IssueChangedEvent {
+
+    private final Issue issue;
+
+    public IssueChangedEvent(Issue issue) {
+        this.issue = issue;
+    }
+
+    public Issue getIssue() {
+        return issue;
+    }
+
+    // Still out: not returned yet
+    public boolean isOpen() {
+        return issue.getReturnDate() == null;
+    }
+}
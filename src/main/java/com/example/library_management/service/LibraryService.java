@@ -1,19 +1,178 @@
 package com.example.library_management.service;
 
+import com.example.library_management.journal.Journal;
+import com.example.library_management.journal.RecordBuffer;
 import com.example.library_management.model.Book;
 import com.example.library_management.model.Student;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
 
+/*
+ * In-memory library state.
+ *
+ * Not a LibraryRepository backend (the API runs on those, see
+ * InMemoryLibraryRepository for profile "memory"). This store is the
+ * home of the write-ahead journal (GET /api/metrics/journal) and of
+ * the borrow/return path measured by LibraryServiceBenchmark.
+ *
+ * With library.journal.enabled=true every change is written to a
+ * Journal (write-ahead log) before the caller gets an answer, and the
+ * maps are rebuilt from snapshot + journal on startup.
+ *
+ * Journal records are idempotent "state" records:
+ *   PUT_BOOK (full book) / DELETE_BOOK (id) / PUT_STUDENT (full student)
+ */
 @Service
 public class LibraryService {
 
+    private static final byte PUT_BOOK = 1;
+    private static final byte DELETE_BOOK = 2;
+    private static final byte PUT_STUDENT = 3;
+
     private final Map<String, Book> books = new ConcurrentHashMap<>();
     private final Map<String, Student> students = new ConcurrentHashMap<>();
 
+    // null when journaling is off
+    private final Journal journal;
+
+    public LibraryService(
+            @Value("${library.journal.enabled:false}") boolean journalEnabled,
+            @Value("${library.journal.dir:data/journal}") String journalDir,
+            @Value("${library.journal.segment-size-mb:64}") int segmentSizeMb,
+            @Value("${library.journal.sync:true}") boolean syncWrites,
+            @Value("${library.journal.group-commit-ms:2}") long groupCommitMs,
+            @Value("${library.journal.snapshot-every:500000}") long snapshotEvery) {
+
+        this.journal = journalEnabled
+                ? new Journal(Paths.get(journalDir), segmentSizeMb * 1024 * 1024, syncWrites, groupCommitMs, snapshotEvery)
+                : null;
+    }
+
+    // ================= JOURNAL =================
+    @PostConstruct
+    public void recover() throws IOException {
+        if (journal == null)
+            return;
+        long records = journal.open(this::replay, this::writeSnapshot);
+        System.out.println("📒 Journal recovered " + records + " records (" + books.size()
+                + " books, " + students.size() + " students)");
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (journal == null)
+            return;
+        // Snapshot on the way out so the next start replays almost nothing
+        journal.checkpoint();
+        journal.close();
+    }
+
+    public Map<String, Object> getJournalStats() {
+        return journal == null ? Map.of("enabled", false) : journal.stats();
+    }
+
+    /*
+     * Runs one change under the journal fence; the change appends its own
+     * record next to the map update. The caller is answered only after
+     * the record is on disk (group commit, shared with concurrent writers).
+     */
+    private <T> T journaled(Supplier<T> change) {
+        if (journal == null)
+            return change.get();
+
+        Lock fence = journal.fence();
+        T result;
+        fence.lock();
+        try {
+            result = change.get();
+        } finally {
+            fence.unlock();
+        }
+
+        try {
+            journal.commit(journal.appendedSeq());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result;
+    }
+
+    private void log(RecordBuffer record) {
+        if (journal == null)
+            return;
+        try {
+            journal.append(record.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static RecordBuffer putBook(Book b) {
+        return new RecordBuffer()
+                .putByte(PUT_BOOK)
+                .putString(b.getId())
+                .putString(b.getTitle())
+                .putString(b.getAuthor())
+                .putString(b.getCategory())
+                .putInt(b.getQuantity())
+                .putBoolean(b.isIssued())
+                .putString(b.getIssuedTo());
+    }
+
+    private static RecordBuffer putStudent(Student s) {
+        return new RecordBuffer()
+                .putByte(PUT_STUDENT)
+                .putString(s.getId())
+                .putString(s.getName())
+                .putString(s.getEmail());
+    }
+
+    private void replay(ByteBuffer in) {
+        byte op = in.get();
+        switch (op) {
+            case PUT_BOOK -> {
+                Book b = new Book();
+                b.setId(RecordBuffer.getString(in));
+                b.setTitle(RecordBuffer.getString(in));
+                b.setAuthor(RecordBuffer.getString(in));
+                b.setCategory(RecordBuffer.getString(in));
+                b.setQuantity(in.getInt());
+                b.setIssued(RecordBuffer.getBoolean(in));
+                b.setIssuedTo(RecordBuffer.getString(in));
+                books.put(b.getId(), b);
+            }
+            case DELETE_BOOK -> books.remove(RecordBuffer.getString(in));
+            case PUT_STUDENT -> {
+                Student s = new Student();
+                s.setId(RecordBuffer.getString(in));
+                s.setName(RecordBuffer.getString(in));
+                s.setEmail(RecordBuffer.getString(in));
+                students.put(s.getId(), s);
+            }
+            default -> throw new IllegalStateException("Unknown journal record type: " + op);
+        }
+    }
+
+    private void writeSnapshot(Journal.RecordSink sink) throws IOException {
+        for (Book b : books.values())
+            sink.write(putBook(b).toByteArray());
+        for (Student s : students.values())
+            sink.write(putStudent(s).toByteArray());
+    }
+
+    // ================= BOOKS =================
     public Collection<Book> getAllBooks() {
         return books.values();
     }
@@ -26,25 +185,38 @@ public class LibraryService {
         if (book.getId() == null || book.getId().isEmpty()) {
             throw new IllegalArgumentException("Book id is required");
         }
-        books.put(book.getId(), book);
-        return book;
+        return journaled(() -> books.compute(book.getId(), (id, old) -> {
+            log(putBook(book));
+            return book;
+        }));
     }
 
+    // Copy-on-write: the stored Book is replaced, never changed in place
     public Book updateBook(String id, Book updated) {
-        Book existing = books.get(id);
-        if (existing == null) return null;
-        existing.setTitle(updated.getTitle());
-        existing.setAuthor(updated.getAuthor());
-        existing.setIssued(updated.isIssued());
-        existing.setIssuedTo(updated.getIssuedTo());
-        books.put(id, existing);
-        return existing;
+        return journaled(() -> books.computeIfPresent(id, (k, existing) -> {
+            Book next = new Book(existing);
+            next.setTitle(updated.getTitle());
+            next.setAuthor(updated.getAuthor());
+            next.setIssued(updated.isIssued());
+            next.setIssuedTo(updated.getIssuedTo());
+            log(putBook(next));
+            return next;
+        }));
     }
 
     public boolean deleteBook(String id) {
-        return books.remove(id) != null;
+        return journaled(() -> {
+            boolean[] removed = { false };
+            books.computeIfPresent(id, (k, existing) -> {
+                log(new RecordBuffer().putByte(DELETE_BOOK).putString(id));
+                removed[0] = true;
+                return null;
+            });
+            return removed[0];
+        });
     }
 
+    // ================= STUDENTS =================
     public Collection<Student> getAllStudents() {
         return students.values();
     }
@@ -53,30 +225,63 @@ public class LibraryService {
         if (student.getId() == null || student.getId().isEmpty()) {
             throw new IllegalArgumentException("Student id is required");
         }
-        students.put(student.getId(), student);
-        return student;
+        return journaled(() -> students.compute(student.getId(), (id, old) -> {
+            log(putStudent(student));
+            return student;
+        }));
     }
 
-    public synchronized String borrowBook(String studentId, String bookId) {
+    // ================= BORROW / RETURN =================
+    /*
+     * No service-wide lock: each checkout is one compute() on its own
+     * book entry, so ConcurrentHashMap only serializes writers of the
+     * SAME book (per-bin lock) and disjoint books proceed in parallel.
+     *
+     * Book values are treated as immutable: a borrow / return swaps in a
+     * new Book, so getAllBooks() readers never see a half-updated one.
+     */
+    public String borrowBook(String studentId, String bookId) {
         Student s = students.get(studentId);
         if (s == null) return "Student not found";
-        Book b = books.get(bookId);
-        if (b == null) return "Book not found";
-        if (b.isIssued()) return "Book already issued";
-        b.setIssued(true);
-        b.setIssuedTo(studentId);
-        books.put(bookId, b);
-        return "Book issued to " + s.getName();
-    }
-
-    public synchronized String returnBook(String studentId, String bookId) {
-        Book b = books.get(bookId);
-        if (b == null) return "Book not found";
-        if (!b.isIssued()) return "Book is not issued";
-        if (b.getIssuedTo() == null || !b.getIssuedTo().equals(studentId)) return "Book was not issued to this student";
-        b.setIssued(false);
-        b.setIssuedTo(null);
-        books.put(bookId, b);
-        return "Book returned successfully";
+
+        return journaled(() -> {
+            String[] result = { "Book not found" };
+            books.computeIfPresent(bookId, (id, b) -> {
+                if (b.isIssued()) {
+                    result[0] = "Book already issued";
+                    return b;
+                }
+                Book next = new Book(b);
+                next.setIssued(true);
+                next.setIssuedTo(studentId);
+                log(putBook(next));
+                result[0] = "Book issued to " + s.getName();
+                return next;
+            });
+            return result[0];
+        });
+    }
+
+    public String returnBook(String studentId, String bookId) {
+        return journaled(() -> {
+            String[] result = { "Book not found" };
+            books.computeIfPresent(bookId, (id, b) -> {
+                if (!b.isIssued()) {
+                    result[0] = "Book is not issued";
+                    return b;
+                }
+                if (b.getIssuedTo() == null || !b.getIssuedTo().equals(studentId)) {
+                    result[0] = "Book was not issued to this student";
+                    return b;
+                }
+                Book next = new Book(b);
+                next.setIssued(false);
+                next.setIssuedTo(null);
+                log(putBook(next));
+                result[0] = "Book returned successfully";
+                return next;
+            });
+            return result[0];
+        });
     }
 }
@@ -0,0 +1,223 @@
+package com.example.library_management.service;
+
+import com.example.library_management.archive.LogArchive;
+import com.example.library_management.model.Log;
+import com.example.library_management.model.Page;
+import com.example.library_management.repository.LibraryRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * LogArchiver
+ * -----------
+ * Hot / cold split of the audit log:
+ *  - hot:  the store (Firestore), the last `retention-days` days
+ *  - cold: compressed day segments on local disk (LogArchive)
+ *
+ * Compaction (every `interval-hours`, or POST /api/logs/archive):
+ *  1. Find the newest log older than the cutoff (start of today - retention)
+ *  2. Read that whole day from the store (range query, 500 per page)
+ *  3. Write it into the day's segment and force it to disk
+ *  4. Only then delete those logs from the store
+ *  5. Repeat below that day until nothing older is left
+ * A crash between 3 and 4 leaves logs in both places; the next run merges
+ * them into the same segment, and queries never return them twice.
+ *
+ * Queries (GET /api/logs) read hot first, then continue in the archive
+ * with the logs older than the last hot one, so paging is seamless.
+ * Archive pages use the cursor "cold:<epochMillis>:<id>".
+ *
+ * Firestore logs without epochMillis are not found by the range queries:
+ * run POST /api/logs/migrate once before the first archival.
+ */
+@Service
+public class LogArchiver {
+
+    private static final int PAGE_SIZE = 500;
+    private static final String COLD_CURSOR = "cold:";
+
+    private final LibraryRepository repository;
+    private final LogArchive archive;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final boolean enabled;
+    private final int retentionDays;
+    private final long intervalHours;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder archivedLogs = new LongAdder();
+    private ScheduledExecutorService timer;
+    private volatile String lastRun;
+    private volatile long lastRunMillis;
+    private volatile String lastError;
+
+    public LogArchiver(
+            LibraryRepository repository,
+            @Value("${library.logs.archive.enabled:false}") boolean enabled,
+            @Value("${library.logs.archive.dir:data/log-archive}") String dir,
+            @Value("${library.logs.archive.retention-days:90}") int retentionDays,
+            @Value("${library.logs.archive.interval-hours:24}") long intervalHours) {
+
+        this.repository = repository;
+        this.archive = new LogArchive(Paths.get(dir), zone);
+        this.enabled = enabled;
+        this.retentionDays = Math.max(1, retentionDays);
+        this.intervalHours = Math.max(1, intervalHours);
+
+        try {
+            archive.open();
+        } catch (Exception e) {
+            System.err.println("⚠️  Log archive not readable: " + e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled)
+            return;
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "log-archiver");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.scheduleWithFixedDelay(() -> {
+            try {
+                System.out.println("🗄️  " + archiveOldLogs());
+            } catch (Exception e) {
+                System.err.println("⚠️  Log archival failed: " + e.getMessage());
+            }
+        }, 1, intervalHours * 60, TimeUnit.MINUTES);
+        System.out.println("🗄️  Log archival every " + intervalHours + "h, keeping " + retentionDays + " days hot");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (timer != null)
+            timer.shutdownNow();
+    }
+
+    // ================= COMPACTION =================
+    public String archiveOldLogs() throws Exception {
+        if (!repository.isAvailable())
+            return "⚠️ Storage not available, nothing archived";
+        if (!running.compareAndSet(false, true))
+            throw new IllegalStateException("Log archival is already running");
+
+        long started = System.currentTimeMillis();
+        long cutoff = archive.startOf(LocalDate.now(zone).minusDays(retentionDays));
+        long moved = 0;
+        int days = 0;
+        try {
+            long upper = cutoff;
+            while (true) {
+                List<Log> newest = repository.findLogs(null, upper, null, 1, null).getItems();
+                if (newest.isEmpty())
+                    break;
+
+                LocalDate day = archive.dayOf(newest.get(0).getEpochMillis());
+                long dayStart = archive.startOf(day);
+                List<Log> logs = new ArrayList<>();
+                String cursor = null;
+                do {
+                    Page<Log> page = repository.findLogs(dayStart, upper, null, PAGE_SIZE, cursor);
+                    logs.addAll(page.getItems());
+                    cursor = page.getNextPageToken();
+                } while (cursor != null);
+
+                if (!logs.isEmpty()) {
+                    archive.append(day, logs);
+                    List<String> ids = new ArrayList<>(logs.size());
+                    for (Log log : logs)
+                        ids.add(log.getId());
+                    repository.deleteLogs(ids);
+                    archivedLogs.add(logs.size());
+                    moved += logs.size();
+                    days++;
+                }
+                upper = dayStart;
+            }
+
+            lastError = null;
+            lastRun = "Archived " + moved + " logs from " + days + " days older than "
+                    + Instant.ofEpochMilli(cutoff).atZone(zone).toLocalDate();
+            return lastRun;
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            throw e;
+        } finally {
+            lastRunMillis = System.currentTimeMillis() - started;
+            running.set(false);
+        }
+    }
+
+    // ================= QUERY (hot, then cold) =================
+    // Same contract as LibraryRepository.findLogs, over the store and the archive
+    public Page<Log> findLogs(Long fromMillis, Long toMillis, String actionType, int limit, String cursor) throws Exception {
+        if (cursor != null && cursor.startsWith(COLD_CURSOR)) {
+            String[] parts = cursor.substring(COLD_CURSOR.length()).split(":", 2);
+            try {
+                return findCold(fromMillis, toMillis, actionType, limit,
+                        Long.parseLong(parts[0]), parts.length > 1 ? parts[1] : null, new ArrayList<>());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad cursor: " + cursor);
+            }
+        }
+
+        Page<Log> hot = repository.findLogs(fromMillis, toMillis, actionType, limit, cursor);
+        if (hot.getNextPageToken() != null || archive.isEmpty())
+            return hot;
+
+        // Store exhausted: fill the page from the archive, below the last hot log
+        List<Log> items = new ArrayList<>(hot.getItems());
+        Long beforeMillis = null;
+        String beforeId = null;
+        if (!items.isEmpty()) {
+            Log last = items.get(items.size() - 1);
+            beforeMillis = last.getEpochMillis();
+            beforeId = last.getId();
+        }
+        return findCold(fromMillis, toMillis, actionType, limit, beforeMillis, beforeId, items);
+    }
+
+    private Page<Log> findCold(Long fromMillis, Long toMillis, String actionType, int limit,
+            Long beforeMillis, String beforeId, List<Log> items) throws Exception {
+
+        boolean more = archive.find(fromMillis, toMillis, actionType, beforeMillis, beforeId, items, limit);
+        String next = null;
+        if (more) {
+            Log last = items.get(items.size() - 1);
+            next = COLD_CURSOR + last.getEpochMillis() + ":" + last.getId();
+        }
+        return new Page<>(items, next);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("retentionDays", retentionDays);
+        stats.put("intervalHours", intervalHours);
+        stats.put("running", running.get());
+        stats.put("archivedLogs", archivedLogs.sum());
+        stats.put("lastRun", lastRun);
+        stats.put("lastRunMillis", lastRunMillis);
+        stats.put("lastError", lastError);
+        stats.putAll(archive.stats());
+        return stats;
+    }
+}
@@ -0,0 +1,481 @@
+package com.example.library_management.service;
+
+import com.example.library_management.config.WorkerThreads;
+import com.example.library_management.model.MailDelivery;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/*
+ * MailOutbox
+ * ----------
+ * Outbound mail pipeline. Callers enqueue a message and get a tracking
+ * id back at once; SMTP never runs on a request thread.
+ *
+ * DSA Concepts:
+ *  - Bounded FIFO queue (ArrayBlockingQueue) between callers and workers
+ *  - Token bucket for the per-minute rate limit
+ *  - Bounded LinkedHashMap (oldest evicted) of recent deliveries for status lookups
+ *  - Bounded deque as dead-letter store
+ *
+ * Pipeline:
+ *  - workers threads each take up to batch-size messages (as many as the
+ *    rate limit allows) and send them with ONE JavaMailSender.send(...)
+ *    call = one SMTP connection for the whole batch
+ *  - A failed message is retried with exponential backoff + jitter
+ *    (backoff-initial-ms * 2^(attempt-1), capped at backoff-max-ms)
+ *  - After max-attempts it goes to the dead-letter store, where it can be
+ *    inspected and re-queued
+ */
+@Component
+public class MailOutbox {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String SENDING = "SENDING";
+    public static final String RETRYING = "RETRYING";
+    public static final String SENT = "SENT";
+    public static final String DEAD = "DEAD";
+
+    private final JavaMailSender mailSender;
+    private final WorkerThreads threads;
+    private final BlockingQueue<Job> queue;
+    private final int workerCount;
+    private final int batchSize;
+    private final int ratePerMinute;
+    private final int maxAttempts;
+    private final long backoffInitialMs;
+    private final long backoffMaxMs;
+    private final int deadLetterSize;
+    private final TokenBucket limiter;
+
+    private final Map<String, Job> tracked;
+    private final Deque<Job> deadLetters = new ArrayDeque<>();
+
+    private ExecutorService workers;
+    private ScheduledExecutorService retryTimer;
+    private volatile boolean running;
+
+    // ---- Metrics ----
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private final LongAdder dead = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger waitingRetry = new AtomicInteger();
+    private volatile String lastError;
+
+    // One message and its delivery state (guarded by the Job's monitor)
+    private static class Job {
+        final String id = UUID.randomUUID().toString();
+        final SimpleMailMessage message;
+        final Consumer<MailDelivery> onDead;
+        final String createdAt = Instant.now().toString();
+        String status = QUEUED;
+        int attempts;
+        String lastAttemptAt;
+        String sentAt;
+        String lastError;
+
+        Job(SimpleMailMessage message, Consumer<MailDelivery> onDead) {
+            this.message = message;
+            this.onDead = onDead;
+        }
+
+        synchronized MailDelivery snapshot() {
+            MailDelivery d = new MailDelivery();
+            d.setId(id);
+            d.setTo(message.getTo() == null ? null : String.join(",", message.getTo()));
+            d.setSubject(message.getSubject());
+            d.setStatus(status);
+            d.setAttempts(attempts);
+            d.setCreatedAt(createdAt);
+            d.setLastAttemptAt(lastAttemptAt);
+            d.setSentAt(sentAt);
+            d.setLastError(lastError);
+            return d;
+        }
+    }
+
+    public MailOutbox(
+            ObjectProvider<JavaMailSender> mailSender,
+            WorkerThreads threads,
+            @Value("${library.mail.queue-capacity:1000}") int queueCapacity,
+            @Value("${library.mail.workers:2}") int workers,
+            @Value("${library.mail.batch-size:20}") int batchSize,
+            @Value("${library.mail.rate-per-minute:60}") int ratePerMinute,
+            @Value("${library.mail.max-attempts:5}") int maxAttempts,
+            @Value("${library.mail.backoff-initial-ms:2000}") long backoffInitialMs,
+            @Value("${library.mail.backoff-max-ms:300000}") long backoffMaxMs,
+            @Value("${library.mail.tracking-size:10000}") int trackingSize,
+            @Value("${library.mail.dead-letter-size:1000}") int deadLetterSize) {
+
+        this.mailSender = mailSender.getIfAvailable();
+        this.threads = threads;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.workerCount = Math.max(1, workers);
+        this.batchSize = Math.max(1, batchSize);
+        this.ratePerMinute = Math.max(1, ratePerMinute);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffInitialMs = Math.max(1, backoffInitialMs);
+        this.backoffMaxMs = Math.max(this.backoffInitialMs, backoffMaxMs);
+        this.deadLetterSize = Math.max(1, deadLetterSize);
+        // Burst of at most one batch, refilled at ratePerMinute
+        this.limiter = new TokenBucket(Math.min(this.batchSize, this.ratePerMinute), this.ratePerMinute / 60_000.0);
+
+        int maxTracked = Math.max(1, trackingSize);
+        this.tracked = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Job> eldest) {
+                return size() > maxTracked;
+            }
+        };
+    }
+
+    @PostConstruct
+    public void start() {
+        if (mailSender == null) {
+            System.out.println("⚠️  Mail not configured, outbox disabled");
+            return;
+        }
+        running = true;
+        workers = Executors.newFixedThreadPool(workerCount, threads.factory("mail-worker"));
+        for (int i = 0; i < workerCount; i++)
+            workers.execute(this::run);
+
+        retryTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "mail-retry");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public boolean isMailConfigured() {
+        return mailSender != null;
+    }
+
+    /*
+     * Queues a message; returns its tracking id.
+     * onDead (optional) runs once if the message ends in the dead-letter store.
+     * Throws IllegalStateException when mail is off or the queue is full.
+     */
+    public String submit(SimpleMailMessage message, Consumer<MailDelivery> onDead) {
+        if (!running)
+            throw new IllegalStateException("Email Config Missing");
+
+        Job job = new Job(message, onDead);
+        synchronized (tracked) {
+            tracked.put(job.id, job);
+        }
+        if (!queue.offer(job)) {
+            synchronized (tracked) {
+                tracked.remove(job.id);
+            }
+            throw new IllegalStateException("Mail queue is full, try again later");
+        }
+        submitted.increment();
+        return job.id;
+    }
+
+    // ================= WORKERS =================
+    private void run() {
+        List<Job> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Job first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+                limiter.acquire();
+                batch.add(first);
+
+                // Fill the batch only with messages the rate limit allows now
+                int extra = limiter.tryAcquire(batchSize - 1);
+                int drained = queue.drainTo(batch, extra);
+                limiter.release(extra - drained);
+
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<Job> batch) {
+        String now = Instant.now().toString();
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < messages.length; i++) {
+            Job job = batch.get(i);
+            synchronized (job) {
+                job.status = SENDING;
+                job.attempts++;
+                job.lastAttemptAt = now;
+            }
+            messages[i] = job.message;
+        }
+
+        inFlight.addAndGet(messages.length);
+        batches.increment();
+        try {
+            mailSender.send(messages);
+            for (Job job : batch)
+                delivered(job);
+        } catch (MailSendException e) {
+            // Per-message results: only the failed ones are retried
+            Map<Object, Exception> failed = e.getFailedMessages();
+            for (Job job : batch) {
+                Exception cause = failed.isEmpty() ? e : failed.get(job.message);
+                if (cause == null)
+                    delivered(job);
+                else
+                    failed(job, cause);
+            }
+        } catch (Exception e) {
+            for (Job job : batch)
+                failed(job, e);
+        } finally {
+            inFlight.addAndGet(-messages.length);
+        }
+    }
+
+    private void delivered(Job job) {
+        synchronized (job) {
+            job.status = SENT;
+            job.sentAt = Instant.now().toString();
+            job.lastError = null;
+        }
+        sent.increment();
+    }
+
+    private void failed(Job job, Exception cause) {
+        failedAttempts.increment();
+        lastError = cause.getMessage();
+
+        int attempts;
+        synchronized (job) {
+            job.lastError = cause.getMessage();
+            attempts = job.attempts;
+        }
+        if (attempts >= maxAttempts || !running) {
+            deadLetter(job);
+            return;
+        }
+
+        synchronized (job) {
+            job.status = RETRYING;
+        }
+        waitingRetry.incrementAndGet();
+        try {
+            retryTimer.schedule(() -> {
+                waitingRetry.decrementAndGet();
+                requeue(job);
+            }, backoff(attempts), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            waitingRetry.decrementAndGet();
+            deadLetter(job);
+        }
+    }
+
+    // initial * 2^(attempt-1), capped, with +-20% jitter so retries do not bunch up
+    private long backoff(int attempt) {
+        long delay = backoffInitialMs << Math.min(attempt - 1, 30);
+        delay = Math.min(backoffMaxMs, delay);
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return (long) (delay * jitter);
+    }
+
+    private void requeue(Job job) {
+        synchronized (job) {
+            job.status = QUEUED;
+        }
+        if (!queue.offer(job))
+            deadLetter(job);
+    }
+
+    private void deadLetter(Job job) {
+        synchronized (job) {
+            job.status = DEAD;
+        }
+        dead.increment();
+        synchronized (deadLetters) {
+            deadLetters.addLast(job);
+            if (deadLetters.size() > deadLetterSize)
+                deadLetters.removeFirst();
+        }
+        System.err.println("❌ Mail " + job.id + " dead after " + job.attempts + " attempts: " + job.lastError);
+
+        if (job.onDead != null) {
+            try {
+                job.onDead.accept(job.snapshot());
+            } catch (Exception e) {
+                System.err.println("⚠️  Dead-letter callback failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // ================= DEAD LETTERS =================
+    public List<MailDelivery> getDeadLetters() {
+        List<MailDelivery> list = new ArrayList<>();
+        synchronized (deadLetters) {
+            for (Job job : deadLetters)
+                list.add(job.snapshot());
+        }
+        return list;
+    }
+
+    // Moves a dead letter back to the queue with a fresh attempt budget
+    public boolean retryDeadLetter(String id) {
+        Job job = null;
+        synchronized (deadLetters) {
+            for (Job j : deadLetters) {
+                if (j.id.equals(id)) {
+                    job = j;
+                    break;
+                }
+            }
+            if (job == null || !running)
+                return false;
+            deadLetters.remove(job);
+        }
+        synchronized (job) {
+            job.attempts = 0;
+            job.status = QUEUED;
+        }
+        synchronized (tracked) {
+            tracked.put(job.id, job);
+        }
+        if (!queue.offer(job)) {
+            deadLetter(job);
+            return false;
+        }
+        return true;
+    }
+
+    // ================= STATUS =================
+    public MailDelivery getDelivery(String id) {
+        Job job;
+        synchronized (tracked) {
+            job = tracked.get(id);
+        }
+        return job == null ? null : job.snapshot();
+    }
+
+    public Map<String, Object> stats() {
+        long b = batches.sum();
+        long attempts = sent.sum() + failedAttempts.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mailConfigured", isMailConfigured());
+        stats.put("workers", workerCount);
+        stats.put("ratePerMinute", ratePerMinute);
+        stats.put("queueDepth", queue.size());
+        stats.put("inFlight", inFlight.get());
+        stats.put("waitingRetry", waitingRetry.get());
+        stats.put("submitted", submitted.sum());
+        stats.put("sent", sent.sum());
+        stats.put("failedAttempts", failedAttempts.sum());
+        stats.put("dead", dead.sum());
+        stats.put("batches", b);
+        stats.put("avgBatchSize", b == 0 ? 0.0 : (double) attempts / b);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+
+    // ================= SHUTDOWN =================
+    @PreDestroy
+    public void shutdown() {
+        if (!running)
+            return;
+        // Workers finish the batch in hand, queued mail is reported as lost
+        running = false;
+        retryTimer.shutdownNow();
+        workers.shutdown();
+        try {
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int left = queue.size() + waitingRetry.get();
+        if (left > 0)
+            System.err.println("⚠️  Mail outbox: " + left + " messages not sent at shutdown");
+    }
+
+    /*
+     * Token bucket: capacity tokens max, refilled continuously at perMs.
+     * One token = one message.
+     */
+    private static final class TokenBucket {
+        private final double capacity;
+        private final double perMs;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        TokenBucket(double capacity, double perMs) {
+            this.capacity = capacity;
+            this.perMs = perMs;
+            this.tokens = capacity;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) / 1_000_000.0 * perMs);
+            lastRefill = now;
+        }
+
+        // Blocks until one token is available
+        void acquire() throws InterruptedException {
+            while (true) {
+                long waitMs;
+                synchronized (this) {
+                    refill();
+                    if (tokens >= 1) {
+                        tokens -= 1;
+                        return;
+                    }
+                    waitMs = (long) Math.ceil((1 - tokens) / perMs);
+                }
+                Thread.sleep(Math.max(1, waitMs));
+            }
+        }
+
+        // Takes up to n tokens without waiting; returns how many it got
+        synchronized int tryAcquire(int n) {
+            refill();
+            int granted = (int) Math.min(n, Math.floor(tokens));
+            tokens -= granted;
+            return granted;
+        }
+
+        synchronized void release(int n) {
+            tokens = Math.min(capacity, tokens + n);
+        }
+    }
+}
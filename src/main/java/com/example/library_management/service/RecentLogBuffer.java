@@ -0,0 +1,135 @@
+package com.example.library_management.service;
+
+import com.example.library_management.model.Log;
+import com.example.library_management.model.Page;
+import com.example.library_management.model.RecentLogs;
+import com.example.library_management.repository.LibraryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * RecentLogBuffer
+ * ---------------
+ * The last `capacity` audit logs, in memory, for /api/logs/recent.
+ * Recent activity costs no store reads, whatever the number of viewers.
+ *
+ * DSA Concept: ring buffer (power-of-two array, index = seq & mask)
+ *  - Slots are allocated once; a write reuses the slot of the entry
+ *    `capacity` writes older
+ *  - Every entry gets a sequence number (1, 2, 3, ...), which is also
+ *    the sinceSeq cursor of pollers
+ *
+ * Lock-free:
+ *  - Writers claim a sequence with one atomic increment
+ *  - Each slot is a tiny seqlock: the writer sets seq = -1, stores the
+ *    log, then publishes seq = its sequence (volatile writes). A reader
+ *    takes an entry only if it saw the expected seq before AND after
+ *    reading the log, so it never returns a half-replaced slot
+ *  - Readers never block writers or each other; a read copies at most
+ *    n references and allocates nothing else
+ *
+ * Filled at startup with the newest logs of the store (one bounded query).
+ */
+@Component
+public class RecentLogBuffer {
+
+    private static final class Slot {
+        volatile long seq = -1;
+        volatile Log log;
+    }
+
+    private final LibraryRepository repository;
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public RecentLogBuffer(
+            LibraryRepository repository,
+            @Value("${library.logs.recent-capacity:1024}") int capacity) {
+
+        this.repository = repository;
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++)
+            slots[i] = new Slot();
+        this.mask = size - 1;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!repository.isAvailable() || sequence.get() > 0)
+            return;
+        try {
+            Page<Log> newest = repository.findLogs(null, null, null, slots.length, null);
+            List<Log> items = newest.getItems();
+            for (int i = items.size() - 1; i >= 0; i--)
+                add(items.get(i));
+        } catch (Exception e) {
+            System.err.println("⚠️  Recent activity starts empty: " + e.getMessage());
+        }
+    }
+
+    // Wait-free for the caller: one atomic increment and three volatile writes
+    public void add(Log log) {
+        long seq = sequence.incrementAndGet();
+        Slot slot = slots[(int) (seq & mask)];
+        slot.seq = -1;
+        slot.log = log;
+        slot.seq = seq;
+    }
+
+    /*
+     * Up to n entries with seq > sinceSeq, newest first.
+     * sinceSeq = 0 (or a value from before a restart) means "the latest n".
+     * An entry still being written stops lastSeq below it, so a poller
+     * picks it up next time instead of skipping it.
+     */
+    public RecentLogs read(long sinceSeq, int n) {
+        long head = sequence.get();
+        if (sinceSeq < 0 || sinceSeq > head)
+            sinceSeq = 0;
+        int limit = Math.max(1, Math.min(n, slots.length));
+        long oldest = Math.max(1, head - slots.length + 1);
+        long from = Math.max(sinceSeq + 1, oldest);
+
+        List<Log> items = new ArrayList<>((int) Math.min(limit, Math.max(0, head - from + 1)));
+        long newest = -1;
+        long lowest = head + 1;
+        long inProgress = -1;
+
+        for (long seq = head; seq >= from && items.size() < limit; seq--) {
+            Slot slot = slots[(int) (seq & mask)];
+            long before = slot.seq;
+            Log log = slot.log;
+            long after = slot.seq;
+
+            if (before > seq || after > seq)
+                break;                      // overwritten: everything older is gone too
+            if (before != seq || after != seq) {
+                // Not published yet: drop what is newer, report below it
+                items.clear();
+                newest = -1;
+                inProgress = seq;
+                continue;
+            }
+            if (items.isEmpty())
+                newest = seq;
+            items.add(log);
+            lowest = seq;
+        }
+
+        long lastSeq = newest >= 0 ? newest : inProgress >= 0 ? inProgress - 1 : Math.max(sinceSeq, head);
+        boolean truncated = !items.isEmpty() && lowest > sinceSeq + 1;
+        return new RecentLogs(items, lastSeq, truncated);
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,354 @@
+package com.example.library_management.service;
+
+import com.example.library_management.model.Issue;
+import com.example.library_management.model.Page;
+import com.example.library_management.repository.LibraryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * ReminderScheduler
+ * -----------------
+ * Sends the "please return" mail automatically when a loan becomes due.
+ *
+ * DSA Concepts:
+ *  - PriorityQueue (min-heap) of open issues ordered by fire time
+ *    -> the next reminder is always at the head, O(log n) insert / poll
+ *  - HashMap issueId -> entry for O(1) cancel on return
+ *    (cancelled entries stay in the heap and are skipped when they
+ *    reach the head; the heap is rebuilt when they pile up)
+ *
+ * Flow:
+ *  - Startup: open issues are loaded ONCE (paged, sorted by dueDate)
+ *  - Issue / return: IssueChangedEvent adds or cancels one entry,
+ *    the issues collection is never rescanned
+ *  - One thread sleeps until the head's fire time (dueDate at send-time,
+ *    minus days-before-due), so reminders go out on time, not on a poll
+ *
+ * Sent at most once:
+ *  - Before mailing, issue.reminderSent is claimed in a transaction
+ *    (markReminderSent) - a returned or already reminded issue is skipped,
+ *    also when another instance got there first
+ *  - The mail goes through MailOutbox (its own SMTP retries); if it ends
+ *    in the dead-letter store the claim is released again
+ *  - If queueing fails the claim is released and the entry retried
+ *    after retry-delay-minutes (max-attempts in total)
+ */
+@Component
+public class ReminderScheduler {
+
+    private static final int LOAD_PAGE_SIZE = 500;
+
+    private final LibraryRepository repository;
+    private final FirebaseService firebaseService;
+    private final ReminderService reminderService;
+
+    private final boolean enabled;
+    private final int daysBeforeDue;
+    private final LocalTime sendTime;
+    private final long retryDelayMs;
+    private final int maxAttempts;
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(Comparator.comparingLong(e -> e.fireAt));
+    private final Map<String, Entry> pending = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    private Thread worker;
+    private volatile boolean running;
+
+    // ---- Metrics ----
+    private final AtomicLong loaded = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong undelivered = new AtomicLong();
+    private volatile String lastError;
+
+    private static class Entry {
+        final Issue issue;
+        final long fireAt;
+        final int attempt;
+        boolean cancelled;
+
+        Entry(Issue issue, long fireAt, int attempt) {
+            this.issue = issue;
+            this.fireAt = fireAt;
+            this.attempt = attempt;
+        }
+    }
+
+    public ReminderScheduler(
+            LibraryRepository repository,
+            FirebaseService firebaseService,
+            ReminderService reminderService,
+            @Value("${library.reminder.enabled:true}") boolean enabled,
+            @Value("${library.reminder.days-before-due:0}") int daysBeforeDue,
+            @Value("${library.reminder.send-time:09:00}") String sendTime,
+            @Value("${library.reminder.retry-delay-minutes:15}") long retryDelayMinutes,
+            @Value("${library.reminder.max-attempts:3}") int maxAttempts) {
+
+        this.repository = repository;
+        this.firebaseService = firebaseService;
+        this.reminderService = reminderService;
+        this.enabled = enabled;
+        this.daysBeforeDue = Math.max(0, daysBeforeDue);
+        this.sendTime = LocalTime.parse(sendTime);
+        this.retryDelayMs = TimeUnit.MINUTES.toMillis(Math.max(1, retryDelayMinutes));
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            System.out.println("🔕 Reminder scheduler disabled");
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "reminder-scheduler");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (worker == null)
+            return;
+        lock.lock();
+        try {
+            running = false;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ================= UPDATES =================
+    @EventListener
+    public void onIssueChanged(IssueChangedEvent event) {
+        if (!enabled)
+            return;
+        Issue issue = event.getIssue();
+        if (event.isOpen() && !issue.isReminderSent())
+            schedule(issue, 1);
+        else
+            cancel(issue.getId());
+    }
+
+    private void schedule(Issue issue, int attempt) {
+        long fireAt = attempt == 1 ? fireTime(issue) : System.currentTimeMillis() + retryDelayMs * (attempt - 1);
+        if (fireAt < 0) {
+            skipped.incrementAndGet();
+            return;
+        }
+        schedule(new Entry(issue, fireAt, attempt));
+    }
+
+    private void schedule(Entry entry) {
+        lock.lock();
+        try {
+            Entry previous = pending.put(entry.issue.getId(), entry);
+            if (previous != null)
+                previous.cancelled = true;
+            queue.add(entry);
+            compactIfNeeded();
+            // Wake the worker only if the earliest fire time changed
+            if (queue.peek() == entry)
+                changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void cancel(String issueId) {
+        lock.lock();
+        try {
+            Entry previous = pending.remove(issueId);
+            if (previous != null)
+                previous.cancelled = true;
+            compactIfNeeded();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Drops cancelled entries once they outnumber the live ones (caller holds the lock)
+    private void compactIfNeeded() {
+        if (queue.size() > 2 * pending.size() + 64)
+            queue.removeIf(e -> e.cancelled);
+    }
+
+    // Epoch millis of the reminder, -1 if the issue has no usable due date
+    private long fireTime(Issue issue) {
+        try {
+            return LocalDate.parse(issue.getDueDate())
+                    .minusDays(daysBeforeDue)
+                    .atTime(sendTime)
+                    .atZone(ZoneId.systemDefault())
+                    .toInstant()
+                    .toEpochMilli();
+        } catch (Exception e) {
+            System.err.println("⚠️  Reminder skipped, bad due date on issue " + issue.getId() + ": " + issue.getDueDate());
+            return -1;
+        }
+    }
+
+    // ================= WORKER THREAD =================
+    private void run() {
+        load();
+        while (running) {
+            Entry due;
+            lock.lock();
+            try {
+                Entry head = queue.peek();
+                while (head != null && head.cancelled) {
+                    queue.poll();
+                    head = queue.peek();
+                }
+                if (head == null) {
+                    changed.await();
+                    continue;
+                }
+                long wait = head.fireAt - System.currentTimeMillis();
+                if (wait > 0) {
+                    changed.await(wait, TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                queue.poll();
+                pending.remove(head.issue.getId());
+                due = head;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            fire(due);
+        }
+    }
+
+    // One pass over the open issues at startup, page by page
+    private void load() {
+        if (!repository.isAvailable()) {
+            System.out.println("⚠️  Storage not available, reminder scheduler starts empty");
+            return;
+        }
+        try {
+            String token = null;
+            do {
+                Page<Issue> page = repository.findIssues("open", "dueDate", LOAD_PAGE_SIZE, token);
+                for (Issue issue : page.getItems()) {
+                    if (!issue.isReminderSent()) {
+                        schedule(issue, 1);
+                        loaded.incrementAndGet();
+                    }
+                }
+                token = page.getNextPageToken();
+            } while (token != null && running);
+            System.out.println("🔔 Reminder scheduler loaded " + loaded.get() + " open issues");
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            System.err.println("❌ Reminder scheduler could not load issues: " + e.getMessage());
+        }
+    }
+
+    private void fire(Entry entry) {
+        Issue issue = entry.issue;
+
+        if (!reminderService.isMailConfigured()) {
+            failed.incrementAndGet();
+            lastError = "Email Config Missing";
+            return;
+        }
+
+        boolean claimed = false;
+        try {
+            claimed = firebaseService.markReminderSent(issue.getId(), true);
+            if (!claimed) {
+                // Returned, or reminded by someone else in the meantime
+                skipped.incrementAndGet();
+                return;
+            }
+            // Undelivered after all outbox retries: release the claim
+            String trackingId = reminderService.sendReminder(issue, delivery -> {
+                undelivered.incrementAndGet();
+                release(issue.getId());
+            });
+            sent.incrementAndGet();
+            System.out.println("🔔 Reminder queued for " + issue.getBookTitle() + " (tracking id: " + trackingId + ")");
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            if (claimed)
+                release(issue.getId());
+
+            if (entry.attempt < maxAttempts) {
+                retried.incrementAndGet();
+                schedule(issue, entry.attempt + 1);
+            } else {
+                failed.incrementAndGet();
+                System.err.println("❌ Reminder for issue " + issue.getId() + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void release(String issueId) {
+        try {
+            firebaseService.markReminderSent(issueId, false);
+        } catch (Exception e) {
+            System.err.println("⚠️  Could not release reminder claim on issue " + issueId + ": " + e.getMessage());
+        }
+    }
+
+    // ================= METRICS =================
+    public Map<String, Object> stats() {
+        int pendingCount;
+        Long nextFireAt = null;
+        lock.lock();
+        try {
+            pendingCount = pending.size();
+            while (queue.peek() != null && queue.peek().cancelled)
+                queue.poll();
+            if (queue.peek() != null)
+                nextFireAt = queue.peek().fireAt;
+        } finally {
+            lock.unlock();
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("mailConfigured", reminderService.isMailConfigured());
+        stats.put("pending", pendingCount);
+        stats.put("nextReminderAt", nextFireAt == null ? null : Instant.ofEpochMilli(nextFireAt).toString());
+        stats.put("loadedAtStartup", loaded.get());
+        stats.put("sent", sent.get());
+        stats.put("skipped", skipped.get());
+        stats.put("retried", retried.get());
+        stats.put("failed", failed.get());
+        stats.put("undelivered", undelivered.get());
+        stats.put("lastError", lastError);
+        return stats;
+    }
+}
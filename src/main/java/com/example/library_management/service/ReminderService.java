@@ -1,87 +1,107 @@
 package com.example.library_management.service;
 
 import com.example.library_management.model.Issue;
+import com.example.library_management.model.MailDelivery;
 import com.example.library_management.model.Student;
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.firebase.cloud.FirestoreClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.function.Consumer;
 
 @Service
 public class ReminderService {
 
-    @Autowired(required = false)
-    private JavaMailSender mailSender;
+    // Mail is queued and sent in the background (see MailOutbox)
+    @Autowired
+    private MailOutbox mailOutbox;
+
+    // Lookups go through FirebaseService so they hit its cache
+    @Autowired
+    private FirebaseService firebaseService;
 
     // ---------------- SEND MANUAL REMINDER ----------------
-    public String sendManualReminder(String bookId) {
+    public String sendManualReminder(String issueId) {
 
-        if (mailSender == null) {
+        if (!mailOutbox.isMailConfigured()) {
             return "Error: Email Config Missing";
         }
 
         try {
-            var db = FirestoreClient.getFirestore();
-
-            // 1️⃣ Get Issue by bookId
-            DocumentSnapshot issueDoc = db.collection("issues")
-                    .document(bookId)
-                    .get()
-                    .get();
+            // 1️⃣ Get Issue by id
+            Issue issue = firebaseService.getIssue(issueId);
 
-            if (!issueDoc.exists())
+            if (issue == null)
                 return "Error: Book not found in issued list";
 
-            Issue issue = issueDoc.toObject(Issue.class);
-
             // DEBUG LOGS
             System.out.println("ISSUE OBJECT = " + issue);
             System.out.println("DUE DATE = " + issue.getDueDate());
 
             // 2️⃣ Get Student
-            DocumentSnapshot studentDoc = db.collection("students")
-                    .document(issue.getStudentId())
-                    .get()
-                    .get();
+            Student student = firebaseService.getStudent(issue.getStudentId());
 
-            if (!studentDoc.exists())
+            if (student == null)
                 return "Error: Student profile not found";
 
-            Student student = studentDoc.toObject(Student.class);
-
             if (student.getEmail() == null || student.getEmail().isEmpty()) {
                 return "Error: Student has no email address";
             }
 
-            // 3️⃣ SAFETY FALLBACK FOR DUE DATE
-            String dueDate = issue.getDueDate();
-            if (dueDate == null || dueDate.isEmpty()) {
-                LocalDate issueDate = LocalDate.parse(issue.getIssueDate());
-                dueDate = issueDate.plusDays(14).toString();
-            }
-
-            // 4️⃣ SEND EMAIL
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(student.getEmail());
-            message.setSubject("Library Reminder: Please Return Book");
-            message.setText(
-                    "Hello " + student.getName() + ",\n\n" +
-                            "This is a reminder to return the book:\n\n" +
-                            "Book: " + issue.getBookTitle() + "\n" +
-                            "Due Date: " + dueDate + "\n\n" +
-                            "Thank you,\nLibrary Admin");
-
-            mailSender.send(message);
+            // 3️⃣ QUEUE EMAIL (returns at once, SMTP runs on the outbox workers)
+            String trackingId = mailOutbox.submit(buildMessage(student, issue), null);
 
-            return "Email sent successfully to " + student.getEmail();
+            return "Email queued for " + student.getEmail() + " (tracking id: " + trackingId + ")";
 
         } catch (Exception e) {
             e.printStackTrace();
             return "Error sending email: " + e.getMessage();
         }
     }
+
+    // ---------------- SEND SCHEDULED REMINDER ----------------
+    /*
+     * Used by ReminderScheduler: queues the mail and returns its tracking id,
+     * throws with the reason if nothing was queued.
+     * onDead runs if delivery is given up later.
+     */
+    public String sendReminder(Issue issue, Consumer<MailDelivery> onDead) throws Exception {
+
+        if (!mailOutbox.isMailConfigured())
+            throw new IllegalStateException("Email Config Missing");
+
+        Student student = firebaseService.getStudent(issue.getStudentId());
+        if (student == null)
+            throw new IllegalStateException("Student profile not found");
+        if (student.getEmail() == null || student.getEmail().isEmpty())
+            throw new IllegalStateException("Student has no email address");
+
+        return mailOutbox.submit(buildMessage(student, issue), onDead);
+    }
+
+    public boolean isMailConfigured() {
+        return mailOutbox.isMailConfigured();
+    }
+
+    private SimpleMailMessage buildMessage(Student student, Issue issue) {
+
+        // SAFETY FALLBACK FOR DUE DATE
+        String dueDate = issue.getDueDate();
+        if (dueDate == null || dueDate.isEmpty()) {
+            LocalDate issueDate = LocalDate.parse(issue.getIssueDate());
+            dueDate = issueDate.plusDays(14).toString();
+        }
+
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(student.getEmail());
+        message.setSubject("Library Reminder: Please Return Book");
+        message.setText(
+                "Hello " + student.getName() + ",\n\n" +
+                        "This is a reminder to return the book:\n\n" +
+                        "Book: " + issue.getBookTitle() + "\n" +
+                        "Due Date: " + dueDate + "\n\n" +
+                        "Thank you,\nLibrary Admin");
+        return message;
+    }
 }
@@ -20,4 +20,21 @@ document.addEventListener('DOMContentLoaded', () => {
     window.addEventListener('unhandledrejection', function(event) {
         console.warn("Unhandled promise rejection:", event.reason);
     });
-});
\ No newline at end of file
+});
+
+/**
+ * fetch() for JSON APIs.
+ * A 429 (rate limited) waits the server's Retry-After and asks again, up to
+ * `retries` times; any other non-2xx answer rejects instead of handing the
+ * error body to the caller as if it were data.
+ */
+async function fetchJson(url, options, retries = 2) {
+    const res = await fetch(url, options);
+    if (res.status === 429 && retries > 0) {
+        const seconds = Number(res.headers.get('Retry-After')) || 1;
+        await new Promise(resolve => setTimeout(resolve, seconds * 1000));
+        return fetchJson(url, options, retries - 1);
+    }
+    if (!res.ok) throw new Error(`${res.status} ${res.statusText} (${url})`);
+    return res.json();
+}
\ No newline at end of file
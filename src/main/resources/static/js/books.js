@@ -2,19 +2,47 @@ document.addEventListener("DOMContentLoaded", () => {
     loadBooks();
     setupAddBookForm();
     setupSearch();
+    setupInfiniteScroll();
 });
 
+const PAGE_SIZE = 50;
+
 let allBooks = [];
+let nextPageToken = null;
+let loadingPage = false;
+
+// Server-side search (/api/books/search) while the search box is not empty
+let searchTimer = null;
+let searchSeq = 0;
+let searchCategory = null;
 
 /* ================= LOAD BOOKS ================= */
+// Starts again from the first page (after add / delete)
 function loadBooks() {
+    allBooks = [];
+    nextPageToken = null;
+    loadNextPage(true);
+    if (searching()) applySearch();
+}
+
+// Fetches one page and appends it to what is already on screen
+function loadNextPage(firstPage) {
+    if (loadingPage || (!firstPage && (searching() || !nextPageToken))) return;
+    loadingPage = true;
+
     const tbody = document.getElementById("booksGrid");
+    let url = `/api/books?limit=${PAGE_SIZE}`;
+    if (nextPageToken) url += `&pageToken=${encodeURIComponent(nextPageToken)}`;
 
-    fetch("/api/books")
+    fetch(url)
         .then(res => res.json())
-        .then(data => {
-            allBooks = data;
-            renderBooks(data);
+        .then(page => {
+            allBooks = allBooks.concat(page.items);
+            nextPageToken = page.nextPageToken;
+            if (!searching()) {
+                renderBooks(allBooks);
+                updateSentinel();
+            }
         })
         .catch(() => {
             tbody.innerHTML = `
@@ -23,7 +51,21 @@ function loadBooks() {
                   Failed to load books
                 </td>
               </tr>`;
-        });
+        })
+        .finally(() => loadingPage = false);
+}
+
+/* ================= INFINITE SCROLL ================= */
+function setupInfiniteScroll() {
+    const sentinel = document.getElementById("booksSentinel");
+    new IntersectionObserver(entries => {
+        if (entries[0].isIntersecting) loadNextPage(false);
+    }).observe(sentinel);
+}
+
+function updateSentinel() {
+    document.getElementById("booksSentinel").innerText =
+        nextPageToken ? "Loading more..." : "";
 }
 
 /* ================= RENDER BOOKS ================= */
@@ -46,8 +88,8 @@ function renderBooks(books) {
           <td>${b.title}</td>
           <td>${b.author || "-"}</td>
           <td>
-            <span class="badge ${b.issued ? 'bg-warning' : 'badge-avail'}">
-              ${b.issued ? 'Issued' : 'Available'}
+            <span class="badge badge-avail">
+              ${copiesOf(b)} ${copiesOf(b) === 1 ? 'copy' : 'copies'}
             </span>
           </td>
           <td class="text-end pe-4">
@@ -83,6 +125,11 @@ function setupAddBookForm() {
     });
 }
 
+// Books saved without a quantity own one copy (same rule as the server)
+function copiesOf(book) {
+    return book.quantity > 0 ? book.quantity : 1;
+}
+
 /* ================= DELETE BOOK ================= */
 function deleteBook(id) {
     if (!confirm("Delete this book?")) return;
@@ -94,16 +141,85 @@ function deleteBook(id) {
 /* ================= SEARCH ================= */
 function setupSearch() {
     const input = document.getElementById("searchInput");
+    input.addEventListener("input", () => {
+        clearTimeout(searchTimer);
+        searchCategory = null;
+        searchTimer = setTimeout(() => {
+            applySearch();
+            loadSuggestions(input.value);
+        }, 150);
+    });
+}
 
-    input.addEventListener("keyup", () => {
-        const term = input.value.toLowerCase();
+function searching() {
+    return document.getElementById("searchInput").value.trim() !== "";
+}
 
-        const filtered = allBooks.filter(b =>
-            b.id.toLowerCase().includes(term) ||
-            b.title.toLowerCase().includes(term) ||
-            (b.author && b.author.toLowerCase().includes(term))
-        );
+// Empty box: back to the paged list. Otherwise ask the search index.
+function applySearch() {
+    const q = document.getElementById("searchInput").value;
+    const facets = document.getElementById("searchFacets");
 
-        renderBooks(filtered);
+    if (!q.trim()) {
+        facets.innerHTML = "";
+        renderBooks(allBooks);
+        updateSentinel();
+        return;
+    }
+
+    const seq = ++searchSeq;
+    let url = `/api/books/search?limit=${PAGE_SIZE}&q=${encodeURIComponent(q)}`;
+    if (searchCategory) url += `&category=${encodeURIComponent(searchCategory)}`;
+
+    fetchJson(url)
+        .then(result => {
+            // A newer keystroke already asked again
+            if (seq !== searchSeq) return;
+            renderBooks(result.hits || []);
+            renderFacets(result.facets || {});
+            document.getElementById("booksSentinel").innerText =
+                `${result.total} match${result.total === 1 ? "" : "es"}`;
+        })
+        .catch(() => {
+            // Keep the last results on screen: a failed request is not "no matches"
+            if (seq === searchSeq)
+                document.getElementById("booksSentinel").innerText = "Search failed, keep typing to retry";
+        });
+}
+
+function renderFacets(facets) {
+    const box = document.getElementById("searchFacets");
+    box.innerHTML = "";
+
+    Object.entries(facets).forEach(([category, count]) => {
+        const button = document.createElement("button");
+        button.className = `btn btn-sm rounded-pill ${category === searchCategory ? 'btn-success' : 'btn-outline-secondary'}`;
+        button.textContent = `${category} (${count})`;
+        button.addEventListener("click", () => toggleCategory(category));
+        box.appendChild(button);
     });
 }
+
+function toggleCategory(category) {
+    searchCategory = searchCategory === category ? null : category;
+    applySearch();
+}
+
+function loadSuggestions(q) {
+    const list = document.getElementById("searchSuggestions");
+    if (!q.trim()) {
+        list.innerHTML = "";
+        return;
+    }
+    // Suggestions are optional: no retry, the next keystroke asks again
+    fetchJson(`/api/books/suggest?limit=8&q=${encodeURIComponent(q)}`, undefined, 0)
+        .then(words => {
+            list.innerHTML = "";
+            words.forEach(w => {
+                const option = document.createElement("option");
+                option.value = w;
+                list.appendChild(option);
+            });
+        })
+        .catch(() => list.innerHTML = "");
+}
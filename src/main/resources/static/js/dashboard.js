@@ -1,4 +1,5 @@
 document.addEventListener('DOMContentLoaded', loadDashboard);
+document.addEventListener('DOMContentLoaded', pollRecentLogs);
 
 // ===== ANIMATE NUMBER COUNTER =====
 function animateCounter(elementId, finalValue) {
@@ -58,32 +59,19 @@ function animateFineCounter(elementId, finalValue) {
 
 async function loadDashboard() {
     try {
-        const [books, students, issues] = await Promise.all([
-            fetch('/api/books').then(r => r.json()),
-            fetch('/api/students').then(r => r.json()),
-            fetch('/api/issues').then(r => r.json())
-        ]);
+        // One request: totals come from server-side counters
+        const summary = await fetch('/api/dashboard/summary').then(r => r.json());
 
         // ---------------- COUNTS ----------------
-        animateCounter('totalBooksCount', books.length);
-        animateCounter('membersCount', students.length);
+        animateCounter('totalBooksCount', summary.totalBooks);
+        animateCounter('membersCount', summary.members);
 
-        const issued = issues.filter(i => !i.returnDate);
-        const returned = issues.filter(i => i.returnDate);
-
-        animateCounter('borrowedCount', issued.length);
-        animateCounter('returnedCount', returned.length);
-
-        const today = new Date();
-        const overdue = issued.filter(i => new Date(i.dueDate) < today);
-        animateCounter('overdueCount', overdue.length);
-
-        // ---------------- FINE CALCULATION ----------------
-        let totalFine = 0;
-        overdue.forEach(i => {
-            totalFine += calculateFine(i.dueDate);
-        });
+        animateCounter('borrowedCount', summary.borrowed);
+        animateCounter('returnedCount', summary.returned);
+        animateCounter('overdueCount', summary.overdue);
 
+        // ---------------- FINE ----------------
+        const totalFine = summary.outstandingFine;
         animateFineCounter('totalFine', totalFine);
 
         // Add pulse animation to fine card on load
@@ -94,14 +82,14 @@ async function loadDashboard() {
 
         // Add staggered animations to tables
         setTimeout(() => {
-            renderOverdueTable(overdue);
+            renderOverdueTable(summary.overdueIssues);
         }, 600);
 
         setTimeout(() => {
-            renderRecentTable(issues);
+            renderRecentTable(summary.recentIssues);
         }, 800);
 
-        renderPieChart(issued.length, returned.length);
+        renderPieChart(summary.borrowed, summary.returned);
 
     } catch (err) {
         console.error("Dashboard error:", err);
@@ -151,7 +139,8 @@ function renderRecentTable(issues) {
         return;
     }
 
-    tbody.innerHTML = issues.slice(-5).reverse().map(i => `
+    // Already newest first and limited by the server
+    tbody.innerHTML = issues.map(i => `
         <tr>
           <td>
             <strong>${i.bookTitle}</strong><br>
@@ -166,6 +155,52 @@ function renderRecentTable(issues) {
     `).join('');
 }
 
+// ---------------- LIVE AUDIT LOG ----------------
+// Polls the in-memory ring: only entries newer than lastSeq come back
+const RECENT_LOGS_SHOWN = 10;
+const RECENT_LOGS_POLL_MS = 5000;
+let recentLogsSeq = 0;
+
+async function pollRecentLogs() {
+    try {
+        const res = await fetch(`/api/logs/recent?n=${RECENT_LOGS_SHOWN}&sinceSeq=${recentLogsSeq}`)
+            .then(r => r.json());
+        const first = recentLogsSeq === 0;
+        recentLogsSeq = res.lastSeq;
+        renderRecentLogs(res.items, first || res.truncated);
+    } catch (err) {
+        console.error("Recent activity error:", err);
+    } finally {
+        setTimeout(pollRecentLogs, RECENT_LOGS_POLL_MS);
+    }
+}
+
+function renderRecentLogs(logs, replace) {
+    const tbody = document.getElementById('recentLogsTableBody');
+    if (!tbody) return;
+
+    if (replace) tbody.innerHTML = '';
+    if (!logs.length) {
+        if (!tbody.children.length)
+            tbody.innerHTML = `<tr><td class="text-muted">No activity</td></tr>`;
+        return;
+    }
+
+    tbody.querySelectorAll('td.text-muted').forEach(td => td.parentElement.remove());
+    tbody.insertAdjacentHTML('afterbegin', logs.map(l => `
+        <tr>
+          <td>
+            <strong>${l.description}</strong><br>
+            <small class="text-muted">${(l.timestamp || '').replace('T', ' ').substring(0, 19)}</small>
+          </td>
+          <td><span class="badge bg-secondary">${l.actionType}</span></td>
+        </tr>
+    `).join(''));
+
+    while (tbody.children.length > RECENT_LOGS_SHOWN)
+        tbody.lastElementChild.remove();
+}
+
 
 // ---------------- ADVANCED PIE CHART WITH PERCENTAGES ----------------
 function renderPieChart(issued, returned) {
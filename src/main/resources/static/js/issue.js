@@ -6,21 +6,57 @@ document.addEventListener("DOMContentLoaded", () => {
 
     document.getElementById("searchInput")
         .addEventListener("input", searchIssuedBooks);
+
+    setupInfiniteScroll();
 });
 
 // ================= GLOBAL =================
+const PAGE_SIZE = 50;
+
 let allIssuedBooks = [];
+let nextPageToken = null;
+let loadingPage = false;
 
 // ================= LOAD ISSUED BOOKS =================
+// Starts again from the first page (after issue / return)
 function loadIssuedBooks() {
-    fetch("/api/issues")
+    allIssuedBooks = [];
+    nextPageToken = null;
+    loadNextPage(true);
+}
+
+// Fetches one page and appends it to what is already on screen
+function loadNextPage(firstPage) {
+    if (loadingPage || (!firstPage && !nextPageToken)) return;
+    loadingPage = true;
+
+    // 🔥 ONLY ACTIVE ISSUES (filtered by the server)
+    let url = `/api/issues?status=open&sort=dueDate&limit=${PAGE_SIZE}`;
+    if (nextPageToken) url += `&pageToken=${encodeURIComponent(nextPageToken)}`;
+
+    fetch(url)
         .then(res => res.json())
-        .then(issues => {
-            // 🔥 ONLY ACTIVE ISSUES
-            allIssuedBooks = issues.filter(i => !i.returnDate);
-            renderIssuedBooks(allIssuedBooks);
+        .then(page => {
+            allIssuedBooks = allIssuedBooks.concat(page.items);
+            nextPageToken = page.nextPageToken;
+            searchIssuedBooks();
+            updateSentinel();
         })
-        .catch(err => console.error("Load issues failed:", err));
+        .catch(err => console.error("Load issues failed:", err))
+        .finally(() => loadingPage = false);
+}
+
+// ================= INFINITE SCROLL =================
+function setupInfiniteScroll() {
+    const sentinel = document.getElementById("issuesSentinel");
+    new IntersectionObserver(entries => {
+        if (entries[0].isIntersecting) loadNextPage(false);
+    }).observe(sentinel);
+}
+
+function updateSentinel() {
+    document.getElementById("issuesSentinel").innerText =
+        nextPageToken ? "Loading more..." : "";
 }
 
 // ================= RENDER TABLE =================
@@ -44,7 +80,7 @@ function renderIssuedBooks(list) {
             <tr>
               <td class="ps-4">
                 <strong>${issue.bookTitle}</strong><br>
-                <small class="text-muted">#${issue.bookId}</small>
+                <small class="text-muted">#${issue.copyId || issue.bookId}</small>
               </td>
 
               <td>
@@ -61,13 +97,13 @@ function renderIssuedBooks(list) {
                 <!-- 🔔 REMINDER -->
                 <button class="btn btn-warning btn-sm rounded-circle me-2 text-white"
                         title="Send Reminder"
-                        onclick="sendReminder('${issue.bookId}')">
+                        onclick="sendReminder('${issue.id}')">
                   <i class="bi bi-bell-fill"></i>
                 </button>
 
                 <!-- ↩️ RETURN -->
                 <button class="btn btn-outline-dark btn-sm"
-                        onclick="returnBook('${issue.bookId}')">
+                        onclick="returnBook('${issue.id}')">
                   Return
                 </button>
 
@@ -77,8 +113,9 @@ function renderIssuedBooks(list) {
 }
 
 // ================= SEARCH =================
-function searchIssuedBooks(e) {
-    const q = e.target.value.toLowerCase();
+// Filters the pages loaded so far
+function searchIssuedBooks() {
+    const q = document.getElementById("searchInput").value.toLowerCase();
 
     const filtered = allIssuedBooks.filter(i =>
         i.bookTitle.toLowerCase().includes(q) ||
@@ -108,7 +145,7 @@ function issueBook(e) {
     formData.append("studentId", studentId);
     formData.append("bookId", bookId);
 
-    fetch("/api/issue", { method: "POST", body: formData })
+    postIdempotent("/api/issue", formData)
         .then(res => res.text())
         .then(text => {
             msg.innerText = text;
@@ -123,18 +160,36 @@ function issueBook(e) {
 }
 
 // ================= RETURN BOOK =================
-function returnBook(bookId) {
+function returnBook(issueId) {
     if (!confirm("Return this book?")) return;
 
-    fetch(`/api/return/${bookId}`, { method: "POST" })
+    postIdempotent(`/api/return/${encodeURIComponent(issueId)}`)
         .then(() => loadIssuedBooks());
 }
 
+// ================= SAFE RETRIES =================
+// One Idempotency-Key per click: if the network drops, the POST is sent
+// again with the same key and the server answers it only once
+function postIdempotent(url, body, attempts = 3) {
+    const key = window.crypto && crypto.randomUUID
+        ? crypto.randomUUID()
+        : Date.now().toString(36) + "-" + Math.random().toString(36).slice(2);
+    const send = left => fetch(url, {
+        method: "POST",
+        body: body,
+        headers: { "Idempotency-Key": key }
+    }).catch(err => {
+        if (left <= 1) throw err;
+        return new Promise(r => setTimeout(r, 500)).then(() => send(left - 1));
+    });
+    return send(attempts);
+}
+
 // ================= SEND REMINDER =================
-function sendReminder(bookId) {
+function sendReminder(issueId) {
     if (!confirm("Send reminder email to student?")) return;
 
-    fetch(`/api/remind/${bookId}`, { method: "POST" })
+    fetch(`/api/remind/${encodeURIComponent(issueId)}`, { method: "POST" })
         .then(res => res.text())
         .then(msg => alert(msg))
         .catch(() => alert("Failed to send reminder"));
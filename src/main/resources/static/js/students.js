@@ -6,21 +6,56 @@ document.addEventListener("DOMContentLoaded", () => {
 
     document.getElementById("searchInput")
         .addEventListener("input", applySearch);
+
+    setupInfiniteScroll();
 });
 
+const PAGE_SIZE = 50;
+
 let allStudents = [];
 let currentView = [];
 let currentSort = { field: null, asc: true };
+let nextPageToken = null;
+let loadingPage = false;
 
 /* ================= LOAD STUDENTS ================= */
+// Starts again from the first page (after add)
 function loadStudents() {
-    fetch("/api/students")
+    allStudents = [];
+    nextPageToken = null;
+    loadNextPage(true);
+}
+
+// Fetches one page and appends it to what is already on screen
+function loadNextPage(firstPage) {
+    if (loadingPage || (!firstPage && !nextPageToken)) return;
+    loadingPage = true;
+
+    let url = `/api/students?limit=${PAGE_SIZE}`;
+    if (nextPageToken) url += `&pageToken=${encodeURIComponent(nextPageToken)}`;
+
+    fetch(url)
         .then(res => res.json())
-        .then(data => {
-            allStudents = data;
-            currentView = [...data];
-            renderStudents(currentView);
-        });
+        .then(page => {
+            allStudents = allStudents.concat(page.items);
+            nextPageToken = page.nextPageToken;
+            applySearch();
+            updateSentinel();
+        })
+        .finally(() => loadingPage = false);
+}
+
+/* ================= INFINITE SCROLL ================= */
+function setupInfiniteScroll() {
+    const sentinel = document.getElementById("studentsSentinel");
+    new IntersectionObserver(entries => {
+        if (entries[0].isIntersecting) loadNextPage(false);
+    }).observe(sentinel);
+}
+
+function updateSentinel() {
+    document.getElementById("studentsSentinel").innerText =
+        nextPageToken ? "Loading more..." : "";
 }
 
 /* ================= RENDER ================= */
@@ -47,8 +82,9 @@ function renderStudents(students) {
 }
 
 /* ================= SEARCH ================= */
-function applySearch(e) {
-    const q = e.target.value.toLowerCase();
+// Filters the pages loaded so far
+function applySearch() {
+    const q = document.getElementById("searchInput").value.toLowerCase();
 
     currentView = allStudents.filter(s =>
         s.id.toLowerCase().includes(q) ||
@@ -100,11 +136,21 @@ async function showMemberDetails(studentId) {
     document.getElementById("mdId").innerText = student.id;
     document.getElementById("mdEmail").innerText = student.email;
 
-    const issues = await fetch("/api/issues").then(r => r.json());
-    const myIssues = issues.filter(i => i.studentId === studentId);
-
     const tbody = document.getElementById("mdBooksBody");
 
+    let myIssues;
+    try {
+        myIssues = await fetchStudentIssues(studentId);
+    } catch (e) {
+        tbody.innerHTML = `
+          <tr>
+            <td colspan="5" class="text-center text-danger">
+              Failed to load loans
+            </td>
+          </tr>`;
+        return;
+    }
+
     if (!myIssues.length) {
         tbody.innerHTML = `
           <tr>
@@ -137,6 +183,20 @@ async function showMemberDetails(studentId) {
     }).join("");
 }
 
+// Only this member's loans: cost follows their history, not the library size
+async function fetchStudentIssues(studentId) {
+    let issues = [];
+    let token = null;
+    do {
+        let url = `/api/students/${encodeURIComponent(studentId)}/issues?limit=100`;
+        if (token) url += `&pageToken=${encodeURIComponent(token)}`;
+        const page = await fetchJson(url);
+        issues = issues.concat(page.items);
+        token = page.nextPageToken;
+    } while (token);
+    return issues;
+}
+
 /* ================= FINE ================= */
 function calculateFine(dueDate) {
     const today = new Date();